@@ -0,0 +1,103 @@
+package jmh.java.com.migration.benchmark;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Table shapes the copy benchmarks run against
+ */
+public enum ColumnMix {
+
+    NARROW_NUMERIC("id BIGINT PRIMARY KEY, qty INTEGER, price DECIMAL(12,2), ratio DOUBLE, active BOOLEAN",
+            List.of("id", "qty", "price", "ratio", "active")),
+    WIDE_VARCHAR("id BIGINT PRIMARY KEY, name VARCHAR(100), email VARCHAR(255), street VARCHAR(255), "
+            + "city VARCHAR(100), notes VARCHAR(2000), updated_at TIMESTAMP",
+            List.of("id", "name", "email", "street", "city", "notes", "updated_at")),
+    LOB_HEAVY("id BIGINT PRIMARY KEY, title VARCHAR(200), body CLOB, attachment BLOB",
+            List.of("id", "title", "body", "attachment"));
+
+    private final String columnDefinitions;
+    private final List<String> columns;
+
+    ColumnMix(String columnDefinitions, List<String> columns) {
+        this.columnDefinitions = columnDefinitions;
+        this.columns = columns;
+    }
+
+    public List<String> columns() {
+        return columns;
+    }
+
+    public void createTable(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + table);
+            statement.execute("CREATE TABLE " + table + " (" + columnDefinitions + ")");
+        }
+    }
+
+    /**
+     * Fills the table with reproducible rows
+     */
+    public void populate(Connection connection, String table, int rows) throws SQLException {
+        Random random = new Random(42);
+        String placeholders = String.join(", ", Collections.nCopies(columns.size(), "?"));
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES (" + placeholders + ")")) {
+            for (int id = 1; id <= rows; id++) {
+                bind(insert, id, random);
+                insert.addBatch();
+                if (id % 1000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void bind(PreparedStatement insert, long id, Random random) throws SQLException {
+        insert.setLong(1, id);
+        switch (this) {
+            case NARROW_NUMERIC:
+                insert.setInt(2, random.nextInt(1000));
+                insert.setBigDecimal(3, BigDecimal.valueOf(random.nextInt(1_000_000), 2));
+                insert.setDouble(4, random.nextDouble());
+                insert.setBoolean(5, random.nextBoolean());
+                break;
+            case WIDE_VARCHAR:
+                insert.setString(2, text(random, 20));
+                insert.setString(3, text(random, 30) + "@example.com");
+                insert.setString(4, text(random, 60));
+                insert.setString(5, text(random, 15));
+                insert.setString(6, random.nextInt(4) == 0 ? null : text(random, 500));
+                insert.setTimestamp(7, new Timestamp(1_600_000_000_000L + random.nextInt(Integer.MAX_VALUE) * 10L));
+                break;
+            case LOB_HEAVY:
+                insert.setString(2, text(random, 50));
+                insert.setString(3, text(random, 8_000));
+                byte[] attachment = new byte[16_384];
+                random.nextBytes(attachment);
+                insert.setBytes(4, attachment);
+                break;
+        }
+    }
+
+    private static String text(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+}
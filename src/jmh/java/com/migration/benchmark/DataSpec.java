@@ -0,0 +1,80 @@
+package jmh.java.com.migration.benchmark;
+
+import lombok.Data;
+
+/**
+ * Shape of the synthetic table generated for the end-to-end benchmark
+ */
+@Data
+public class DataSpec {
+
+    public enum KeyDistribution {
+        // 1, 2, 3, ...
+        SEQUENTIAL,
+        // Increasing with random gaps, like a table with many deleted rows
+        SPARSE,
+        // A random permutation of 1..rows, inserted out of key order
+        SHUFFLED
+    }
+
+    private long rows = 1_000_000;
+    private KeyDistribution keyDistribution = KeyDistribution.SEQUENTIAL;
+    private int numericColumns = 3;
+    private int stringColumns = 4;
+    private int minStringLength = 8;
+    private int maxStringLength = 64;
+    private int lobColumns;
+    private int lobSize = 4096;
+    // Share of NULLs in every non-key column, 0 to 1
+    private double nullRatio = 0.1;
+    private long seed = 42;
+
+    /**
+     * Reads {@code --name=value} options, e.g. {@code --rows=5000000 --lobColumns=1 --lobSize=65536}
+     */
+    public static DataSpec fromArgs(String[] args) {
+        DataSpec spec = new DataSpec();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                continue;
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (name) {
+                case "rows":
+                    spec.setRows(Long.parseLong(value));
+                    break;
+                case "keyDistribution":
+                    spec.setKeyDistribution(KeyDistribution.valueOf(value.toUpperCase()));
+                    break;
+                case "numericColumns":
+                    spec.setNumericColumns(Integer.parseInt(value));
+                    break;
+                case "stringColumns":
+                    spec.setStringColumns(Integer.parseInt(value));
+                    break;
+                case "minStringLength":
+                    spec.setMinStringLength(Integer.parseInt(value));
+                    break;
+                case "maxStringLength":
+                    spec.setMaxStringLength(Integer.parseInt(value));
+                    break;
+                case "lobColumns":
+                    spec.setLobColumns(Integer.parseInt(value));
+                    break;
+                case "lobSize":
+                    spec.setLobSize(Integer.parseInt(value));
+                    break;
+                case "nullRatio":
+                    spec.setNullRatio(Double.parseDouble(value));
+                    break;
+                case "seed":
+                    spec.setSeed(Long.parseLong(value));
+                    break;
+                default:
+                    break;
+            }
+        }
+        return spec;
+    }
+}
@@ -0,0 +1,50 @@
+package jmh.java.com.migration.benchmark;
+
+import com.migration.util.DatabaseDialectConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converts a representative set of column types for every pair of supported dialects
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DialectConversionBenchmark {
+
+    private static final String[] DATA_TYPES = {
+            "varchar", "nvarchar", "char", "text", "clob", "int", "integer", "bigint", "smallint",
+            "decimal", "numeric", "number", "float", "double", "real", "boolean", "bit", "date",
+            "datetime", "timestamp", "blob", "varbinary", "bytea"
+    };
+
+    @Param({"mysql", "postgresql", "sqlserver", "oracle", "hana"})
+    public String sourceDbType;
+
+    @Param({"mysql", "postgresql", "sqlserver", "oracle", "hana"})
+    public String targetDbType;
+
+    /**
+     * One operation converts every type in {@link #DATA_TYPES}
+     */
+    @Benchmark
+    public void convertDataTypes(Blackhole blackhole) {
+        for (String dataType : DATA_TYPES) {
+            blackhole.consume(DatabaseDialectConverter.convertDataType(sourceDbType, targetDbType, dataType));
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package jmh.java.com.migration.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.migration.DataMigrationApplication;
+import com.migration.model.DatabaseConnection;
+import com.migration.model.MigrationRequest;
+import com.migration.model.MigrationResult;
+import com.migration.service.MigrationService;
+import com.migration.service.copy.CopyMonitor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Drives {@link MigrationService#migrateData} end to end over synthetic data in in-memory H2
+ * databases running in MySQL, PostgreSQL, Oracle and SQL Server compatibility modes, once per
+ * write mode, and reports rows/sec, p99 batch latency, peak heap and allocation rate.
+ * <p>
+ * Options: {@code --dialects=mysql,postgresql --modes=INSERT,MULTI_ROW,BULK --batchSize=1000
+ * --writerThreads=1 --parallelism=1 --output=target/e2e-benchmark.json} plus the data options of
+ * {@link DataSpec#fromArgs}. H2 does not speak the vendor bulk protocols, so BULK falls back the
+ * same way it does against a driver without them; Oracle INSERT ALL is not supported by H2 and
+ * those runs are reported as failed.
+ */
+@Slf4j
+public class EndToEndBenchmark {
+
+    private static final String SOURCE_TABLE = "E2E_SOURCE";
+    private static final String TARGET_TABLE = "E2E_TARGET";
+
+    // H2 compatibility mode per dialect
+    private static final Map<String, String> H2_MODES = Map.of(
+            "mysql", "MySQL",
+            "postgresql", "PostgreSQL",
+            "oracle", "Oracle",
+            "sqlserver", "MSSQLServer");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = options(args);
+        DataSpec spec = DataSpec.fromArgs(args);
+        List<String> dialects = Arrays.asList(options.getOrDefault("dialects", "mysql,postgresql,oracle,sqlserver").split(","));
+        List<String> modes = Arrays.asList(options.getOrDefault("modes", "INSERT,MULTI_ROW,BULK").split(","));
+        int batchSize = Integer.parseInt(options.getOrDefault("batchSize", "1000"));
+        int writerThreads = Integer.parseInt(options.getOrDefault("writerThreads", "1"));
+        int parallelism = Integer.parseInt(options.getOrDefault("parallelism", "1"));
+        Path output = Paths.get(options.getOrDefault("output", "target/e2e-benchmark.json"));
+
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(spec);
+        List<RunResult> results = new ArrayList<>();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DataMigrationApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.main.banner-mode=off", "--migration.jobs.purge-interval-ms=3600000")) {
+            MigrationService migrationService = context.getBean(MigrationService.class);
+
+            for (String dialect : dialects) {
+                String mode = H2_MODES.get(dialect);
+                if (mode == null) {
+                    throw new IllegalArgumentException("No H2 compatibility mode for " + dialect);
+                }
+                DatabaseConnection source = h2Connection(dialect, "E2E_SOURCE_" + dialect.toUpperCase(Locale.ROOT), mode);
+                DatabaseConnection target = h2Connection(dialect, "E2E_TARGET_" + dialect.toUpperCase(Locale.ROOT), mode);
+
+                // Opened here and kept open so the in-memory databases outlive the pooled connections
+                try (Connection sourceHolder = DriverManager.getConnection(source.getJdbcUrl());
+                     Connection targetHolder = DriverManager.getConnection(target.getJdbcUrl())) {
+                    log.info("Generating {} rows in {} mode", spec.getRows(), mode);
+                    long generateStart = System.currentTimeMillis();
+                    generator.createTable(sourceHolder, SOURCE_TABLE);
+                    generator.populate(sourceHolder, SOURCE_TABLE);
+                    generator.createTable(targetHolder, TARGET_TABLE);
+                    log.info("Generated source in {} ms", System.currentTimeMillis() - generateStart);
+
+                    for (String writeMode : modes) {
+                        MigrationRequest request = new MigrationRequest();
+                        request.setSourceConnection(source);
+                        request.setTargetConnection(target);
+                        request.setSourceTable(SOURCE_TABLE);
+                        request.setTargetTable(TARGET_TABLE);
+                        request.setSelectedColumns(generator.columns());
+                        request.setTruncateTargetTable(true);
+                        request.setBatchSize(batchSize);
+                        request.setWriterThreads(writerThreads);
+                        request.setParallelism(parallelism);
+                        request.setWriteMode(writeMode);
+                        results.add(run(migrationService, request, dialect, writeMode));
+                    }
+                }
+            }
+        }
+
+        print(results);
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("data", spec);
+        report.put("batchSize", batchSize);
+        report.put("writerThreads", writerThreads);
+        report.put("parallelism", parallelism);
+        report.put("results", results);
+        write(objectMapper, output, report);
+    }
+
+    private static RunResult run(MigrationService migrationService, MigrationRequest request, String dialect,
+                                 String writeMode) {
+        System.gc();
+        LatencyMonitor monitor = new LatencyMonitor();
+        RunProbe probe = new RunProbe();
+        long start = System.nanoTime();
+        MigrationResult migration = migrationService.migrateData(request, monitor);
+        long elapsedNanos = System.nanoTime() - start;
+        RunProbe.Result resources = probe.finish();
+
+        RunResult result = new RunResult();
+        result.setDialect(dialect);
+        result.setWriteMode(writeMode);
+        result.setSuccess(migration.isSuccess());
+        result.setMessage(migration.getMessage());
+        result.setRows(migration.getMigratedRecords());
+        result.setSeconds(elapsedNanos / 1e9);
+        result.setRowsPerSecond(migration.getMigratedRecords() / Math.max(1e-9, result.getSeconds()));
+        result.setBatches(monitor.executeLatencies.size());
+        result.setP50BatchMillis(monitor.executeLatencies.percentile(0.50) / 1e6);
+        result.setP99BatchMillis(monitor.executeLatencies.percentile(0.99) / 1e6);
+        result.setP99CommitMillis(monitor.commitLatencies.percentile(0.99) / 1e6);
+        result.setPeakHeapMb(resources.getPeakHeapBytes() / (1024.0 * 1024.0));
+        result.setAllocatedMb(resources.getAllocatedBytes() / (1024.0 * 1024.0));
+        result.setAllocationMbPerSecond(resources.getAllocationBytesPerSecond() / (1024.0 * 1024.0));
+        result.setGcCount(resources.getGcCount());
+        log.info("{} {}: {}", dialect, writeMode, migration.getMessage());
+        return result;
+    }
+
+    private static DatabaseConnection h2Connection(String dialect, String databaseName, String mode) {
+        DatabaseConnection connection = new DatabaseConnection();
+        // The dialect name drives the same code paths as the real database would
+        connection.setDbType(dialect);
+        connection.setDatabaseName(databaseName);
+        connection.setUsername("sa");
+        connection.setPassword("");
+        connection.setJdbcUrl("jdbc:h2:mem:" + databaseName + ";MODE=" + mode + ";DB_CLOSE_DELAY=-1");
+        return connection;
+    }
+
+    private static void print(List<RunResult> results) {
+        System.out.printf("%n%-11s %-10s %12s %10s %10s %10s %11s %13s  %s%n", "dialect", "mode", "rows/sec",
+                "p99 batch", "p99 commit", "peak heap", "alloc MB/s", "allocated MB", "result");
+        for (RunResult result : results) {
+            System.out.printf("%-11s %-10s %12.0f %8.2fms %8.2fms %8.0fMB %11.1f %13.0f  %s%n",
+                    result.getDialect(), result.getWriteMode(), result.getRowsPerSecond(), result.getP99BatchMillis(),
+                    result.getP99CommitMillis(), result.getPeakHeapMb(), result.getAllocationMbPerSecond(),
+                    result.getAllocatedMb(), result.isSuccess() ? "ok" : result.getMessage());
+        }
+    }
+
+    private static void write(ObjectMapper objectMapper, Path output, Object report) throws IOException {
+        if (output.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(output.toAbsolutePath().getParent());
+        }
+        objectMapper.writeValue(output.toFile(), report);
+        System.out.println("Results written to " + output.toAbsolutePath());
+    }
+
+    private static Map<String, String> options(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Collects the execute and commit time of every batch written
+     */
+    private static class LatencyMonitor implements CopyMonitor {
+
+        private final LatencyHistogram executeLatencies = new LatencyHistogram();
+        private final LatencyHistogram commitLatencies = new LatencyHistogram();
+
+        @Override
+        public void onBatchExecuted(int rows, long nanos) {
+            executeLatencies.add(nanos);
+        }
+
+        @Override
+        public void onCommit(long nanos) {
+            commitLatencies.add(nanos);
+        }
+    }
+
+    /**
+     * Keeps every sample; a run writes at most a few hundred thousand batches
+     */
+    private static class LatencyHistogram {
+
+        private long[] samples = new long[1024];
+        private int size;
+
+        synchronized void add(long nanos) {
+            if (size == samples.length) {
+                samples = Arrays.copyOf(samples, size * 2);
+            }
+            samples[size++] = nanos;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized double percentile(double quantile) {
+            if (size == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            return sorted[Math.min(size - 1, (int) Math.ceil(quantile * size) - 1)];
+        }
+    }
+
+    @Data
+    public static class RunResult {
+        private String dialect;
+        private String writeMode;
+        private boolean success;
+        private String message;
+        private long rows;
+        private double seconds;
+        private double rowsPerSecond;
+        private int batches;
+        private double p50BatchMillis;
+        private double p99BatchMillis;
+        private double p99CommitMillis;
+        private double peakHeapMb;
+        private double allocatedMb;
+        private double allocationMbPerSecond;
+        private long gcCount;
+    }
+}
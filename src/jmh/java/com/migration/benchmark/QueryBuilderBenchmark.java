@@ -0,0 +1,57 @@
+package jmh.java.com.migration.benchmark;
+
+import com.migration.service.MigrationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the per-partition SELECT and INSERT statements for tables of different widths
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryBuilderBenchmark {
+
+    @Param({"5", "50", "500"})
+    public int columnCount;
+
+    private List<String> columns;
+    private List<String> predicates;
+
+    @Setup
+    public void createColumns() {
+        columns = new ArrayList<>();
+        for (int i = 0; i < columnCount; i++) {
+            columns.add("column_" + i);
+        }
+        predicates = Arrays.asList("updated_at > ? AND updated_at <= ?", "column_0 >= ? AND column_0 < ?");
+    }
+
+    @Benchmark
+    public String buildSelectQuery() {
+        return MigrationService.buildSelectQuery("schema_name.table_name", columns, "status = 'ACTIVE'",
+                predicates, "column_0");
+    }
+
+    @Benchmark
+    public String buildInsertQuery() {
+        return MigrationService.buildInsertQuery("schema_name.table_name", columns);
+    }
+}
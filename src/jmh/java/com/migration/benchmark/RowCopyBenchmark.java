@@ -0,0 +1,111 @@
+package jmh.java.com.migration.benchmark;
+
+import com.migration.service.MigrationService;
+import com.migration.service.copy.BatchWriter;
+import com.migration.service.copy.CopyMonitor;
+import com.migration.service.copy.CopyPipeline;
+import com.migration.service.copy.InsertBatchWriter;
+import com.migration.service.copy.PipelineStats;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copies a table between two in-memory H2 databases through the same reader/writer pipeline
+ * that {@code MigrationService.migrateData} runs for each partition. One operation copies
+ * every row, so the score is the time per full copy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RowCopyBenchmark {
+
+    private static final String SOURCE_URL = "jdbc:h2:mem:source;DB_CLOSE_DELAY=-1";
+    private static final String TARGET_URL = "jdbc:h2:mem:target;DB_CLOSE_DELAY=-1";
+    private static final String TABLE = "bench_rows";
+
+    @Param({"NARROW_NUMERIC", "WIDE_VARCHAR", "LOB_HEAVY"})
+    public ColumnMix columnMix;
+
+    @Param({"20000"})
+    public int rows;
+
+    @Param({"1000"})
+    public int batchSize;
+
+    @Param({"1", "2"})
+    public int writerThreads;
+
+    // Keep the in-memory databases alive between invocations
+    private Connection sourceHolder;
+    private Connection targetHolder;
+    private String selectQuery;
+    private String insertQuery;
+
+    @Setup(Level.Trial)
+    public void createTables() throws SQLException {
+        sourceHolder = DriverManager.getConnection(SOURCE_URL);
+        targetHolder = DriverManager.getConnection(TARGET_URL);
+        columnMix.createTable(sourceHolder, TABLE);
+        columnMix.populate(sourceHolder, TABLE, rows);
+        columnMix.createTable(targetHolder, TABLE);
+        selectQuery = MigrationService.buildSelectQuery(TABLE, columnMix.columns(), null, List.of(), null);
+        insertQuery = MigrationService.buildInsertQuery(TABLE, columnMix.columns());
+    }
+
+    @Setup(Level.Invocation)
+    public void truncateTarget() throws SQLException {
+        try (Statement statement = targetHolder.createStatement()) {
+            statement.execute("TRUNCATE TABLE " + TABLE);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void closeDatabases() throws SQLException {
+        sourceHolder.close();
+        targetHolder.close();
+    }
+
+    @Benchmark
+    public long copy() throws SQLException, InterruptedException {
+        List<BatchWriter> writers = new ArrayList<>();
+        try (Connection source = DriverManager.getConnection(SOURCE_URL);
+             PreparedStatement select = source.prepareStatement(selectQuery)) {
+            for (int i = 0; i < writerThreads; i++) {
+                writers.add(new InsertBatchWriter(DriverManager.getConnection(TARGET_URL), insertQuery, CopyMonitor.NONE));
+            }
+            select.setFetchSize(batchSize);
+            try (ResultSet rs = select.executeQuery()) {
+                PipelineStats stats = new CopyPipeline(batchSize, 4, writers, CopyMonitor.NONE, "h2").run(rs);
+                return stats.getRowsWritten();
+            }
+        } finally {
+            for (BatchWriter writer : writers) {
+                writer.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package jmh.java.com.migration.benchmark;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples peak heap use and estimates bytes allocated while a run is in progress.
+ * <p>
+ * Allocation is derived from GC notifications: everything the heap grew by between the end of
+ * one collection and the start of the next was allocated in between. This also counts objects
+ * the copy threads allocated and that died with them, which per-thread counters would miss.
+ */
+public class RunProbe implements NotificationListener, AutoCloseable {
+
+    private static final long SAMPLE_MILLIS = 10;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "benchmark-heap-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final long startedAt = System.nanoTime();
+
+    private long peakHeap;
+    private long allocated;
+    private long heapAfterLastGc;
+    private long gcCount;
+
+    public RunProbe() {
+        heapAfterLastGc = memory.getHeapMemoryUsage().getUsed();
+        peakHeap = heapAfterLastGc;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gc instanceof NotificationEmitter) {
+                ((NotificationEmitter) gc).addNotificationListener(this, null, null);
+            }
+        }
+        sampler.scheduleAtFixedRate(this::sample, 0, SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void handleNotification(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        long before = heapUsed(info.getGcInfo().getMemoryUsageBeforeGc());
+        long after = heapUsed(info.getGcInfo().getMemoryUsageAfterGc());
+        allocated += Math.max(0, before - heapAfterLastGc);
+        peakHeap = Math.max(peakHeap, before);
+        heapAfterLastGc = after;
+        gcCount++;
+    }
+
+    private synchronized void sample() {
+        peakHeap = Math.max(peakHeap, memory.getHeapMemoryUsage().getUsed());
+    }
+
+    /**
+     * Stops sampling and returns what was measured since construction
+     */
+    public synchronized Result finish() {
+        close();
+        long used = memory.getHeapMemoryUsage().getUsed();
+        long totalAllocated = allocated + Math.max(0, used - heapAfterLastGc);
+        double seconds = Math.max(1, System.nanoTime() - startedAt) / 1e9;
+        return new Result(Math.max(peakHeap, used), totalAllocated, totalAllocated / seconds, gcCount);
+    }
+
+    @Override
+    public void close() {
+        sampler.shutdownNow();
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gc instanceof NotificationEmitter) {
+                try {
+                    ((NotificationEmitter) gc).removeNotificationListener(this);
+                } catch (ListenerNotFoundException e) {
+                    // Already removed by an earlier close()
+                }
+            }
+        }
+    }
+
+    private static long heapUsed(Map<String, MemoryUsage> pools) {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pools.containsKey(pool.getName())) {
+                used += pools.get(pool.getName()).getUsed();
+            }
+        }
+        return used;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Result {
+        private long peakHeapBytes;
+        private long allocatedBytes;
+        private double allocationBytesPerSecond;
+        private long gcCount;
+    }
+}
@@ -0,0 +1,152 @@
+package jmh.java.com.migration.benchmark;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Creates and fills a table following a {@link DataSpec}. The same spec and seed always
+ * produce the same rows.
+ */
+public class SyntheticDataGenerator {
+
+    private static final int INSERT_BATCH = 1000;
+
+    private final DataSpec spec;
+
+    public SyntheticDataGenerator(DataSpec spec) {
+        this.spec = spec;
+    }
+
+    public List<String> columns() {
+        List<String> columns = new ArrayList<>();
+        columns.add("ID");
+        for (int i = 0; i < spec.getNumericColumns(); i++) {
+            columns.add("NUM_" + i);
+        }
+        for (int i = 0; i < spec.getStringColumns(); i++) {
+            columns.add("STR_" + i);
+        }
+        for (int i = 0; i < spec.getLobColumns(); i++) {
+            columns.add("LOB_" + i);
+        }
+        return columns;
+    }
+
+    /**
+     * Creates the table, dropping any previous one
+     */
+    public void createTable(Connection connection, String table) throws SQLException {
+        List<String> definitions = new ArrayList<>();
+        definitions.add("ID BIGINT PRIMARY KEY");
+        for (int i = 0; i < spec.getNumericColumns(); i++) {
+            definitions.add("NUM_" + i + (i % 2 == 0 ? " DECIMAL(18,4)" : " INTEGER"));
+        }
+        for (int i = 0; i < spec.getStringColumns(); i++) {
+            definitions.add("STR_" + i + " VARCHAR(" + Math.max(1, spec.getMaxStringLength()) + ")");
+        }
+        for (int i = 0; i < spec.getLobColumns(); i++) {
+            definitions.add("LOB_" + i + " BLOB");
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + table);
+            statement.execute("CREATE TABLE " + table + " (" + String.join(", ", definitions) + ")");
+        }
+    }
+
+    /**
+     * Inserts {@code rows} generated rows into a table created by {@link #createTable}
+     */
+    public void populate(Connection connection, String table) throws SQLException {
+        SplittableRandom random = new SplittableRandom(spec.getSeed());
+        List<String> columns = columns();
+        String insert = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+        long[] shuffledKeys = spec.getKeyDistribution() == DataSpec.KeyDistribution.SHUFFLED ? shuffledKeys(random) : null;
+
+        connection.setAutoCommit(false);
+        try (PreparedStatement statement = connection.prepareStatement(insert)) {
+            long key = 0;
+            for (long row = 0; row < spec.getRows(); row++) {
+                switch (spec.getKeyDistribution()) {
+                    case SPARSE:
+                        key += 1 + random.nextInt(10);
+                        break;
+                    case SHUFFLED:
+                        key = shuffledKeys[(int) row];
+                        break;
+                    default:
+                        key++;
+                }
+                int parameter = 1;
+                statement.setLong(parameter++, key);
+                for (int i = 0; i < spec.getNumericColumns(); i++, parameter++) {
+                    if (isNull(random)) {
+                        statement.setNull(parameter, i % 2 == 0 ? Types.DECIMAL : Types.INTEGER);
+                    } else if (i % 2 == 0) {
+                        statement.setBigDecimal(parameter, BigDecimal.valueOf(random.nextLong(1_000_000_000L), 4));
+                    } else {
+                        statement.setInt(parameter, random.nextInt());
+                    }
+                }
+                for (int i = 0; i < spec.getStringColumns(); i++, parameter++) {
+                    statement.setString(parameter, isNull(random) ? null : text(random));
+                }
+                for (int i = 0; i < spec.getLobColumns(); i++, parameter++) {
+                    if (isNull(random)) {
+                        statement.setNull(parameter, Types.BLOB);
+                    } else {
+                        byte[] lob = new byte[spec.getLobSize()];
+                        random.nextBytes(lob);
+                        statement.setBytes(parameter, lob);
+                    }
+                }
+                statement.addBatch();
+                if ((row + 1) % INSERT_BATCH == 0) {
+                    statement.executeBatch();
+                    connection.commit();
+                }
+            }
+            statement.executeBatch();
+            connection.commit();
+        }
+    }
+
+    private boolean isNull(SplittableRandom random) {
+        return spec.getNullRatio() > 0 && random.nextDouble() < spec.getNullRatio();
+    }
+
+    private String text(SplittableRandom random) {
+        int min = Math.max(0, spec.getMinStringLength());
+        int length = min + random.nextInt(Math.max(1, spec.getMaxStringLength() - min + 1));
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    private long[] shuffledKeys(SplittableRandom random) {
+        if (spec.getRows() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("SHUFFLED keys support at most " + Integer.MAX_VALUE + " rows");
+        }
+        long[] keys = new long[(int) spec.getRows()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i + 1;
+        }
+        for (int i = keys.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long swap = keys[i];
+            keys[i] = keys[j];
+            keys[j] = swap;
+        }
+        return keys;
+    }
+}
@@ -1,13 +1,23 @@
 package main.java.com.migration;
 
+import com.migration.service.BatchMigrationRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(exclude = {DataSourceAutoConfiguration.class})
+@EnableScheduling
 public class DataMigrationApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(DataMigrationApplication.class, args);
+        SpringApplication application = new SpringApplication(DataMigrationApplication.class);
+        if (BatchMigrationRunner.isRequested(args)) {
+            // Headless plan run: no web server, lazy beans (application-batch.properties)
+            application.setAdditionalProfiles(BatchMigrationRunner.PROFILE);
+            // The scheduler keeps the JVM alive, so exit explicitly with the runner's code
+            System.exit(SpringApplication.exit(application.run(args)));
+        }
+        application.run(args);
     }
 }
@@ -1,13 +1,33 @@
 package main.java.com.migration.controller;
 
 import com.migration.model.DatabaseConnection;
+import com.migration.model.JobStatus;
 import com.migration.model.MigrationRequest;
-import com.migration.model.MigrationResult;
+import com.migration.model.SchemaJobStatus;
+import com.migration.model.SchemaMigrationRequest;
 import com.migration.model.TableInfo;
+import com.migration.model.ThrottleSettings;
+import com.migration.model.VerificationRequest;
+import com.migration.model.VerificationResult;
+import com.migration.service.CatalogIntrospector;
+import com.migration.service.CheckpointStore;
+import com.migration.service.ConnectionPoolManager;
 import com.migration.service.DatabaseService;
+import com.migration.service.JfrRecordingService;
+import com.migration.service.MigrationJobService;
+import com.migration.service.MetadataCache;
 import com.migration.service.MigrationService;
+import com.migration.service.SchemaMigrationService;
+import com.migration.service.ThrottleService;
+import com.migration.service.VerificationService;
+import com.migration.service.WatermarkStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
@@ -15,6 +35,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Controller
 @RequiredArgsConstructor
@@ -23,6 +44,16 @@ public class MigrationController {
 
     private final DatabaseService databaseService;
     private final MigrationService migrationService;
+    private final ConnectionPoolManager connectionPoolManager;
+    private final MigrationJobService migrationJobService;
+    private final CheckpointStore checkpointStore;
+    private final WatermarkStore watermarkStore;
+    private final MetadataCache metadataCache;
+    private final SchemaMigrationService schemaMigrationService;
+    private final CatalogIntrospector catalogIntrospector;
+    private final JfrRecordingService jfrRecordingService;
+    private final VerificationService verificationService;
+    private final ThrottleService throttleService;
 
     @GetMapping("/")
     public String index(Model model) {
@@ -90,15 +121,279 @@ public class MigrationController {
         return response;
     }
 
+    /**
+     * Returns columns, primary keys, indexes and row estimates of every table in a schema
+     */
+    @PostMapping("/get-schema-info")
+    @ResponseBody
+    public Map<String, Object> getSchemaInfo(@RequestBody Map<String, Object> request) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            DatabaseConnection connection = new DatabaseConnection();
+            connection.setDbType((String) request.get("dbType"));
+            connection.setHost((String) request.get("host"));
+            connection.setPort(Integer.parseInt(request.get("port").toString()));
+            connection.setDatabaseName((String) request.get("databaseName"));
+            connection.setUsername((String) request.get("username"));
+            connection.setPassword((String) request.get("password"));
+            
+            String schema = (String) request.get("schema");
+            
+            Map<String, TableInfo> tables = catalogIntrospector.introspect(connection, schema);
+            response.put("success", true);
+            response.put("tables", tables);
+        } catch (Exception e) {
+            log.error("Failed to get schema information: {}", e.getMessage(), e);
+            response.put("success", false);
+            response.put("message", "Failed to get schema information: " + e.getMessage());
+        }
+        return response;
+    }
+
     @PostMapping("/migrate")
     @ResponseBody
-    public MigrationResult migrateData(@RequestBody MigrationRequest request) {
+    public Map<String, Object> migrateData(@RequestBody MigrationRequest request) {
+        Map<String, Object> response = new HashMap<>();
         try {
-            return migrationService.migrateData(request);
+            String jobId = migrationJobService.submit(request);
+            response.put("success", true);
+            response.put("jobId", jobId);
         } catch (Exception e) {
-            log.error("Migration failed: {}", e.getMessage(), e);
-            return new MigrationResult(false, 0, 0, 0, 0, "Migration failed: " + e.getMessage(), e);
+            log.error("Failed to submit migration: {}", e.getMessage(), e);
+            response.put("success", false);
+            response.put("message", "Failed to submit migration: " + e.getMessage());
+        }
+        return response;
+    }
+
+    @GetMapping("/jobs")
+    @ResponseBody
+    public Map<String, Object> listJobs() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("jobs", migrationJobService.listJobs());
+        return response;
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    @ResponseBody
+    public Map<String, Object> getJob(@PathVariable String jobId) {
+        Map<String, Object> response = new HashMap<>();
+        Optional<JobStatus> status = migrationJobService.getStatus(jobId);
+        if (status.isPresent()) {
+            response.put("success", true);
+            response.put("job", status.get());
+        } else {
+            response.put("success", false);
+            response.put("message", "Job not found: " + jobId);
         }
+        return response;
+    }
+
+    /**
+     * Downloads the flight recording of a job submitted with jfrRecording, once the job has finished
+     */
+    @GetMapping("/jobs/{jobId}/recording")
+    public ResponseEntity<Resource> downloadRecording(@PathVariable String jobId) {
+        return jfrRecordingService.getFile(jobId)
+                .<ResponseEntity<Resource>>map(file -> ResponseEntity.ok()
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .body(new FileSystemResource(file)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/jobs/{jobId}/cancel")
+    @ResponseBody
+    public Map<String, Object> cancelJob(@PathVariable String jobId) {
+        Map<String, Object> response = new HashMap<>();
+        boolean cancelled = migrationJobService.cancel(jobId);
+        response.put("success", cancelled);
+        response.put("message", cancelled ? "Cancellation requested" : "Job not found or already finished: " + jobId);
+        return response;
+    }
+
+    /**
+     * Changes the source read limits of a running job; fields left out keep their value
+     */
+    @PostMapping("/jobs/{jobId}/throttle")
+    @ResponseBody
+    public Map<String, Object> throttleJob(@PathVariable String jobId, @RequestBody ThrottleSettings settings) {
+        Map<String, Object> response = new HashMap<>();
+        Optional<ThrottleSettings> applied = migrationJobService.updateThrottle(jobId, settings);
+        response.put("success", applied.isPresent());
+        if (applied.isPresent()) {
+            response.put("throttle", applied.get());
+        } else {
+            response.put("message", "Job not found or already finished: " + jobId);
+        }
+        return response;
+    }
+
+    /**
+     * Limits shared by all running migrations together
+     */
+    @GetMapping("/throttle")
+    @ResponseBody
+    public Map<String, Object> getGlobalThrottle() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("throttle", ThrottleService.settingsOf(throttleService.getGlobal()));
+        return response;
+    }
+
+    @PostMapping("/throttle")
+    @ResponseBody
+    public Map<String, Object> updateGlobalThrottle(@RequestBody ThrottleSettings settings) {
+        Map<String, Object> response = new HashMap<>();
+        throttleService.update(throttleService.getGlobal(), settings);
+        response.put("success", true);
+        response.put("throttle", ThrottleService.settingsOf(throttleService.getGlobal()));
+        return response;
+    }
+
+    @PostMapping("/migrate-schema")
+    @ResponseBody
+    public Map<String, Object> migrateSchema(@RequestBody SchemaMigrationRequest request) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            String jobId = schemaMigrationService.submit(request);
+            response.put("success", true);
+            response.put("jobId", jobId);
+        } catch (Exception e) {
+            log.error("Failed to submit schema migration: {}", e.getMessage(), e);
+            response.put("success", false);
+            response.put("message", "Failed to submit schema migration: " + e.getMessage());
+        }
+        return response;
+    }
+
+    @GetMapping("/schema-jobs")
+    @ResponseBody
+    public Map<String, Object> listSchemaJobs() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("jobs", schemaMigrationService.listJobs());
+        return response;
+    }
+
+    @GetMapping("/schema-jobs/{jobId}")
+    @ResponseBody
+    public Map<String, Object> getSchemaJob(@PathVariable String jobId) {
+        Map<String, Object> response = new HashMap<>();
+        Optional<SchemaJobStatus> status = schemaMigrationService.getStatus(jobId);
+        if (status.isPresent()) {
+            response.put("success", true);
+            response.put("job", status.get());
+        } else {
+            response.put("success", false);
+            response.put("message", "Schema job not found: " + jobId);
+        }
+        return response;
+    }
+
+    @PostMapping("/schema-jobs/{jobId}/cancel")
+    @ResponseBody
+    public Map<String, Object> cancelSchemaJob(@PathVariable String jobId) {
+        Map<String, Object> response = new HashMap<>();
+        boolean cancelled = schemaMigrationService.cancel(jobId);
+        response.put("success", cancelled);
+        response.put("message", cancelled ? "Cancellation requested" : "Schema job not found or already finished: " + jobId);
+        return response;
+    }
+
+    @GetMapping("/checkpoints")
+    @ResponseBody
+    public Map<String, Object> listCheckpoints() {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            response.put("success", true);
+            response.put("checkpoints", checkpointStore.list());
+        } catch (Exception e) {
+            log.error("Failed to list checkpoints: {}", e.getMessage(), e);
+            response.put("success", false);
+            response.put("message", "Failed to list checkpoints: " + e.getMessage());
+        }
+        return response;
+    }
+
+    @PostMapping("/checkpoints/{checkpointId}/resume")
+    @ResponseBody
+    public Map<String, Object> resumeCheckpoint(@PathVariable String checkpointId,
+                                                @RequestBody(required = false) Map<String, String> credentials) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            Map<String, String> passwords = credentials != null ? credentials : Map.of();
+            String jobId = migrationJobService.resume(checkpointId, passwords.get("sourcePassword"),
+                    passwords.get("targetPassword"));
+            response.put("success", true);
+            response.put("jobId", jobId);
+        } catch (Exception e) {
+            log.error("Failed to resume checkpoint {}: {}", checkpointId, e.getMessage(), e);
+            response.put("success", false);
+            response.put("message", "Failed to resume checkpoint: " + e.getMessage());
+        }
+        return response;
+    }
+
+    @DeleteMapping("/checkpoints/{checkpointId}")
+    @ResponseBody
+    public Map<String, Object> deleteCheckpoint(@PathVariable String checkpointId) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            boolean deleted = checkpointStore.delete(checkpointId);
+            response.put("success", deleted);
+            response.put("message", deleted ? "Checkpoint deleted" : "Checkpoint not found: " + checkpointId);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "Failed to delete checkpoint: " + e.getMessage());
+        }
+        return response;
+    }
+
+    @GetMapping("/watermarks")
+    @ResponseBody
+    public Map<String, Object> listWatermarks() {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            response.put("success", true);
+            response.put("watermarks", watermarkStore.list());
+        } catch (Exception e) {
+            log.error("Failed to list watermarks: {}", e.getMessage(), e);
+            response.put("success", false);
+            response.put("message", "Failed to list watermarks: " + e.getMessage());
+        }
+        return response;
+    }
+
+    @DeleteMapping("/watermarks/{watermarkId}")
+    @ResponseBody
+    public Map<String, Object> resetWatermark(@PathVariable String watermarkId) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            boolean reset = watermarkStore.reset(watermarkId);
+            response.put("success", reset);
+            response.put("message", reset ? "Watermark reset, the next sync copies the whole table"
+                    : "Watermark not found: " + watermarkId);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "Failed to reset watermark: " + e.getMessage());
+        }
+        return response;
+    }
+
+    /**
+     * Compares a migrated table with its source chunk by chunk and lists the keys that differ
+     */
+    @PostMapping("/verify")
+    @ResponseBody
+    public Map<String, Object> verify(@RequestBody VerificationRequest request) {
+        Map<String, Object> response = new HashMap<>();
+        VerificationResult result = verificationService.verify(request);
+        response.put("success", result.isSuccess());
+        response.put("message", result.getMessage());
+        response.put("result", result);
+        return response;
     }
 
     @PostMapping("/count-records")
@@ -116,10 +411,21 @@ public class MigrationController {
             
             String tableName = (String) request.get("tableName");
             String whereClause = (String) request.get("whereClause");
+            // Statistics cannot answer a filtered count, so those are always exact
+            boolean exact = Boolean.TRUE.equals(request.get("exact"))
+                    || (whereClause != null && !whereClause.trim().isEmpty());
             
-            int count = migrationService.countRecords(connection, tableName, whereClause);
+            long count = exact
+                    ? migrationService.countRecords(connection, tableName, whereClause)
+                    : migrationService.estimateRecords(connection, tableName);
+            if (count < 0) {
+                response.put("success", false);
+                response.put("message", "No statistics for " + tableName + ", request an exact count");
+                return response;
+            }
             response.put("success", true);
             response.put("count", count);
+            response.put("exact", exact);
         } catch (Exception e) {
             log.error("Failed to count records: {}", e.getMessage(), e);
             response.put("success", false);
@@ -127,4 +433,59 @@ public class MigrationController {
         }
         return response;
     }
+
+    /**
+     * Drops cached catalog metadata: everything when called without a body, one database when
+     * given connection details, or one table when a tableName is given as well
+     */
+    @PostMapping("/metadata-cache/invalidate")
+    @ResponseBody
+    public Map<String, Object> invalidateMetadataCache(@RequestBody(required = false) Map<String, Object> request) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            if (request == null || request.get("dbType") == null) {
+                metadataCache.invalidateAll();
+            } else {
+                DatabaseConnection connection = new DatabaseConnection();
+                connection.setDbType((String) request.get("dbType"));
+                connection.setHost((String) request.get("host"));
+                connection.setPort(Integer.parseInt(request.get("port").toString()));
+                connection.setDatabaseName((String) request.get("databaseName"));
+                connection.setUsername((String) request.get("username"));
+                connection.setPassword((String) request.get("password"));
+                
+                String tableName = (String) request.get("tableName");
+                if (tableName != null && !tableName.isEmpty()) {
+                    metadataCache.invalidate(connection, tableName);
+                } else {
+                    metadataCache.invalidate(connection);
+                }
+            }
+            response.put("success", true);
+            response.put("message", "Metadata cache invalidated");
+        } catch (Exception e) {
+            log.error("Failed to invalidate metadata cache: {}", e.getMessage(), e);
+            response.put("success", false);
+            response.put("message", "Failed to invalidate metadata cache: " + e.getMessage());
+        }
+        return response;
+    }
+
+    @GetMapping("/metadata-cache/stats")
+    @ResponseBody
+    public Map<String, Object> getMetadataCacheStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("cache", metadataCache.getStats());
+        return response;
+    }
+
+    @GetMapping("/pool-stats")
+    @ResponseBody
+    public Map<String, Object> getPoolStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("pools", connectionPoolManager.getPoolStats());
+        return response;
+    }
 }
@@ -0,0 +1,21 @@
+package main.java.com.migration.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Migrations run by the headless batch runner, read from a YAML or JSON file. Other top-level
+ * keys are allowed so that shared connections can be defined once as YAML anchors.
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BatchPlan {
+    private String name;
+    // Run the migrations one at a time in order and skip the rest after the first failure;
+    // otherwise they are all queued at once, limited by migration.jobs.max-concurrent
+    private boolean stopOnFailure;
+    private List<MigrationRequest> migrations = new ArrayList<>();
+}
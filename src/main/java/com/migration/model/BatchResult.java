@@ -0,0 +1,41 @@
+package main.java.com.migration.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a batch plan, written as JSON when the runner exits
+ */
+@Data
+@NoArgsConstructor
+public class BatchResult {
+    private String plan;
+    private long startedAt;
+    private long finishedAt;
+    private int exitCode;
+    private String message;
+    private int succeeded;
+    private int failed;
+    private int skipped;
+    private List<Entry> migrations = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    public static class Entry {
+        public static final String STATUS_SUCCEEDED = "SUCCEEDED";
+        public static final String STATUS_FAILED = "FAILED";
+        public static final String STATUS_SKIPPED = "SKIPPED";
+        public static final String STATUS_VALIDATED = "VALIDATED";
+
+        private int index;
+        private String sourceTable;
+        private String targetTable;
+        private String status;
+        private String jobId;
+        private String phase;
+        private MigrationResult result;
+    }
+}
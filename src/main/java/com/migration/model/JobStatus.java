@@ -0,0 +1,26 @@
+package main.java.com.migration.model;
+
+import lombok.Data;
+
+/**
+ * Point-in-time view of an asynchronous migration job
+ */
+@Data
+public class JobStatus {
+    private String jobId;
+    private String phase;
+    private String sourceTable;
+    private String targetTable;
+    private long submittedAt;
+    private Long startedAt;
+    private Long finishedAt;
+    private long rowsRead;
+    private long rowsWritten;
+    private long estimatedTotal;
+    private double rowsPerSecond;
+    private Double percentComplete;
+    private Long etaSeconds;
+    private boolean cancelRequested;
+    private ThrottleSettings throttle;
+    private MigrationResult result;
+}
@@ -0,0 +1,68 @@
+package main.java.com.migration.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A contiguous range of partition key values: lowerBound &lt; key &lt;= upperBound.
+ * A null bound means the range is open on that side.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class KeyRange {
+    private int index;
+    private Object lowerBound;
+    private Object upperBound;
+    private boolean includeNulls;
+
+    /**
+     * Returns a range covering every row, used when the copy is not partitioned
+     */
+    public static KeyRange unbounded() {
+        return new KeyRange(0, null, null, true);
+    }
+
+    public boolean isUnbounded() {
+        return lowerBound == null && upperBound == null;
+    }
+
+    /**
+     * Builds the SQL predicate for this range, or null when the range covers every row
+     */
+    public String toPredicate(String column) {
+        if (isUnbounded()) {
+            return null;
+        }
+        List<String> conditions = new ArrayList<>();
+        if (lowerBound != null) {
+            conditions.add(column + " > ?");
+        }
+        if (upperBound != null) {
+            conditions.add(column + " <= ?");
+        }
+        String predicate = String.join(" AND ", conditions);
+        if (includeNulls) {
+            predicate = "(" + predicate + " OR " + column + " IS NULL)";
+        }
+        return predicate;
+    }
+
+    /**
+     * Returns the values to bind for the placeholders produced by {@link #toPredicate(String)}
+     */
+    public List<Object> getParameters() {
+        List<Object> parameters = new ArrayList<>();
+        if (lowerBound != null) {
+            parameters.add(lowerBound);
+        }
+        if (upperBound != null) {
+            parameters.add(upperBound);
+        }
+        return parameters;
+    }
+}
@@ -0,0 +1,50 @@
+package main.java.com.migration.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Durable progress of a checkpointed migration: the job definition without passwords, the key
+ * column the rows are ordered by and the last committed key of every partition.
+ * Key values are stored in their string form and converted back using the key column type.
+ */
+@Data
+public class MigrationCheckpoint {
+
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private String checkpointId;
+    private MigrationRequest request;
+    private String keyColumn;
+    private String status;
+    private long createdAt;
+    private long updatedAt;
+    private List<PartitionCheckpoint> partitions = new ArrayList<>();
+
+    public long getRowsWritten() {
+        return partitions.stream().mapToLong(PartitionCheckpoint::getRowsWritten).sum();
+    }
+
+    public long getRowsFailed() {
+        return partitions.stream().mapToLong(PartitionCheckpoint::getRowsFailed).sum();
+    }
+
+    /**
+     * Progress of one key range. Every row with a key up to and including lastKey has been
+     * committed or recorded as failed.
+     */
+    @Data
+    public static class PartitionCheckpoint {
+        private int index;
+        private String lowerBound;
+        private String upperBound;
+        private String lastKey;
+        private long rowsWritten;
+        private long rowsFailed;
+        private boolean completed;
+    }
+}
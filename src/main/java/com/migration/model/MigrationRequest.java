@@ -14,5 +14,51 @@ public class MigrationRequest {
     private String whereClause;
     private boolean createTargetTable;
     private boolean truncateTargetTable;
+    // With createTargetTable: load into a table without keys, then add the primary key and the
+    // source's secondary indexes once all rows are in. Ignored for upserts
+    private boolean deferIndexes;
     private int batchSize = 1000;
+
+    // Adaptive sizing starts at batchSize and grows or shrinks it between the bounds based on
+    // measured throughput, batch latency, estimated bytes per batch and heap headroom
+    private boolean adaptiveBatchSize;
+    private int minBatchSize = 100;
+    private int maxBatchSize = 20000;
+
+    // Partitioned copy: the key column is split into ranges copied in parallel
+    private int parallelism = 1;
+    private String partitionColumn;
+    private int partitionCount;
+    private String partitionStrategy = "MINMAX";
+
+    // Pipelined copy: writer stages per partition and row batches buffered between reader and writers
+    private int writerThreads = 1;
+    private int queueCapacity = 4;
+
+    // INSERT uses JDBC batches; MULTI_ROW packs many rows into each INSERT statement;
+    // BULK uses the target's native bulk load protocol where available
+    private String writeMode = "INSERT";
+
+    // Source protection: limits on rows and estimated bytes read per second, 0 for none. Auto
+    // throttling also backs off while the source takes longer per row than the threshold
+    // (0 uses migration.throttle.auto.max-fetch-micros-per-row). Adjust with POST /jobs/{jobId}/throttle
+    private long rowsPerSecond;
+    private long bytesPerSecond;
+    private boolean autoThrottle;
+    private long autoThrottleMaxFetchMicrosPerRow;
+
+    // Heap budget for rows buffered by the source driver; 0 uses migration.fetch.memory-budget-mb
+    private int fetchMemoryBudgetMb;
+
+    // Checkpointing orders each partition by its key and journals the last committed key so a
+    // failed migration can be resumed with resumeCheckpointId instead of starting over
+    private boolean checkpointEnabled;
+    private String resumeCheckpointId;
+
+    // Incremental sync: only rows whose column is past the stored high-water mark are copied,
+    // and they are upserted on the primary key instead of inserted
+    private String incrementalColumn;
+
+    // Records Java Flight Recorder events for the job; download with GET /jobs/{jobId}/recording
+    private boolean jfrRecording;
 }
@@ -4,6 +4,9 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -15,4 +18,41 @@ public class MigrationResult {
     private long executionTime;
     private String message;
     private Exception exception;
+    private List<PartitionResult> partitionResults = new ArrayList<>();
+
+    // Pipeline stage timings in milliseconds, summed over all partitions. A high reader wait
+    // means the target is the bottleneck; a high writer wait means the source is.
+    private long sourceFetchTime;
+    private long readerWaitTime;
+    private long targetWriteTime;
+    private long writerWaitTime;
+
+    // Set when the migration was checkpointed; pass it back as resumeCheckpointId to resume
+    private String checkpointId;
+
+    // High-water mark reached by an incremental sync
+    private String watermark;
+
+    // JSON Lines file holding the rows the target rejected, if any were
+    private String deadLetterFile;
+
+    // Time spent adding the primary key and indexes after the load, in milliseconds
+    private long indexBuildTime;
+
+    // Time the source reader waited on throttling, in milliseconds
+    private long throttleWaitTime;
+
+    // Batch sizes chosen by adaptive sizing, in order; the last one is where it settled
+    private List<Integer> batchSizes;
+
+    public MigrationResult(boolean success, int totalRecords, int migratedRecords, int failedRecords,
+                           long executionTime, String message, Exception exception) {
+        this.success = success;
+        this.totalRecords = totalRecords;
+        this.migratedRecords = migratedRecords;
+        this.failedRecords = failedRecords;
+        this.executionTime = executionTime;
+        this.message = message;
+        this.exception = exception;
+    }
 }
@@ -0,0 +1,37 @@
+package main.java.com.migration.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PartitionResult {
+    private int partition;
+    private String range;
+    private boolean success;
+    private int totalRecords;
+    private int migratedRecords;
+    private int failedRecords;
+    private long executionTime;
+    private String message;
+
+    // Pipeline stage timings in milliseconds
+    private long sourceFetchTime;
+    private long readerWaitTime;
+    private long targetWriteTime;
+    private long writerWaitTime;
+
+    public PartitionResult(int partition, String range, boolean success, int totalRecords, int migratedRecords,
+                           int failedRecords, long executionTime, String message) {
+        this.partition = partition;
+        this.range = range;
+        this.success = success;
+        this.totalRecords = totalRecords;
+        this.migratedRecords = migratedRecords;
+        this.failedRecords = failedRecords;
+        this.executionTime = executionTime;
+        this.message = message;
+    }
+}
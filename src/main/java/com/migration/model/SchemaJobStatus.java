@@ -0,0 +1,37 @@
+package main.java.com.migration.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Point-in-time view of a schema migration and each of its tables
+ */
+@Data
+public class SchemaJobStatus {
+    private String jobId;
+    private String phase;
+    private long submittedAt;
+    private Long startedAt;
+    private Long finishedAt;
+    private int totalTables;
+    private int completedTables;
+    private int failedTables;
+    private int skippedTables;
+    private long rowsWritten;
+    private boolean cancelRequested;
+    private String message;
+    private List<TableStatus> tables = new ArrayList<>();
+
+    @Data
+    public static class TableStatus {
+        private String sourceTable;
+        private String targetTable;
+        private String state;
+        private long estimatedRows;
+        private List<String> dependsOn = new ArrayList<>();
+        private String message;
+        private JobStatus job;
+    }
+}
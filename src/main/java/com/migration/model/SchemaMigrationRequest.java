@@ -0,0 +1,33 @@
+package main.java.com.migration.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Migrates many tables of one database in foreign-key order. Tables come from the explicit
+ * list, or from every table matching the pattern ({@code *} and {@code ?} wildcards,
+ * case-insensitive), or from every table when neither is given.
+ */
+@Data
+public class SchemaMigrationRequest {
+    private DatabaseConnection sourceConnection;
+    private DatabaseConnection targetConnection;
+    private List<String> tables;
+    private String tablePattern;
+    private String targetTablePrefix = "";
+    private boolean createTargetTables;
+    private boolean truncateTargetTables;
+
+    // Applied to every table, see MigrationRequest
+    private int batchSize = 1000;
+    private int parallelism = 1;
+    private int writerThreads = 1;
+    private String writeMode = "INSERT";
+
+    // Scheduling: tables copied at the same time and connections they may hold in total on each side;
+    // 0 uses the migration.schema.* defaults
+    private int maxConcurrentTables;
+    private int maxSourceConnections;
+    private int maxTargetConnections;
+}
@@ -0,0 +1,17 @@
+package main.java.com.migration.model;
+
+import lombok.Data;
+
+/**
+ * High-water mark of an incremental sync: the largest value of the watermark column that has
+ * been copied from the source table to the target table
+ */
+@Data
+public class SyncWatermark {
+    private String id;
+    private String sourceTable;
+    private String targetTable;
+    private String column;
+    private String value;
+    private long updatedAt;
+}
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -13,6 +14,15 @@ import java.util.Map;
 public class TableInfo {
     private String tableName;
     private List<ColumnInfo> columns;
+    private List<String> primaryKey = new ArrayList<>();
+    private List<IndexInfo> indexes = new ArrayList<>();
+    // Row count from catalog statistics, -1 when unknown
+    private long estimatedRows = -1;
+
+    public TableInfo(String tableName, List<ColumnInfo> columns) {
+        this.tableName = tableName;
+        this.columns = columns;
+    }
 
     @Data
     @AllArgsConstructor
@@ -22,5 +32,19 @@ public class TableInfo {
         private String dataType;
         private boolean isPrimaryKey;
         private boolean isNullable;
+        private int columnSize;
+
+        public ColumnInfo(String name, String dataType, boolean isPrimaryKey, boolean isNullable) {
+            this(name, dataType, isPrimaryKey, isNullable, 0);
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class IndexInfo {
+        private String name;
+        private boolean unique;
+        private List<String> columns = new ArrayList<>();
     }
 }
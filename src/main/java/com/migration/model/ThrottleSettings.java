@@ -0,0 +1,20 @@
+package main.java.com.migration.model;
+
+import lombok.Data;
+
+/**
+ * Source read limits of a job or of all jobs together. When updating, fields left null keep
+ * their current value and zero removes a limit.
+ */
+@Data
+public class ThrottleSettings {
+    private Long rowsPerSecond;
+    private Long bytesPerSecond;
+    private Boolean autoThrottle;
+    // Auto throttling backs off when the source takes longer than this per fetched row
+    private Long maxFetchMicrosPerRow;
+
+    // Reported only: the row rate in force including auto throttling back-off, and time spent waiting
+    private Double effectiveRowsPerSecond;
+    private Long waitMillis;
+}
@@ -0,0 +1,33 @@
+package main.java.com.migration.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Compares a source table with the table it was migrated to. Both sides are split into the same
+ * key ranges; each range is checksummed on both sides and only ranges whose checksums differ are
+ * read row by row to find the differing keys.
+ */
+@Data
+public class VerificationRequest {
+    private DatabaseConnection sourceConnection;
+    private DatabaseConnection targetConnection;
+    private String sourceTable;
+    private String targetTable;
+    // Columns compared; all source columns when empty
+    private List<String> selectedColumns;
+    // Filter the migration applied to the source; the target is compared in full
+    private String whereClause;
+
+    // Single-column key the ranges are split on; the primary key when empty
+    private String keyColumn;
+    // 0 uses migration.verify.chunk-count
+    private int chunkCount;
+    private String partitionStrategy = "MINMAX";
+    private int parallelism = 4;
+
+    // Checksum inside the databases when both sides are the same dialect; otherwise rows are streamed
+    private boolean pushDown = true;
+    private int maxReportedDifferences = 100;
+}
@@ -0,0 +1,59 @@
+package main.java.com.migration.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class VerificationResult {
+    public static final String METHOD_PUSH_DOWN = "PUSH_DOWN";
+    public static final String METHOD_STREAMING = "STREAMING";
+
+    private boolean success;
+    // True when every chunk has the same row count and checksum on both sides
+    private boolean matched;
+    private String message;
+    private long executionTime;
+    private String keyColumn;
+    private String method;
+    private long sourceRows;
+    private long targetRows;
+    private int chunks;
+    private int mismatchedChunks;
+    // Only the chunks that did not match
+    private List<ChunkResult> chunkResults = new ArrayList<>();
+    private List<RowDifference> differences = new ArrayList<>();
+    // More differences were found than maxReportedDifferences
+    private boolean differencesTruncated;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ChunkResult {
+        private int chunk;
+        private String range;
+        private long sourceRows;
+        private long targetRows;
+        private String sourceChecksum;
+        private String targetChecksum;
+        private boolean matched;
+        private String message;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RowDifference {
+        public static final String MISSING_IN_TARGET = "MISSING_IN_TARGET";
+        public static final String MISSING_IN_SOURCE = "MISSING_IN_SOURCE";
+        public static final String DIFFERENT = "DIFFERENT";
+
+        private int chunk;
+        private String key;
+        private String type;
+    }
+}
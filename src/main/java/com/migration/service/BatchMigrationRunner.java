@@ -0,0 +1,286 @@
+package main.java.com.migration.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.migration.model.BatchPlan;
+import com.migration.model.BatchResult;
+import com.migration.model.JobStatus;
+import com.migration.model.MigrationRequest;
+import com.migration.model.MigrationResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs a plan of migrations without the web UI and exits, for cron jobs and Kubernetes Jobs.
+ * Started by {@code DataMigrationApplication} when {@code migration.batch.plan} is set, in the
+ * {@code batch} profile: no embedded server and lazily created beans.
+ * <p>
+ * The migrations go through {@link MigrationJobService} like those submitted over HTTP, so
+ * concurrency limits, throttling, JFR recordings and checkpoints behave the same. The outcome is
+ * written to {@code migration.batch.result} and reported as the process exit code.
+ */
+@Component
+@ConditionalOnProperty("migration.batch.plan")
+@RequiredArgsConstructor
+@Slf4j
+public class BatchMigrationRunner implements ApplicationRunner, ExitCodeGenerator {
+
+    public static final String PROFILE = "batch";
+    public static final String PLAN_PROPERTY = "migration.batch.plan";
+
+    public static final int EXIT_SUCCEEDED = 0;
+    public static final int EXIT_MIGRATION_FAILED = 1;
+    public static final int EXIT_INVALID_PLAN = 2;
+
+    private final MigrationJobService migrationJobService;
+    private final ObjectMapper objectMapper;
+    private final Environment environment;
+
+    @Value("${migration.batch.plan}")
+    private String planFile;
+
+    @Value("${migration.batch.result:migration-result.json}")
+    private String resultFile;
+
+    // Only reads and checks the plan; used for AppCDS training runs
+    @Value("${migration.batch.dry-run:false}")
+    private boolean dryRun;
+
+    private int exitCode = EXIT_SUCCEEDED;
+
+    /**
+     * Whether the command line or the environment asks for a batch run
+     */
+    public static boolean isRequested(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith("--" + PLAN_PROPERTY + "=")) {
+                return true;
+            }
+        }
+        return System.getProperty(PLAN_PROPERTY) != null || System.getenv("MIGRATION_BATCH_PLAN") != null;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        BatchResult result = new BatchResult();
+        result.setPlan(planFile);
+        result.setStartedAt(System.currentTimeMillis());
+
+        BatchPlan plan;
+        try {
+            plan = readPlan(Paths.get(planFile));
+        } catch (RuntimeException e) {
+            log.error("Invalid migration plan {}: {}", planFile, e.getMessage());
+            result.setMessage("Invalid migration plan: " + e.getMessage());
+            finish(result, EXIT_INVALID_PLAN);
+            return;
+        }
+        if (plan.getName() != null) {
+            result.setPlan(plan.getName());
+        }
+        List<MigrationRequest> migrations = plan.getMigrations();
+        for (int i = 0; i < migrations.size(); i++) {
+            BatchResult.Entry entry = new BatchResult.Entry();
+            entry.setIndex(i);
+            entry.setSourceTable(migrations.get(i).getSourceTable());
+            entry.setTargetTable(migrations.get(i).getTargetTable());
+            entry.setStatus(BatchResult.Entry.STATUS_SKIPPED);
+            result.getMigrations().add(entry);
+        }
+
+        if (dryRun) {
+            result.getMigrations().forEach(entry -> entry.setStatus(BatchResult.Entry.STATUS_VALIDATED));
+            result.setMessage("Dry run: " + migrations.size() + " migrations validated");
+            finish(result, EXIT_SUCCEEDED);
+            return;
+        }
+
+        log.info("Running migration plan {} with {} migrations", result.getPlan(), migrations.size());
+        // Jobs are awaited through their own references; the job list may purge them first
+        if (plan.isStopOnFailure()) {
+            for (int i = 0; i < migrations.size(); i++) {
+                BatchResult.Entry entry = result.getMigrations().get(i);
+                await(entry, submit(entry, migrations.get(i)));
+                if (!BatchResult.Entry.STATUS_SUCCEEDED.equals(entry.getStatus())) {
+                    log.warn("Migration {} of plan {} failed, skipping the remaining {}", i, result.getPlan(),
+                            migrations.size() - i - 1);
+                    break;
+                }
+            }
+        } else {
+            List<MigrationJob> jobs = new ArrayList<>();
+            for (int i = 0; i < migrations.size(); i++) {
+                jobs.add(submit(result.getMigrations().get(i), migrations.get(i)));
+            }
+            for (int i = 0; i < jobs.size(); i++) {
+                await(result.getMigrations().get(i), jobs.get(i));
+            }
+        }
+
+        boolean allSucceeded = result.getMigrations().stream()
+                .allMatch(entry -> BatchResult.Entry.STATUS_SUCCEEDED.equals(entry.getStatus()));
+        finish(result, allSucceeded ? EXIT_SUCCEEDED : EXIT_MIGRATION_FAILED);
+    }
+
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    /**
+     * Reads a JSON plan, or a YAML plan for any other extension. Placeholders such as
+     * {@code ${SOURCE_PASSWORD}} in string values are resolved from the environment after
+     * parsing, so secrets can stay out of the file and their characters need no quoting. An
+     * unresolvable placeholder makes the plan invalid.
+     */
+    private BatchPlan readPlan(Path file) {
+        Object tree;
+        try {
+            String text = Files.readString(file, StandardCharsets.UTF_8);
+            if (file.getFileName().toString().toLowerCase().endsWith(".json")) {
+                tree = objectMapper.readValue(text, Object.class);
+            } else {
+                tree = new Yaml(new SafeConstructor(new LoaderOptions())).load(text);
+            }
+        } catch (IOException | RuntimeException e) {
+            throw new RuntimeException("Failed to parse " + file + ": " + e.getMessage(), e);
+        }
+        tree = resolvePlaceholders(tree);
+
+        // Misspelled options would otherwise be dropped silently
+        ObjectReader reader = objectMapper.readerFor(BatchPlan.class)
+                .with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        BatchPlan plan;
+        try {
+            plan = reader.readValue((JsonNode) objectMapper.valueToTree(tree));
+        } catch (IOException | RuntimeException e) {
+            throw new RuntimeException("Failed to parse " + file + ": " + e.getMessage(), e);
+        }
+
+        if (plan == null || plan.getMigrations() == null || plan.getMigrations().isEmpty()) {
+            throw new IllegalArgumentException("The plan has no migrations");
+        }
+        for (int i = 0; i < plan.getMigrations().size(); i++) {
+            MigrationRequest request = plan.getMigrations().get(i);
+            List<String> missing = new ArrayList<>();
+            if (request.getSourceConnection() == null) {
+                missing.add("sourceConnection");
+            }
+            if (request.getTargetConnection() == null) {
+                missing.add("targetConnection");
+            }
+            if (request.getSourceTable() == null || request.getSourceTable().isBlank()) {
+                missing.add("sourceTable");
+            }
+            if (request.getTargetTable() == null || request.getTargetTable().isBlank()) {
+                missing.add("targetTable");
+            }
+            if (!missing.isEmpty()) {
+                throw new IllegalArgumentException("Migration " + i + " is missing " + String.join(", ", missing));
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Copies the parsed plan with the placeholders in its string values resolved
+     */
+    private Object resolvePlaceholders(Object node) {
+        if (node instanceof String) {
+            return environment.resolveRequiredPlaceholders((String) node);
+        }
+        if (node instanceof Map) {
+            Map<Object, Object> resolved = new LinkedHashMap<>();
+            ((Map<?, ?>) node).forEach((key, value) -> resolved.put(key, resolvePlaceholders(value)));
+            return resolved;
+        }
+        if (node instanceof List) {
+            List<Object> resolved = new ArrayList<>();
+            for (Object value : (List<?>) node) {
+                resolved.add(resolvePlaceholders(value));
+            }
+            return resolved;
+        }
+        return node;
+    }
+
+    private MigrationJob submit(BatchResult.Entry entry, MigrationRequest request) {
+        MigrationJob job = migrationJobService.submitJob(request);
+        entry.setJobId(job.getJobId());
+        return job;
+    }
+
+    private void await(BatchResult.Entry entry, MigrationJob job) throws InterruptedException {
+        job.awaitFinished();
+        JobStatus status = job.toStatus();
+        MigrationResult migrationResult = status.getResult();
+        if (migrationResult != null) {
+            // The message carries the error; a stack trace does not belong in the result file
+            migrationResult.setException(null);
+        }
+        entry.setPhase(status.getPhase());
+        entry.setResult(migrationResult);
+        entry.setStatus(migrationResult != null && migrationResult.isSuccess()
+                ? BatchResult.Entry.STATUS_SUCCEEDED : BatchResult.Entry.STATUS_FAILED);
+        log.info("Migration {} -> {} {}: {}", entry.getSourceTable(), entry.getTargetTable(), entry.getStatus(),
+                migrationResult != null ? migrationResult.getMessage() : status.getPhase());
+    }
+
+    private void finish(BatchResult result, int exitCode) {
+        this.exitCode = exitCode;
+        result.setExitCode(exitCode);
+        result.setFinishedAt(System.currentTimeMillis());
+        for (BatchResult.Entry entry : result.getMigrations()) {
+            switch (entry.getStatus()) {
+                case BatchResult.Entry.STATUS_SUCCEEDED:
+                case BatchResult.Entry.STATUS_VALIDATED:
+                    result.setSucceeded(result.getSucceeded() + 1);
+                    break;
+                case BatchResult.Entry.STATUS_FAILED:
+                    result.setFailed(result.getFailed() + 1);
+                    break;
+                default:
+                    result.setSkipped(result.getSkipped() + 1);
+            }
+        }
+        if (result.getMessage() == null) {
+            result.setMessage(result.getSucceeded() + " succeeded, " + result.getFailed() + " failed, "
+                    + result.getSkipped() + " skipped");
+        }
+
+        Path file = Paths.get(resultFile);
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Files.write(file, objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(result));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write batch result: " + e.getMessage(), e);
+        }
+        log.info("Migration plan {} finished with exit code {}: {}; result written to {}", result.getPlan(), exitCode,
+                result.getMessage(), file.toAbsolutePath());
+    }
+}
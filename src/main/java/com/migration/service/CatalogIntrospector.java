@@ -0,0 +1,265 @@
+package main.java.com.migration.service;
+
+import com.migration.model.DatabaseConnection;
+import com.migration.model.TableInfo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the columns, primary keys, indexes and row estimates of every table in a schema with a
+ * handful of set-based catalog queries per dialect, instead of two metadata calls per table.
+ * <p>
+ * Every query takes the schema as its only parameter and falls back to the session's current
+ * schema when it is null. Columns are returned under the same labels for all dialects:
+ * TABLE_NAME, COLUMN_NAME, DATA_TYPE, NULLABLE, COLUMN_SIZE for columns; TABLE_NAME,
+ * COLUMN_NAME for primary keys; TABLE_NAME, INDEX_NAME, IS_UNIQUE, COLUMN_NAME for index
+ * columns in key order. Row estimates come from {@link RowCountService}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogIntrospector {
+
+    private final DatabaseService databaseService;
+    private final MetadataCache metadataCache;
+    private final RowCountService rowCountService;
+
+    /**
+     * Returns every table of the schema keyed by table name. A null schema means the
+     * connection's current schema. The results also warm the metadata cache.
+     */
+    public Map<String, TableInfo> introspect(DatabaseConnection connection, String schema) {
+        CatalogQueries queries = CatalogQueries.forDbType(connection.getDbType());
+        Map<String, TableInfo> tables;
+        if (queries == null) {
+            tables = introspectPerTable(connection);
+        } else {
+            try (Connection conn = databaseService.getConnection(connection)) {
+                tables = introspect(conn, queries, schema);
+            } catch (SQLException e) {
+                log.error("Failed to introspect schema: {}", e.getMessage(), e);
+                throw new RuntimeException("Failed to introspect schema: " + e.getMessage(), e);
+            }
+        }
+        Map<String, Long> estimates = rowCountService.estimateSchema(connection, schema);
+        tables.forEach((name, tableInfo) -> {
+            tableInfo.setEstimatedRows(estimates.getOrDefault(name, -1L));
+            metadataCache.putTable(connection, name, tableInfo);
+        });
+        log.info("Introspected {} tables of {} schema {}", tables.size(), connection.getDbType(),
+                schema != null ? schema : "(current)");
+        return tables;
+    }
+
+    private Map<String, TableInfo> introspect(Connection conn, CatalogQueries queries, String schema) throws SQLException {
+        Map<String, TableInfo> tables = new LinkedHashMap<>();
+
+        query(conn, queries.columns, schema, rs -> {
+            String tableName = rs.getString("TABLE_NAME");
+            TableInfo tableInfo = tables.computeIfAbsent(tableName, name -> new TableInfo(name, new ArrayList<>()));
+            tableInfo.getColumns().add(new TableInfo.ColumnInfo(
+                    rs.getString("COLUMN_NAME"),
+                    rs.getString("DATA_TYPE"),
+                    false,
+                    isTrue(rs.getString("NULLABLE")),
+                    rs.getInt("COLUMN_SIZE")));
+        });
+
+        query(conn, queries.primaryKeys, schema, rs -> {
+            TableInfo tableInfo = tables.get(rs.getString("TABLE_NAME"));
+            if (tableInfo != null) {
+                String column = rs.getString("COLUMN_NAME");
+                tableInfo.getPrimaryKey().add(column);
+                tableInfo.getColumns().stream()
+                        .filter(c -> c.getName().equals(column))
+                        .forEach(c -> c.setPrimaryKey(true));
+            }
+        });
+
+        query(conn, queries.indexes, schema, rs -> {
+            TableInfo tableInfo = tables.get(rs.getString("TABLE_NAME"));
+            if (tableInfo != null) {
+                String indexName = rs.getString("INDEX_NAME");
+                List<TableInfo.IndexInfo> indexes = tableInfo.getIndexes();
+                TableInfo.IndexInfo index = indexes.isEmpty() ? null : indexes.get(indexes.size() - 1);
+                if (index == null || !index.getName().equals(indexName)) {
+                    index = new TableInfo.IndexInfo(indexName, rs.getInt("IS_UNIQUE") == 1, new ArrayList<>());
+                    indexes.add(index);
+                }
+                index.getColumns().add(rs.getString("COLUMN_NAME"));
+            }
+        });
+
+        return tables;
+    }
+
+    /**
+     * Fallback for databases without catalog queries here: one metadata round trip per table
+     */
+    private Map<String, TableInfo> introspectPerTable(DatabaseConnection connection) {
+        List<String> tableNames = databaseService.getAllTables(connection);
+        Map<String, TableInfo> tables = new LinkedHashMap<>();
+        for (String tableName : tableNames) {
+            tables.put(tableName, databaseService.getTableInfo(connection, tableName));
+        }
+        return tables;
+    }
+
+    private static void query(Connection conn, String sql, String schema, RowHandler handler) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, schema);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.handle(rs);
+                }
+            }
+        }
+    }
+
+    private static boolean isTrue(String flag) {
+        return flag != null && ("Y".equalsIgnoreCase(flag) || "YES".equalsIgnoreCase(flag)
+                || "TRUE".equalsIgnoreCase(flag) || "1".equals(flag));
+    }
+
+    @FunctionalInterface
+    private interface RowHandler {
+        void handle(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * The three catalog queries of one dialect
+     */
+    private static class CatalogQueries {
+        private final String columns;
+        private final String primaryKeys;
+        private final String indexes;
+
+        CatalogQueries(String columns, String primaryKeys, String indexes) {
+            this.columns = columns;
+            this.primaryKeys = primaryKeys;
+            this.indexes = indexes;
+        }
+
+        static CatalogQueries forDbType(String dbType) {
+            switch (dbType == null ? "" : dbType.toLowerCase()) {
+                case "postgresql":
+                    return new CatalogQueries(
+                            "SELECT c.table_name AS TABLE_NAME, c.column_name AS COLUMN_NAME, c.udt_name AS DATA_TYPE, "
+                                    + "c.is_nullable AS NULLABLE, "
+                                    + "COALESCE(c.character_maximum_length, c.numeric_precision, 0) AS COLUMN_SIZE "
+                                    + "FROM information_schema.columns c "
+                                    + "JOIN information_schema.tables t ON t.table_schema = c.table_schema "
+                                    + "AND t.table_name = c.table_name AND t.table_type = 'BASE TABLE' "
+                                    + "WHERE c.table_schema = COALESCE(?, current_schema()) "
+                                    + "ORDER BY c.table_name, c.ordinal_position",
+                            "SELECT kcu.table_name AS TABLE_NAME, kcu.column_name AS COLUMN_NAME "
+                                    + "FROM information_schema.table_constraints tc "
+                                    + "JOIN information_schema.key_column_usage kcu ON kcu.constraint_schema = tc.constraint_schema "
+                                    + "AND kcu.constraint_name = tc.constraint_name AND kcu.table_name = tc.table_name "
+                                    + "WHERE tc.constraint_type = 'PRIMARY KEY' AND tc.table_schema = COALESCE(?, current_schema()) "
+                                    + "ORDER BY kcu.table_name, kcu.ordinal_position",
+                            "SELECT t.relname AS TABLE_NAME, i.relname AS INDEX_NAME, "
+                                    + "CASE WHEN ix.indisunique THEN 1 ELSE 0 END AS IS_UNIQUE, a.attname AS COLUMN_NAME "
+                                    + "FROM pg_index ix "
+                                    + "JOIN pg_class t ON t.oid = ix.indrelid "
+                                    + "JOIN pg_class i ON i.oid = ix.indexrelid "
+                                    + "JOIN pg_namespace n ON n.oid = t.relnamespace "
+                                    + "JOIN LATERAL unnest(ix.indkey) WITH ORDINALITY AS k(attnum, ord) ON true "
+                                    + "JOIN pg_attribute a ON a.attrelid = t.oid AND a.attnum = k.attnum "
+                                    + "WHERE n.nspname = COALESCE(?, current_schema()) "
+                                    + "ORDER BY t.relname, i.relname, k.ord");
+                case "mysql":
+                    return new CatalogQueries(
+                            "SELECT c.TABLE_NAME, c.COLUMN_NAME, c.DATA_TYPE, c.IS_NULLABLE AS NULLABLE, "
+                                    + "COALESCE(c.CHARACTER_MAXIMUM_LENGTH, c.NUMERIC_PRECISION, 0) AS COLUMN_SIZE "
+                                    + "FROM information_schema.COLUMNS c "
+                                    + "JOIN information_schema.TABLES t ON t.TABLE_SCHEMA = c.TABLE_SCHEMA "
+                                    + "AND t.TABLE_NAME = c.TABLE_NAME AND t.TABLE_TYPE = 'BASE TABLE' "
+                                    + "WHERE c.TABLE_SCHEMA = COALESCE(?, DATABASE()) "
+                                    + "ORDER BY c.TABLE_NAME, c.ORDINAL_POSITION",
+                            "SELECT TABLE_NAME, COLUMN_NAME FROM information_schema.STATISTICS "
+                                    + "WHERE INDEX_NAME = 'PRIMARY' AND TABLE_SCHEMA = COALESCE(?, DATABASE()) "
+                                    + "ORDER BY TABLE_NAME, SEQ_IN_INDEX",
+                            "SELECT TABLE_NAME, INDEX_NAME, CASE WHEN NON_UNIQUE = 0 THEN 1 ELSE 0 END AS IS_UNIQUE, COLUMN_NAME "
+                                    + "FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = COALESCE(?, DATABASE()) "
+                                    + "ORDER BY TABLE_NAME, INDEX_NAME, SEQ_IN_INDEX");
+                case "sqlserver":
+                    return new CatalogQueries(
+                            "SELECT t.name AS TABLE_NAME, c.name AS COLUMN_NAME, ty.name AS DATA_TYPE, "
+                                    + "CASE WHEN c.is_nullable = 1 THEN 'YES' ELSE 'NO' END AS NULLABLE, "
+                                    + "CASE WHEN ty.name IN ('nchar', 'nvarchar') AND c.max_length > 0 THEN c.max_length / 2 "
+                                    + "WHEN c.precision > 0 THEN c.precision ELSE c.max_length END AS COLUMN_SIZE "
+                                    + "FROM sys.columns c "
+                                    + "JOIN sys.tables t ON t.object_id = c.object_id "
+                                    + "JOIN sys.schemas s ON s.schema_id = t.schema_id "
+                                    + "JOIN sys.types ty ON ty.user_type_id = c.user_type_id "
+                                    + "WHERE s.name = COALESCE(?, SCHEMA_NAME()) "
+                                    + "ORDER BY t.name, c.column_id",
+                            "SELECT t.name AS TABLE_NAME, c.name AS COLUMN_NAME "
+                                    + "FROM sys.indexes i "
+                                    + "JOIN sys.tables t ON t.object_id = i.object_id "
+                                    + "JOIN sys.schemas s ON s.schema_id = t.schema_id "
+                                    + "JOIN sys.index_columns ic ON ic.object_id = i.object_id AND ic.index_id = i.index_id "
+                                    + "JOIN sys.columns c ON c.object_id = ic.object_id AND c.column_id = ic.column_id "
+                                    + "WHERE i.is_primary_key = 1 AND s.name = COALESCE(?, SCHEMA_NAME()) "
+                                    + "ORDER BY t.name, ic.key_ordinal",
+                            "SELECT t.name AS TABLE_NAME, i.name AS INDEX_NAME, CAST(i.is_unique AS INT) AS IS_UNIQUE, "
+                                    + "c.name AS COLUMN_NAME "
+                                    + "FROM sys.indexes i "
+                                    + "JOIN sys.tables t ON t.object_id = i.object_id "
+                                    + "JOIN sys.schemas s ON s.schema_id = t.schema_id "
+                                    + "JOIN sys.index_columns ic ON ic.object_id = i.object_id AND ic.index_id = i.index_id "
+                                    + "JOIN sys.columns c ON c.object_id = ic.object_id AND c.column_id = ic.column_id "
+                                    + "WHERE i.name IS NOT NULL AND ic.is_included_column = 0 AND s.name = COALESCE(?, SCHEMA_NAME()) "
+                                    + "ORDER BY t.name, i.name, ic.key_ordinal");
+                case "oracle":
+                    return new CatalogQueries(
+                            "SELECT c.TABLE_NAME, c.COLUMN_NAME, c.DATA_TYPE, c.NULLABLE, "
+                                    + "COALESCE(c.DATA_PRECISION, c.CHAR_LENGTH, c.DATA_LENGTH) AS COLUMN_SIZE "
+                                    + "FROM ALL_TAB_COLUMNS c "
+                                    + "JOIN ALL_TABLES t ON t.OWNER = c.OWNER AND t.TABLE_NAME = c.TABLE_NAME "
+                                    + "WHERE c.OWNER = COALESCE(?, SYS_CONTEXT('USERENV', 'CURRENT_SCHEMA')) "
+                                    + "ORDER BY c.TABLE_NAME, c.COLUMN_ID",
+                            "SELECT cc.TABLE_NAME, cc.COLUMN_NAME "
+                                    + "FROM ALL_CONSTRAINTS con "
+                                    + "JOIN ALL_CONS_COLUMNS cc ON cc.OWNER = con.OWNER AND cc.CONSTRAINT_NAME = con.CONSTRAINT_NAME "
+                                    + "WHERE con.CONSTRAINT_TYPE = 'P' "
+                                    + "AND con.OWNER = COALESCE(?, SYS_CONTEXT('USERENV', 'CURRENT_SCHEMA')) "
+                                    + "ORDER BY cc.TABLE_NAME, cc.POSITION",
+                            "SELECT ic.TABLE_NAME, ic.INDEX_NAME, CASE WHEN i.UNIQUENESS = 'UNIQUE' THEN 1 ELSE 0 END AS IS_UNIQUE, "
+                                    + "ic.COLUMN_NAME "
+                                    + "FROM ALL_INDEXES i "
+                                    + "JOIN ALL_IND_COLUMNS ic ON ic.INDEX_OWNER = i.OWNER AND ic.INDEX_NAME = i.INDEX_NAME "
+                                    + "WHERE i.TABLE_OWNER = COALESCE(?, SYS_CONTEXT('USERENV', 'CURRENT_SCHEMA')) "
+                                    + "ORDER BY ic.TABLE_NAME, ic.INDEX_NAME, ic.COLUMN_POSITION");
+                case "hana":
+                    return new CatalogQueries(
+                            "SELECT TABLE_NAME, COLUMN_NAME, DATA_TYPE_NAME AS DATA_TYPE, IS_NULLABLE AS NULLABLE, "
+                                    + "LENGTH AS COLUMN_SIZE FROM SYS.TABLE_COLUMNS "
+                                    + "WHERE SCHEMA_NAME = COALESCE(?, CURRENT_SCHEMA) "
+                                    + "ORDER BY TABLE_NAME, POSITION",
+                            "SELECT TABLE_NAME, COLUMN_NAME FROM SYS.CONSTRAINTS "
+                                    + "WHERE IS_PRIMARY_KEY = 'TRUE' AND SCHEMA_NAME = COALESCE(?, CURRENT_SCHEMA) "
+                                    + "ORDER BY TABLE_NAME, POSITION",
+                            "SELECT ic.TABLE_NAME, ic.INDEX_NAME, "
+                                    + "CASE WHEN ic.CONSTRAINT IN ('UNIQUE', 'PRIMARY KEY') THEN 1 ELSE 0 END AS IS_UNIQUE, "
+                                    + "ic.COLUMN_NAME "
+                                    + "FROM SYS.INDEX_COLUMNS ic "
+                                    + "WHERE ic.SCHEMA_NAME = COALESCE(?, CURRENT_SCHEMA) "
+                                    + "ORDER BY ic.TABLE_NAME, ic.INDEX_NAME, ic.POSITION");
+                default:
+                    return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package main.java.com.migration.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.migration.model.KeyRange;
+import com.migration.model.MigrationCheckpoint;
+import com.migration.model.MigrationRequest;
+import com.migration.model.TableInfo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Keeps migration checkpoints as JSON journal files, one per checkpoint, rewritten atomically
+ * on every commit so that a crash leaves either the previous or the new position on disk.
+ * Passwords are never written; they are supplied again when a migration is resumed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CheckpointStore {
+
+    private static final String FILE_SUFFIX = ".json";
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${migration.checkpoint.dir:checkpoints}")
+    private String directory;
+
+    /**
+     * Creates and persists a checkpoint for a new migration over the given ranges
+     */
+    public MigrationCheckpoint create(MigrationRequest request, String keyColumn, List<KeyRange> ranges) {
+        MigrationCheckpoint checkpoint = new MigrationCheckpoint();
+        checkpoint.setCheckpointId(UUID.randomUUID().toString());
+        checkpoint.setRequest(withoutPasswords(request));
+        checkpoint.setKeyColumn(keyColumn);
+        checkpoint.setStatus(MigrationCheckpoint.STATUS_RUNNING);
+        checkpoint.setCreatedAt(System.currentTimeMillis());
+        for (KeyRange range : ranges) {
+            MigrationCheckpoint.PartitionCheckpoint partition = new MigrationCheckpoint.PartitionCheckpoint();
+            partition.setIndex(range.getIndex());
+            partition.setLowerBound(encodeKey(range.getLowerBound()));
+            partition.setUpperBound(encodeKey(range.getUpperBound()));
+            checkpoint.getPartitions().add(partition);
+        }
+        save(checkpoint);
+        log.info("Created checkpoint {} for {} -> {}", checkpoint.getCheckpointId(),
+                request.getSourceTable(), request.getTargetTable());
+        return checkpoint;
+    }
+
+    /**
+     * Writes the checkpoint to a temporary file and moves it over the journal file
+     */
+    public void save(MigrationCheckpoint checkpoint) {
+        synchronized (checkpoint) {
+            checkpoint.setUpdatedAt(System.currentTimeMillis());
+            try {
+                Path dir = Files.createDirectories(Paths.get(directory));
+                Path target = dir.resolve(checkpoint.getCheckpointId() + FILE_SUFFIX);
+                Path temp = dir.resolve(checkpoint.getCheckpointId() + FILE_SUFFIX + ".tmp");
+                Files.write(temp, objectMapper.writeValueAsBytes(checkpoint));
+                try {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to write checkpoint: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    public Optional<MigrationCheckpoint> load(String checkpointId) {
+        Path file = file(checkpointId);
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(objectMapper.readValue(file.toFile(), MigrationCheckpoint.class));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read checkpoint: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns every stored checkpoint, most recently updated first
+     */
+    public List<MigrationCheckpoint> list() {
+        List<MigrationCheckpoint> checkpoints = new ArrayList<>();
+        Path dir = Paths.get(directory);
+        if (!Files.isDirectory(dir)) {
+            return checkpoints;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                try {
+                    checkpoints.add(objectMapper.readValue(file.toFile(), MigrationCheckpoint.class));
+                } catch (IOException e) {
+                    log.warn("Skipping unreadable checkpoint {}: {}", file, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to list checkpoints: " + e.getMessage(), e);
+        }
+        checkpoints.sort(Comparator.comparingLong(MigrationCheckpoint::getUpdatedAt).reversed());
+        return checkpoints;
+    }
+
+    public boolean delete(String checkpointId) {
+        try {
+            return Files.deleteIfExists(file(checkpointId));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to delete checkpoint: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Converts a key value to the string form stored in the journal
+     */
+    public static String encodeKey(Object key) {
+        if (key == null) {
+            return null;
+        }
+        if (key instanceof BigDecimal) {
+            return ((BigDecimal) key).toPlainString();
+        }
+        if (key instanceof LocalDateTime) {
+            return Timestamp.valueOf((LocalDateTime) key).toString();
+        }
+        if (key instanceof LocalDate) {
+            return Timestamp.valueOf(((LocalDate) key).atStartOfDay()).toString();
+        }
+        if (key instanceof Timestamp) {
+            // Keeps the nanoseconds, which getTime() would cut to milliseconds
+            return key.toString();
+        }
+        if (key instanceof java.util.Date) {
+            return new Timestamp(((java.util.Date) key).getTime()).toString();
+        }
+        return key.toString();
+    }
+
+    /**
+     * Converts a stored key back to a value that binds against the key column
+     */
+    public static Object decodeKey(String value, TableInfo.ColumnInfo keyColumn) {
+        if (value == null) {
+            return null;
+        }
+        if (PartitionPlanner.isTemporal(keyColumn.getDataType())) {
+            return Timestamp.valueOf(value);
+        }
+        if (PartitionPlanner.isIntegral(keyColumn.getDataType())) {
+            return new BigDecimal(value).longValueExact();
+        }
+        if (PartitionPlanner.isNumeric(keyColumn.getDataType())) {
+            return new BigDecimal(value);
+        }
+        return value;
+    }
+
+    private MigrationRequest withoutPasswords(MigrationRequest request) {
+        MigrationRequest copy = objectMapper.convertValue(request, MigrationRequest.class);
+        if (copy.getSourceConnection() != null) {
+            copy.getSourceConnection().setPassword(null);
+        }
+        if (copy.getTargetConnection() != null) {
+            copy.getTargetConnection().setPassword(null);
+        }
+        return copy;
+    }
+
+    private Path file(String checkpointId) {
+        // Checkpoint IDs are UUIDs; reject anything that could escape the directory
+        if (checkpointId == null || !checkpointId.matches("[A-Za-z0-9-]+")) {
+            throw new IllegalArgumentException("Invalid checkpoint ID: " + checkpointId);
+        }
+        return Paths.get(directory, checkpointId + FILE_SUFFIX);
+    }
+}
@@ -0,0 +1,252 @@
+package main.java.com.migration.service;
+
+import com.migration.model.DatabaseConnection;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.pool.HikariPool;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps one bounded connection pool per distinct database identity (JDBC URL and user) and
+ * password so that repeated metadata calls and migrations reuse connections instead of
+ * opening a new physical connection every time. Requests with a different password get a pool
+ * of their own rather than replacing one that running migrations may still be using.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ConnectionPoolManager {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${migration.pool.max-size:10}")
+    private int maxPoolSize;
+
+    @Value("${migration.pool.min-idle:0}")
+    private int minIdle;
+
+    @Value("${migration.pool.connection-timeout-ms:30000}")
+    private long connectionTimeoutMs;
+
+    @Value("${migration.pool.validation-timeout-ms:5000}")
+    private long validationTimeoutMs;
+
+    @Value("${migration.pool.idle-timeout-ms:300000}")
+    private long idleTimeoutMs;
+
+    @Value("${migration.pool.max-lifetime-ms:1800000}")
+    private long maxLifetimeMs;
+
+    @Value("${migration.pool.stale-after-ms:900000}")
+    private long staleAfterMs;
+
+    @Value("${migration.bulk.mysql-allow-local-infile:true}")
+    private boolean mysqlAllowLocalInfile;
+
+    private final Map<String, PoolEntry> pools = new ConcurrentHashMap<>();
+    private final AtomicInteger poolCounter = new AtomicInteger();
+
+    /**
+     * Borrows a connection from the pool belonging to the given connection details,
+     * creating the pool on first use
+     */
+    public Connection getConnection(DatabaseConnection connection) throws SQLException {
+        String key = poolKey(connection);
+
+        // Retry once in case the pool was evicted between lookup and borrow
+        for (int attempt = 0; ; attempt++) {
+            PoolEntry entry = pools.get(key);
+            if (entry == null) {
+                entry = createPool(key, connection);
+            }
+
+            entry.lastUsed = System.currentTimeMillis();
+            try {
+                return entry.dataSource.getConnection();
+            } catch (SQLException e) {
+                if (entry.dataSource.isClosed() && attempt == 0) {
+                    continue;
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Returns the maximum number of connections any single pool will hand out
+     */
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    /**
+     * Returns true if both connection details resolve to the same pool
+     */
+    public boolean isSamePool(DatabaseConnection first, DatabaseConnection second) {
+        return poolKey(first).equals(poolKey(second));
+    }
+
+    /**
+     * Returns pool-level statistics for every registered pool
+     */
+    public List<Map<String, Object>> getPoolStats() {
+        List<Map<String, Object>> stats = new ArrayList<>();
+        pools.forEach((key, entry) -> {
+            Map<String, Object> pool = new LinkedHashMap<>();
+            pool.put("poolName", entry.dataSource.getPoolName());
+            pool.put("identity", entry.identity);
+            pool.put("maxSize", entry.dataSource.getMaximumPoolSize());
+            HikariPoolMXBean mxBean = entry.dataSource.getHikariPoolMXBean();
+            if (mxBean != null) {
+                pool.put("activeConnections", mxBean.getActiveConnections());
+                pool.put("idleConnections", mxBean.getIdleConnections());
+                pool.put("totalConnections", mxBean.getTotalConnections());
+                pool.put("threadsAwaitingConnection", mxBean.getThreadsAwaitingConnection());
+            }
+            pool.put("createdAt", entry.createdAt);
+            pool.put("lastUsed", entry.lastUsed);
+            stats.add(pool);
+        });
+        return stats;
+    }
+
+    /**
+     * Closes pools that have not been used recently and have no borrowed connections
+     */
+    @Scheduled(fixedDelayString = "${migration.pool.eviction-interval-ms:60000}")
+    public void evictStalePools() {
+        long cutoff = System.currentTimeMillis() - staleAfterMs;
+        pools.forEach((key, entry) -> {
+            HikariPoolMXBean mxBean = entry.dataSource.getHikariPoolMXBean();
+            boolean inUse = mxBean != null && mxBean.getActiveConnections() > 0;
+            if (entry.lastUsed < cutoff && !inUse && pools.remove(key, entry)) {
+                log.info("Closing stale connection pool {}", entry.dataSource.getPoolName());
+                entry.dataSource.close();
+            }
+        });
+    }
+
+    @PreDestroy
+    public void closeAll() {
+        pools.values().forEach(entry -> entry.dataSource.close());
+        pools.clear();
+    }
+
+    /**
+     * Creates and registers the pool for the given identity. If another thread registered
+     * a pool for the same identity in the meantime, that pool wins and ours is discarded.
+     */
+    private PoolEntry createPool(String key, DatabaseConnection connection) throws SQLException {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("migration-" + connection.getDbType().toLowerCase() + "-" + poolCounter.incrementAndGet());
+        config.setJdbcUrl(connection.buildJdbcUrl());
+        if (connection.getJdbcUrl() == null || connection.getJdbcUrl().isEmpty()) {
+            config.setDriverClassName(connection.getDriverClassName());
+        }
+        config.setUsername(connection.getUsername());
+        if (connection.getPassword() != null && !connection.getPassword().isEmpty()) {
+            config.setPassword(connection.getPassword());
+        }
+
+        // Special settings for SAP HANA
+        if ("hana".equalsIgnoreCase(connection.getDbType())) {
+            config.addDataSourceProperty("databaseName", connection.getDatabaseName());
+        }
+
+        // Stream result sets through a server-side cursor whenever a fetch size is set
+        if ("mysql".equalsIgnoreCase(connection.getDbType())) {
+            config.addDataSourceProperty("useCursorFetch", "true");
+        }
+
+        // Needed for LOAD DATA LOCAL INFILE bulk loads fed from an in-memory stream
+        if ("mysql".equalsIgnoreCase(connection.getDbType()) && mysqlAllowLocalInfile) {
+            config.addDataSourceProperty("allowLoadLocalInfile", "true");
+        }
+
+        config.setMaximumPoolSize(maxPoolSize);
+        config.setMinimumIdle(minIdle);
+        config.setConnectionTimeout(connectionTimeoutMs);
+        config.setValidationTimeout(validationTimeoutMs);
+        config.setIdleTimeout(idleTimeoutMs);
+        config.setMaxLifetime(maxLifetimeMs);
+        // Publishes hikaricp.connections.* gauges tagged with the pool name
+        config.setMetricRegistry(meterRegistry);
+
+        HikariDataSource dataSource;
+        try {
+            dataSource = new HikariDataSource(config);
+        } catch (HikariPool.PoolInitializationException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw new SQLException("Failed to initialize connection pool: " + e.getMessage(), e);
+        }
+
+        PoolEntry created = new PoolEntry(dataSource, identity(connection));
+        PoolEntry registered = pools.putIfAbsent(key, created);
+        if (registered != null) {
+            dataSource.close();
+            return registered;
+        }
+        log.info("Created connection pool {} for {}", config.getPoolName(), created.identity);
+        return created;
+    }
+
+    /**
+     * Pool key: the identity plus a SHA-256 digest of the password, so a pool is only ever
+     * shared by callers that know the password it authenticated with
+     */
+    static String poolKey(DatabaseConnection connection) {
+        return identity(connection) + "|" + passwordDigest(connection.getPassword());
+    }
+
+    private static String identity(DatabaseConnection connection) {
+        return connection.buildJdbcUrl() + "|" + connection.getUsername();
+    }
+
+    private static String passwordDigest(String password) {
+        if (password == null) {
+            return "";
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(password.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE is required to provide SHA-256
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static class PoolEntry {
+        private final HikariDataSource dataSource;
+        // JDBC URL and user, without the password digest
+        private final String identity;
+        private final long createdAt = System.currentTimeMillis();
+        private volatile long lastUsed = createdAt;
+
+        PoolEntry(HikariDataSource dataSource, String identity) {
+            this.dataSource = dataSource;
+            this.identity = identity;
+        }
+    }
+}
@@ -2,18 +2,30 @@ package main.java.com.migration.service;
 
 import com.migration.model.DatabaseConnection;
 import com.migration.model.TableInfo;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Properties;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class DatabaseService {
 
+    private final ConnectionPoolManager connectionPoolManager;
+    private final MetadataCache metadataCache;
+
     /**
      * Tests the connection to the database using the provided connection details
      */
@@ -22,6 +34,9 @@ public class DatabaseService {
         try {
             Class.forName(connection.getDriverClassName());
             try (Connection conn = getConnection(connection)) {
+                if (!conn.isValid(5)) {
+                    throw new SQLException("Connection is not valid");
+                }
                 log.info("Successfully connected to {} at {}", connection.getDbType(), jdbcUrl);
                 return true;
             }
@@ -35,6 +50,17 @@ public class DatabaseService {
      * Gets a list of all tables in the database
      */
     public List<String> getAllTables(DatabaseConnection connection) {
+        return metadataCache.getTables(connection, () -> loadAllTables(connection));
+    }
+
+    /**
+     * Gets the structure of a table
+     */
+    public TableInfo getTableInfo(DatabaseConnection connection, String tableName) {
+        return metadataCache.getTable(connection, tableName, () -> loadTableInfo(connection, tableName));
+    }
+
+    private List<String> loadAllTables(DatabaseConnection connection) {
         List<String> tables = new ArrayList<>();
         
         try (Connection conn = getConnection(connection)) {
@@ -66,17 +92,14 @@ public class DatabaseService {
                 }
             }
             
-            return tables;
+            return List.copyOf(tables);
         } catch (SQLException e) {
             log.error("Failed to get tables: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to get tables: " + e.getMessage(), e);
         }
     }
 
-    /**
-     * Gets the structure of a table
-     */
-    public TableInfo getTableInfo(DatabaseConnection connection, String tableName) {
+    private TableInfo loadTableInfo(DatabaseConnection connection, String tableName) {
         try (Connection conn = getConnection(connection)) {
             DatabaseMetaData metaData = conn.getMetaData();
             List<TableInfo.ColumnInfo> columns = new ArrayList<>();
@@ -95,39 +118,47 @@ public class DatabaseService {
                     String columnName = rs.getString("COLUMN_NAME");
                     String dataType = rs.getString("TYPE_NAME");
                     int nullable = rs.getInt("NULLABLE");
+                    int columnSize = rs.getInt("COLUMN_SIZE");
                     boolean isPrimaryKey = primaryKeys.contains(columnName);
                     
                     columns.add(new TableInfo.ColumnInfo(
                             columnName,
                             dataType,
                             isPrimaryKey,
-                            nullable == DatabaseMetaData.columnNullable
+                            nullable == DatabaseMetaData.columnNullable,
+                            columnSize
                     ));
                 }
             }
             
             // Special handling for SAP HANA to get more detailed column info
             if ("hana".equalsIgnoreCase(connection.getDbType()) && columns.isEmpty()) {
-                try (Statement stmt = conn.createStatement();
-                     ResultSet rs = stmt.executeQuery(
-                             "SELECT COLUMN_NAME, DATA_TYPE_NAME, IS_NULLABLE FROM SYS.TABLE_COLUMNS " +
-                             "WHERE TABLE_NAME = '" + tableName + "' AND SCHEMA_NAME = CURRENT_SCHEMA")) {
-                    while (rs.next()) {
-                        String columnName = rs.getString("COLUMN_NAME");
-                        String dataType = rs.getString("DATA_TYPE_NAME");
-                        String isNullable = rs.getString("IS_NULLABLE");
+                try (PreparedStatement stmt = conn.prepareStatement(
+                             "SELECT COLUMN_NAME, DATA_TYPE_NAME, IS_NULLABLE, LENGTH FROM SYS.TABLE_COLUMNS " +
+                             "WHERE TABLE_NAME = ? AND SCHEMA_NAME = CURRENT_SCHEMA ORDER BY POSITION")) {
+                    stmt.setString(1, tableName);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            String columnName = rs.getString("COLUMN_NAME");
+                            String dataType = rs.getString("DATA_TYPE_NAME");
+                            String isNullable = rs.getString("IS_NULLABLE");
+                            int length = rs.getInt("LENGTH");
                         
-                        columns.add(new TableInfo.ColumnInfo(
-                                columnName,
-                                dataType,
-                                primaryKeys.contains(columnName),
-                                "TRUE".equalsIgnoreCase(isNullable)
-                        ));
+                            columns.add(new TableInfo.ColumnInfo(
+                                    columnName,
+                                    dataType,
+                                    primaryKeys.contains(columnName),
+                                    "TRUE".equalsIgnoreCase(isNullable),
+                                    length
+                            ));
+                        }
                     }
                 }
             }
             
-            return new TableInfo(tableName, columns);
+            TableInfo tableInfo = new TableInfo(tableName, columns);
+            tableInfo.setPrimaryKey(primaryKeys);
+            return tableInfo;
         } catch (SQLException e) {
             log.error("Failed to get table information: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to get table information: " + e.getMessage(), e);
@@ -135,23 +166,82 @@ public class DatabaseService {
     }
 
     /**
-     * Establishes a connection to the database using the provided connection details
+     * Returns, for each given table, the given tables it references through foreign keys.
+     * References to tables outside the list and self-references are left out.
      */
-    public Connection getConnection(DatabaseConnection connection) throws SQLException {
-        String jdbcUrl = connection.buildJdbcUrl();
-        Properties props = new Properties();
-        props.setProperty("user", connection.getUsername());
+    public Map<String, Set<String>> getTableDependencies(DatabaseConnection connection, Collection<String> tables) {
+        Map<String, String> byUpperName = new HashMap<>();
+        tables.forEach(table -> byUpperName.put(table.toUpperCase(), table));
+        Map<String, Set<String>> dependencies = new LinkedHashMap<>();
         
-        if (connection.getPassword() != null && !connection.getPassword().isEmpty()) {
-            props.setProperty("password", connection.getPassword());
+        try (Connection conn = getConnection(connection)) {
+            DatabaseMetaData metaData = conn.getMetaData();
+            for (String table : tables) {
+                Set<String> parents = new LinkedHashSet<>();
+                try (ResultSet rs = metaData.getImportedKeys(connection.getDatabaseName(), null, table)) {
+                    while (rs.next()) {
+                        String parent = byUpperName.get(rs.getString("PKTABLE_NAME").toUpperCase());
+                        if (parent != null && !parent.equals(table)) {
+                            parents.add(parent);
+                        }
+                    }
+                }
+                dependencies.put(table, parents);
+            }
+            return dependencies;
+        } catch (SQLException e) {
+            log.error("Failed to get foreign keys: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to get foreign keys: " + e.getMessage(), e);
         }
-        
-        // Special settings for SAP HANA
-        if ("hana".equalsIgnoreCase(connection.getDbType())) {
-            // Add any special properties for HANA if needed
-            props.setProperty("databaseName", connection.getDatabaseName());
+    }
+
+    /**
+     * Reads the indexes of a table from the driver's index metadata, columns in key order.
+     * Statistics rows and expression indexes, which have no column name, are skipped.
+     */
+    public List<TableInfo.IndexInfo> getIndexes(DatabaseConnection connection, String tableName) {
+        Map<String, TableInfo.IndexInfo> indexes = new LinkedHashMap<>();
+        Map<String, Map<Short, String>> columnsByPosition = new LinkedHashMap<>();
+        Set<String> expressionIndexes = new HashSet<>();
+        try (Connection conn = getConnection(connection);
+             ResultSet rs = conn.getMetaData().getIndexInfo(connection.getDatabaseName(), null, tableName, false, true)) {
+            while (rs.next()) {
+                String indexName = rs.getString("INDEX_NAME");
+                if (indexName == null || rs.getShort("TYPE") == DatabaseMetaData.tableIndexStatistic) {
+                    continue;
+                }
+                String columnName = rs.getString("COLUMN_NAME");
+                if (columnName == null) {
+                    expressionIndexes.add(indexName);
+                    continue;
+                }
+                indexes.computeIfAbsent(indexName, name -> {
+                    TableInfo.IndexInfo index = new TableInfo.IndexInfo();
+                    index.setName(name);
+                    return index;
+                });
+                indexes.get(indexName).setUnique(!rs.getBoolean("NON_UNIQUE"));
+                columnsByPosition.computeIfAbsent(indexName, name -> new TreeMap<>())
+                        .put(rs.getShort("ORDINAL_POSITION"), columnName);
+            }
+        } catch (SQLException e) {
+            log.error("Failed to get indexes: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to get indexes: " + e.getMessage(), e);
         }
-        
-        return DriverManager.getConnection(jdbcUrl, props);
+        expressionIndexes.forEach(name -> {
+            if (indexes.remove(name) != null) {
+                log.info("Skipping expression index {} on {}", name, tableName);
+            }
+        });
+        indexes.forEach((name, index) -> index.setColumns(new ArrayList<>(columnsByPosition.get(name).values())));
+        return new ArrayList<>(indexes.values());
+    }
+
+    /**
+     * Borrows a pooled connection to the database using the provided connection details.
+     * Closing the returned connection hands it back to the pool.
+     */
+    public Connection getConnection(DatabaseConnection connection) throws SQLException {
+        return connectionPoolManager.getConnection(connection);
     }
 }
@@ -0,0 +1,136 @@
+package main.java.com.migration.service;
+
+import com.migration.model.DatabaseConnection;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of catalog metadata (table lists and {@code TableInfo}) keyed by database
+ * identity plus table, so repeated UI calls and job starts skip slow catalog round trips.
+ * Entries expire after a TTL and the least recently used entry is dropped once the cache is full.
+ * The identity includes a hash of the password so metadata is only served to callers that
+ * could have read it themselves.
+ */
+@Service
+@Slf4j
+public class MetadataCache {
+
+    private static final String TABLES_KEY = "#tables";
+
+    @Value("${migration.metadata-cache.ttl-ms:300000}")
+    private long ttlMs;
+
+    @Value("${migration.metadata-cache.max-entries:500}")
+    private int maxEntries;
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Returns the cached table list of the database, loading it on a miss
+     */
+    public <T> T getTables(DatabaseConnection connection, Supplier<T> loader) {
+        return get(key(connection, TABLES_KEY), loader);
+    }
+
+    /**
+     * Returns the cached structure of a table, loading it on a miss
+     */
+    public <T> T getTable(DatabaseConnection connection, String tableName, Supplier<T> loader) {
+        return get(key(connection, tableName), loader);
+    }
+
+    /**
+     * Stores a table structure that was read by other means, such as bulk introspection
+     */
+    public synchronized void putTable(DatabaseConnection connection, String tableName, Object tableInfo) {
+        entries.put(key(connection, tableName), new Entry(tableInfo, System.currentTimeMillis() + ttlMs));
+        evict();
+    }
+
+    /**
+     * Drops the cached structure of a table and the table list of its database
+     */
+    public synchronized void invalidate(DatabaseConnection connection, String tableName) {
+        entries.remove(key(connection, tableName));
+        entries.remove(key(connection, TABLES_KEY));
+    }
+
+    /**
+     * Drops every entry belonging to the database
+     */
+    public synchronized void invalidate(DatabaseConnection connection) {
+        String prefix = key(connection, "");
+        entries.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlMs", ttlMs);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        return stats;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(String key, Supplier<T> loader) {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt > now) {
+                hits.incrementAndGet();
+                return (T) entry.value;
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+        }
+
+        // Load outside the lock so one slow catalog does not block lookups for others
+        misses.incrementAndGet();
+        T value = loader.get();
+        synchronized (this) {
+            entries.put(key, new Entry(value, System.currentTimeMillis() + ttlMs));
+            evict();
+        }
+        return value;
+    }
+
+    private void evict() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    private static String key(DatabaseConnection connection, String name) {
+        return ConnectionPoolManager.poolKey(connection) + "|" + name;
+    }
+
+    private static class Entry {
+        private final Object value;
+        private final long expiresAt;
+
+        Entry(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
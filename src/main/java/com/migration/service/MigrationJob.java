@@ -0,0 +1,180 @@
+package main.java.com.migration.service;
+
+import com.migration.model.JobStatus;
+import com.migration.model.MigrationRequest;
+import com.migration.model.MigrationResult;
+import com.migration.service.copy.CopyMonitor;
+import com.migration.service.copy.Throttle;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runtime state of one asynchronous migration: phase, live counters and cancellation
+ */
+@Slf4j
+public class MigrationJob implements CopyMonitor {
+
+    public static final String PHASE_QUEUED = "QUEUED";
+    public static final String PHASE_METADATA = "METADATA";
+    public static final String PHASE_PREPARING_TARGET = "PREPARING_TARGET";
+    public static final String PHASE_PLANNING = "PLANNING";
+    public static final String PHASE_COPYING = "COPYING";
+    public static final String PHASE_BUILDING_INDEXES = "BUILDING_INDEXES";
+    public static final String PHASE_COMPLETED = "COMPLETED";
+    public static final String PHASE_FAILED = "FAILED";
+    public static final String PHASE_CANCELLED = "CANCELLED";
+
+    @Getter
+    private final String jobId;
+    @Getter
+    private final MigrationRequest request;
+    @Getter
+    private final Throttle throttle;
+    private final long submittedAt = System.currentTimeMillis();
+
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final Set<Statement> statements = ConcurrentHashMap.newKeySet();
+    private final CountDownLatch finished = new CountDownLatch(1);
+
+    private volatile String phase = PHASE_QUEUED;
+    private volatile long estimatedTotal;
+    private volatile Long startedAt;
+    private volatile Long copyStartedAt;
+    @Getter
+    private volatile Long finishedAt;
+    private volatile boolean cancelRequested;
+    private volatile MigrationResult result;
+
+    public MigrationJob(String jobId, MigrationRequest request, Throttle throttle) {
+        this.jobId = jobId;
+        this.request = request;
+        this.throttle = throttle;
+    }
+
+    public void start() {
+        startedAt = System.currentTimeMillis();
+    }
+
+    public void finish(MigrationResult result) {
+        this.result = result;
+        this.finishedAt = System.currentTimeMillis();
+        if (result.isSuccess()) {
+            phase = PHASE_COMPLETED;
+        } else {
+            phase = cancelRequested ? PHASE_CANCELLED : PHASE_FAILED;
+        }
+        statements.clear();
+        finished.countDown();
+    }
+
+    public boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    /**
+     * Blocks until the job has finished
+     */
+    public void awaitFinished() throws InterruptedException {
+        finished.await();
+    }
+
+    /**
+     * Requests cooperative cancellation and cancels every statement currently running for the job
+     */
+    public void cancel() {
+        cancelRequested = true;
+        for (Statement statement : statements) {
+            try {
+                statement.cancel();
+            } catch (SQLException e) {
+                log.warn("Failed to cancel statement for job {}: {}", jobId, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void onPhase(String phase) {
+        if (PHASE_COPYING.equals(phase)) {
+            copyStartedAt = System.currentTimeMillis();
+        }
+        this.phase = phase;
+    }
+
+    @Override
+    public void onEstimatedTotal(long rows) {
+        this.estimatedTotal = rows;
+    }
+
+    @Override
+    public void onRowsRead(long rows) {
+        rowsRead.addAndGet(rows);
+    }
+
+    @Override
+    public void onRowsWritten(long rows) {
+        rowsWritten.addAndGet(rows);
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelRequested;
+    }
+
+    @Override
+    public void register(Statement statement) {
+        statements.add(statement);
+        // A statement registered after cancel() was called would otherwise run to completion
+        if (cancelRequested) {
+            try {
+                statement.cancel();
+            } catch (SQLException e) {
+                log.warn("Failed to cancel statement for job {}: {}", jobId, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void unregister(Statement statement) {
+        statements.remove(statement);
+    }
+
+    public JobStatus toStatus() {
+        JobStatus status = new JobStatus();
+        status.setJobId(jobId);
+        status.setPhase(phase);
+        status.setSourceTable(request.getSourceTable());
+        status.setTargetTable(request.getTargetTable());
+        status.setSubmittedAt(submittedAt);
+        status.setStartedAt(startedAt);
+        status.setFinishedAt(finishedAt);
+        status.setRowsRead(rowsRead.get());
+        status.setRowsWritten(rowsWritten.get());
+        status.setEstimatedTotal(estimatedTotal);
+        status.setCancelRequested(cancelRequested);
+        status.setThrottle(ThrottleService.settingsOf(throttle));
+        status.setResult(result);
+
+        long written = rowsWritten.get();
+        Long copyStart = copyStartedAt;
+        if (copyStart != null) {
+            long end = finishedAt != null ? finishedAt : System.currentTimeMillis();
+            double seconds = Math.max(1, end - copyStart) / 1000.0;
+            status.setRowsPerSecond(written / seconds);
+        }
+        if (estimatedTotal > 0) {
+            status.setPercentComplete(Math.min(100.0, written * 100.0 / estimatedTotal));
+            if (!isFinished() && status.getRowsPerSecond() > 0) {
+                status.setEtaSeconds((long) (Math.max(0, estimatedTotal - written) / status.getRowsPerSecond()));
+            }
+        }
+        return status;
+    }
+}
@@ -0,0 +1,210 @@
+package main.java.com.migration.service;
+
+import com.migration.model.JobStatus;
+import com.migration.model.MigrationCheckpoint;
+import com.migration.model.MigrationRequest;
+import com.migration.model.MigrationResult;
+import com.migration.model.ThrottleSettings;
+import com.migration.service.copy.CopyMonitor;
+import com.migration.service.jfr.JfrCopyMonitor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs migrations in the background so that HTTP requests return immediately with a job ID
+ */
+@Service
+@Slf4j
+public class MigrationJobService {
+
+    private final MigrationService migrationService;
+    private final CheckpointStore checkpointStore;
+    private final JfrRecordingService jfrRecordingService;
+    private final ThrottleService throttleService;
+    private final ExecutorService executor;
+    private final Map<String, MigrationJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${migration.jobs.retention-max:100}")
+    private int retentionMax;
+
+    @Value("${migration.jobs.retention-ms:86400000}")
+    private long retentionMs;
+
+    public MigrationJobService(MigrationService migrationService, CheckpointStore checkpointStore,
+                               JfrRecordingService jfrRecordingService, ThrottleService throttleService,
+                               MeterRegistry meterRegistry,
+                               @Value("${migration.jobs.max-concurrent:4}") int maxConcurrent) {
+        this.migrationService = migrationService;
+        this.checkpointStore = checkpointStore;
+        this.jfrRecordingService = jfrRecordingService;
+        this.throttleService = throttleService;
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "migration-job-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        Gauge.builder("migration.jobs.active", jobs, all -> all.values().stream().filter(job -> !job.isFinished()).count())
+                .description("Migration jobs queued or running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a migration and returns its job ID
+     */
+    public String submit(MigrationRequest request) {
+        return submitJob(request).getJobId();
+    }
+
+    /**
+     * Queues a migration and returns the job itself, for callers that wait for it. The caller's
+     * reference stays valid after the job has been purged from the job list.
+     */
+    public MigrationJob submitJob(MigrationRequest request) {
+        purgeFinishedJobs();
+
+        String jobId = UUID.randomUUID().toString();
+        MigrationJob job = new MigrationJob(jobId, request, throttleService.forRequest(request, jobId));
+        jobs.put(jobId, job);
+        executor.execute(() -> run(job));
+        log.info("Submitted migration job {} for {} -> {}", jobId, request.getSourceTable(), request.getTargetTable());
+        return job;
+    }
+
+    /**
+     * Queues a migration that continues a checkpoint from its last committed keys. Passwords
+     * are not journaled, so they are supplied again here.
+     */
+    public String resume(String checkpointId, String sourcePassword, String targetPassword) {
+        MigrationCheckpoint checkpoint = checkpointStore.load(checkpointId)
+                .orElseThrow(() -> new IllegalArgumentException("Checkpoint not found: " + checkpointId));
+        if (MigrationCheckpoint.STATUS_COMPLETED.equals(checkpoint.getStatus())) {
+            throw new IllegalStateException("Checkpoint " + checkpointId + " has already completed");
+        }
+        boolean running = jobs.values().stream().anyMatch(job -> !job.isFinished()
+                && checkpointId.equals(job.getRequest().getResumeCheckpointId()));
+        if (running) {
+            throw new IllegalStateException("Checkpoint " + checkpointId + " is already being resumed");
+        }
+
+        MigrationRequest request = checkpoint.getRequest();
+        request.getSourceConnection().setPassword(sourcePassword);
+        request.getTargetConnection().setPassword(targetPassword);
+        request.setResumeCheckpointId(checkpointId);
+        return submit(request);
+    }
+
+    public Optional<JobStatus> getStatus(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(MigrationJob::toStatus);
+    }
+
+    public List<JobStatus> listJobs() {
+        return jobs.values().stream()
+                .map(MigrationJob::toStatus)
+                .sorted(Comparator.comparingLong(JobStatus::getSubmittedAt).reversed())
+                .toList();
+    }
+
+    /**
+     * Requests cancellation of a job
+     *
+     * @return false if the job does not exist or has already finished
+     */
+    public boolean cancel(String jobId) {
+        MigrationJob job = jobs.get(jobId);
+        if (job == null || job.isFinished()) {
+            return false;
+        }
+        log.info("Cancelling migration job {}", jobId);
+        job.cancel();
+        return true;
+    }
+
+    /**
+     * Changes the source read limits of a running job
+     *
+     * @return the settings now in force, or empty if the job does not exist or has already finished
+     */
+    public Optional<ThrottleSettings> updateThrottle(String jobId, ThrottleSettings settings) {
+        MigrationJob job = jobs.get(jobId);
+        if (job == null || job.isFinished()) {
+            return Optional.empty();
+        }
+        throttleService.update(job.getThrottle(), settings);
+        return Optional.of(ThrottleService.settingsOf(job.getThrottle()));
+    }
+
+    /**
+     * Drops finished jobs older than the retention period, then the oldest finished jobs
+     * beyond the retention limit
+     */
+    @Scheduled(fixedDelayString = "${migration.jobs.purge-interval-ms:60000}")
+    public void purgeFinishedJobs() {
+        long cutoff = System.currentTimeMillis() - retentionMs;
+        jobs.values().removeIf(job -> {
+            if (job.isFinished() && job.getFinishedAt() < cutoff) {
+                jfrRecordingService.delete(job.getJobId());
+                return true;
+            }
+            return false;
+        });
+
+        List<MigrationJob> finished = jobs.values().stream()
+                .filter(MigrationJob::isFinished)
+                .sorted(Comparator.comparingLong(MigrationJob::getFinishedAt))
+                .toList();
+        for (int i = 0; i < finished.size() - retentionMax; i++) {
+            jobs.remove(finished.get(i).getJobId());
+            jfrRecordingService.delete(finished.get(i).getJobId());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().stream().filter(job -> !job.isFinished()).forEach(MigrationJob::cancel);
+        executor.shutdownNow();
+    }
+
+    private void run(MigrationJob job) {
+        job.start();
+        MigrationResult result;
+        if (job.isCancelled()) {
+            result = new MigrationResult(false, 0, 0, 0, 0, "Migration cancelled before it started", null);
+        } else {
+            CopyMonitor monitor = job;
+            if (job.getRequest().isJfrRecording()) {
+                jfrRecordingService.start(job.getJobId());
+                monitor = new JfrCopyMonitor(job, job.getJobId(), job.getRequest().getSourceTable(),
+                        job.getRequest().getTargetTable());
+            }
+            try {
+                result = migrationService.migrateData(job.getRequest(), monitor, job.getThrottle());
+            } catch (RuntimeException e) {
+                log.error("Migration job {} failed: {}", job.getJobId(), e.getMessage(), e);
+                result = new MigrationResult(false, 0, 0, 0, 0, "Migration failed: " + e.getMessage(), e);
+            } finally {
+                jfrRecordingService.stop(job.getJobId());
+            }
+        }
+        job.finish(result);
+        log.info("Migration job {} finished: {}", job.getJobId(), result.getMessage());
+    }
+}
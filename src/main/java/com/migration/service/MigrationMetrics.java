@@ -0,0 +1,115 @@
+package main.java.com.migration.service;
+
+import com.migration.model.MigrationRequest;
+import com.migration.service.copy.CopyMonitor;
+import com.migration.service.copy.ForwardingCopyMonitor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes copy throughput and latency to Micrometer, tagged by source and target database
+ * type and table. Scraped from {@code /actuator/prometheus}; connection pool gauges are
+ * published by HikariCP under {@code hikaricp.*} and job counts by {@link MigrationJobService}.
+ */
+@Service
+@RequiredArgsConstructor
+public class MigrationMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Wraps a monitor so that the copy it observes is also recorded as metrics
+     *
+     * @param rowWidth estimated bytes per source row, used for the byte counter
+     */
+    public CopyMonitor instrument(CopyMonitor monitor, MigrationRequest request, long rowWidth) {
+        Tags tags = Tags.of(
+                "source.db", tagValue(request.getSourceConnection().getDbType()),
+                "target.db", tagValue(request.getTargetConnection().getDbType()),
+                "source.table", tagValue(request.getSourceTable()),
+                "target.table", tagValue(request.getTargetTable()));
+        return new MeteredCopyMonitor(monitor, tags, rowWidth);
+    }
+
+    private static String tagValue(String value) {
+        return value == null ? "unknown" : value.toLowerCase();
+    }
+
+    private class MeteredCopyMonitor extends ForwardingCopyMonitor {
+
+        private final long rowWidth;
+        private final Counter rowsRead;
+        private final Counter rowsWritten;
+        private final Counter rowsFailed;
+        private final Counter bytesWritten;
+        private final Timer fetch;
+        private final Timer batchExecute;
+        private final Timer commit;
+
+        MeteredCopyMonitor(CopyMonitor delegate, Tags tags, long rowWidth) {
+            super(delegate);
+            this.rowWidth = rowWidth;
+            this.rowsRead = Counter.builder("migration.rows.read")
+                    .description("Rows read from the source").tags(tags).register(meterRegistry);
+            this.rowsWritten = Counter.builder("migration.rows.written")
+                    .description("Rows committed to the target").tags(tags).register(meterRegistry);
+            this.rowsFailed = Counter.builder("migration.rows.failed")
+                    .description("Rows rejected by the target").tags(tags).register(meterRegistry);
+            this.bytesWritten = Counter.builder("migration.bytes.estimated")
+                    .description("Committed rows times the estimated source row width")
+                    .baseUnit("bytes").tags(tags).register(meterRegistry);
+            this.fetch = Timer.builder("migration.source.fetch")
+                    .description("Time spent fetching one batch of rows from the source")
+                    .publishPercentileHistogram().tags(tags).register(meterRegistry);
+            this.batchExecute = Timer.builder("migration.batch.execute")
+                    .description("Time spent sending one batch to the target, commit excluded")
+                    .publishPercentileHistogram().tags(tags).register(meterRegistry);
+            this.commit = Timer.builder("migration.batch.commit")
+                    .description("Time spent committing one batch on the target")
+                    .publishPercentileHistogram().tags(tags).register(meterRegistry);
+        }
+
+        @Override
+        public void onRowsRead(long rows) {
+            rowsRead.increment(rows);
+            super.onRowsRead(rows);
+        }
+
+        @Override
+        public void onRowsWritten(long rows) {
+            rowsWritten.increment(rows);
+            bytesWritten.increment(rows * rowWidth);
+            super.onRowsWritten(rows);
+        }
+
+        @Override
+        public void onRowsFailed(long rows) {
+            rowsFailed.increment(rows);
+            super.onRowsFailed(rows);
+        }
+
+        @Override
+        public void onFetch(int rows, long nanos) {
+            fetch.record(nanos, TimeUnit.NANOSECONDS);
+            super.onFetch(rows, nanos);
+        }
+
+        @Override
+        public void onBatchExecuted(int rows, long nanos) {
+            batchExecute.record(nanos, TimeUnit.NANOSECONDS);
+            super.onBatchExecuted(rows, nanos);
+        }
+
+        @Override
+        public void onCommit(long nanos) {
+            commit.record(nanos, TimeUnit.NANOSECONDS);
+            super.onCommit(nanos);
+        }
+    }
+}
@@ -1,15 +1,41 @@
 package main.java.com.migration.service;
 
 import com.migration.model.DatabaseConnection;
+import com.migration.model.KeyRange;
+import com.migration.model.MigrationCheckpoint;
 import com.migration.model.MigrationRequest;
 import com.migration.model.MigrationResult;
+import com.migration.model.PartitionResult;
+import com.migration.model.SyncWatermark;
 import com.migration.model.TableInfo;
+import com.migration.service.copy.AdaptiveBatchSizer;
+import com.migration.service.copy.BatchWriter;
+import com.migration.service.copy.BatchWriters;
+import com.migration.service.copy.CheckpointTracker;
+import com.migration.service.copy.CopyMonitor;
+import com.migration.service.copy.CopyPipeline;
+import com.migration.service.copy.DeadLetterWriter;
+import com.migration.service.copy.PipelineStats;
+import com.migration.service.copy.Throttle;
+import com.migration.util.DatabaseDialectConverter;
+import com.migration.util.FetchSizeCalculator;
+import com.migration.util.UpsertQueryBuilder;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,19 +44,71 @@ import java.util.stream.Collectors;
 public class MigrationService {
 
     private final DatabaseService databaseService;
+    private final PartitionPlanner partitionPlanner;
+    private final ConnectionPoolManager connectionPoolManager;
+    private final CheckpointStore checkpointStore;
+    private final WatermarkStore watermarkStore;
+    private final MetadataCache metadataCache;
+    private final MigrationMetrics migrationMetrics;
+    private final RowCountService rowCountService;
+    private final ThrottleService throttleService;
+
+    @Value("${migration.fetch.memory-budget-mb:64}")
+    private long defaultFetchMemoryBudgetMb;
+
+    @Value("${migration.dead-letter.dir:dead-letter}")
+    private String deadLetterDir;
+
+    @Value("${migration.index-build.parallelism:4}")
+    private int indexBuildParallelism;
+
+    @Value("${migration.lob.inline-kb:1024}")
+    private int lobInlineKb;
+
+    @Value("${migration.lob.max-batch-mb:64}")
+    private long lobMaxBatchMb;
+
+    @Value("${migration.adaptive-batch.max-bytes-mb:16}")
+    private long adaptiveMaxBatchMb;
+
+    @Value("${migration.adaptive-batch.target-latency-ms:2000}")
+    private long adaptiveTargetLatencyMs;
 
     /**
      * Migrates data from source to target database based on the migration request
      */
     public MigrationResult migrateData(MigrationRequest request) {
+        return migrateData(request, CopyMonitor.NONE);
+    }
+
+    /**
+     * Migrates data, reporting phases and row counts to the monitor and stopping when it is cancelled
+     */
+    public MigrationResult migrateData(MigrationRequest request, CopyMonitor monitor) {
+        return migrateData(request, monitor, throttleService.forRequest(request, request.getSourceTable()));
+    }
+
+    /**
+     * Migrates data, reading the source no faster than the throttle allows
+     */
+    public MigrationResult migrateData(MigrationRequest request, CopyMonitor monitor, Throttle throttle) {
         long startTime = System.currentTimeMillis();
-        int totalRecords = 0;
-        int migratedRecords = 0;
-        int failedRecords = 0;
+        MigrationCheckpoint checkpoint = null;
         
         try {
+            // Resuming continues from the journal instead of preparing the target again
+            boolean resuming = request.getResumeCheckpointId() != null && !request.getResumeCheckpointId().isEmpty();
+            if (resuming) {
+                checkpoint = checkpointStore.load(request.getResumeCheckpointId())
+                        .orElseThrow(() -> new IllegalArgumentException("Checkpoint not found: " + request.getResumeCheckpointId()));
+            }
+            
             // Get table structure information
+            monitor.onPhase(MigrationJob.PHASE_METADATA);
+            monitor.onOperationStart(CopyMonitor.Operation.METADATA_LOOKUP);
+            long metadataStart = System.nanoTime();
             TableInfo sourceTableInfo = databaseService.getTableInfo(request.getSourceConnection(), request.getSourceTable());
+            monitor.onMetadataLookup(request.getSourceTable(), System.nanoTime() - metadataStart);
             
             // Determine which columns to migrate
             List<String> columnsToMigrate = request.getSelectedColumns() != null && !request.getSelectedColumns().isEmpty() 
@@ -39,100 +117,508 @@ public class MigrationService {
                         .map(TableInfo.ColumnInfo::getName)
                         .collect(Collectors.toList());
             
+            // Incremental sync copies rows past the stored watermark and upserts them on the primary key
+            boolean incremental = request.getIncrementalColumn() != null && !request.getIncrementalColumn().isEmpty();
+            TableInfo.ColumnInfo incrementalColumn = null;
+            String previousWatermark = null;
+            String upsertQuery = null;
+            if (incremental) {
+                incrementalColumn = findColumn(sourceTableInfo, request.getIncrementalColumn());
+                previousWatermark = watermarkStore.get(WatermarkStore.syncId(request))
+                        .map(SyncWatermark::getValue)
+                        .orElse(null);
+                List<String> keyColumns = sourceTableInfo.getColumns().stream()
+                        .filter(TableInfo.ColumnInfo::isPrimaryKey)
+                        .map(TableInfo.ColumnInfo::getName)
+                        .filter(columnsToMigrate::contains)
+                        .collect(Collectors.toList());
+                upsertQuery = UpsertQueryBuilder.build(request.getTargetConnection().getDbType(), request.getTargetTable(),
+                        columnsToMigrate, keyColumns);
+                if (!BatchWriters.MODE_INSERT.equalsIgnoreCase(request.getWriteMode())) {
+                    log.info("Incremental sync writes batched upserts, ignoring write mode {}", request.getWriteMode());
+                }
+            }
+            // After the first sync the target already holds the data
+            boolean prepareTarget = !resuming && previousWatermark == null;
+            // Load into a bare table and build the keys afterwards; upserts need the key from the start.
+            // A resumed migration builds them once it finishes the load.
+            boolean deferIndexes = request.isDeferIndexes() && request.isCreateTargetTable() && upsertQuery == null
+                    && (prepareTarget || resuming);
+            
             // Create target table if requested
-            if (request.isCreateTargetTable()) {
-                createTargetTable(request.getTargetConnection(), request.getTargetTable(), sourceTableInfo, columnsToMigrate);
+            monitor.onPhase(MigrationJob.PHASE_PREPARING_TARGET);
+            if (prepareTarget && request.isCreateTargetTable()) {
+                monitor.onOperationStart(CopyMonitor.Operation.DDL);
+                long ddlStart = System.nanoTime();
+                createTargetTable(request.getTargetConnection(), request.getTargetTable(), sourceTableInfo, columnsToMigrate,
+                        request.getSourceConnection().getDbType(), !deferIndexes);
+                monitor.onDdl(request.getTargetTable(), "CREATE TABLE", System.nanoTime() - ddlStart);
             }
             
             // Truncate target table if requested
-            if (request.isTruncateTargetTable()) {
+            if (prepareTarget && request.isTruncateTargetTable()) {
+                monitor.onOperationStart(CopyMonitor.Operation.DDL);
+                long ddlStart = System.nanoTime();
                 truncateTargetTable(request.getTargetConnection(), request.getTargetTable());
+                monitor.onDdl(request.getTargetTable(), "TRUNCATE", System.nanoTime() - ddlStart);
             }
             
-            // Start the migration
-            try (Connection sourceConn = databaseService.getConnection(request.getSourceConnection());
-                 Connection targetConn = databaseService.getConnection(request.getTargetConnection())) {
-                
-                // Disable auto-commit for batch operations
-                targetConn.setAutoCommit(false);
-                
-                // Create the query for selecting data from source
-                String selectQuery = buildSelectQuery(request.getSourceTable(), columnsToMigrate, request.getWhereClause());
-                
-                // Create the prepared statement for inserting into target
-                String insertQuery = buildInsertQuery(request.getTargetTable(), columnsToMigrate);
-                
-                try (Statement sourceStmt = sourceConn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
-                     ResultSet rs = sourceStmt.executeQuery(selectQuery);
-                     PreparedStatement targetPstmt = targetConn.prepareStatement(insertQuery)) {
-                    
-                    // Get metadata for the result set
-                    ResultSetMetaData rsMetaData = rs.getMetaData();
-                    int columnCount = rsMetaData.getColumnCount();
-                    
-                    // Process records in batches
-                    int batchCounter = 0;
-                    while (rs.next()) {
-                        totalRecords++;
-                        try {
-                            // Set values in the prepared statement
-                            for (int i = 1; i <= columnCount; i++) {
-                                targetPstmt.setObject(i, rs.getObject(i));
-                            }
-                            targetPstmt.addBatch();
-                            batchCounter++;
-                            
-                            // Execute batch when it reaches the batch size
-                            if (batchCounter >= request.getBatchSize()) {
-                                int[] results = targetPstmt.executeBatch();
-                                targetConn.commit();
-                                migratedRecords += Arrays.stream(results).sum();
-                                batchCounter = 0;
-                            }
-                        } catch (SQLException e) {
-                            failedRecords++;
-                            log.warn("Failed to process record: {}", e.getMessage());
-                        }
+            // Split the source into key ranges when a parallel copy is requested
+            monitor.onPhase(MigrationJob.PHASE_PLANNING);
+            
+            // Bound the sync by the current maximum so rows changed during the copy are picked up next time
+            String filterPredicate = null;
+            List<Object> filterParameters = new ArrayList<>();
+            Object newWatermark = null;
+            if (incremental) {
+                newWatermark = readMaxValue(request.getSourceConnection(), request.getSourceTable(),
+                        incrementalColumn.getName(), request.getWhereClause());
+                List<String> conditions = new ArrayList<>();
+                if (previousWatermark != null) {
+                    conditions.add(incrementalColumn.getName() + " > ?");
+                    filterParameters.add(CheckpointStore.decodeKey(previousWatermark, incrementalColumn));
+                }
+                if (newWatermark != null) {
+                    conditions.add(incrementalColumn.getName() + " <= ?");
+                    filterParameters.add(newWatermark);
+                } else {
+                    conditions.add(incrementalColumn.getName() + " IS NOT NULL");
+                }
+                filterPredicate = String.join(" AND ", conditions);
+                log.info("Incremental sync of {} on {}: after {} up to {}", request.getSourceTable(),
+                        incrementalColumn.getName(), previousWatermark, CheckpointStore.encodeKey(newWatermark));
+            }
+
+            if (monitor != CopyMonitor.NONE) {
+                // Progress only needs a rough total; a filtered copy has to count
+                boolean filtered = request.getWhereClause() != null && !request.getWhereClause().trim().isEmpty();
+                long estimatedTotal = filtered
+                        ? countRecords(request.getSourceConnection(), request.getSourceTable(), request.getWhereClause())
+                        : rowCountService.estimate(request.getSourceConnection(), request.getSourceTable());
+                if (estimatedTotal >= 0) {
+                    monitor.onEstimatedTotal(estimatedTotal);
+                }
+            }
+            TableInfo.ColumnInfo partitionColumn = null;
+            List<KeyRange> ranges = List.of(KeyRange.unbounded());
+            int parallelism = resolveParallelism(request);
+            long priorWritten = 0;
+            long priorFailed = 0;
+            if (resuming) {
+                partitionColumn = findColumn(sourceTableInfo, checkpoint.getKeyColumn());
+                ranges = resumeRanges(checkpoint, partitionColumn);
+                // Upserts overwrite the rows copied again; inserts would duplicate or reject them
+                if (upsertQuery == null) {
+                    deleteUncommittedRows(request, partitionColumn.getName(), ranges, monitor);
+                }
+                priorWritten = checkpoint.getRowsWritten();
+                priorFailed = checkpoint.getRowsFailed();
+                checkpoint.setStatus(MigrationCheckpoint.STATUS_RUNNING);
+                log.info("Resuming checkpoint {}: {} rows already committed, {} partitions left",
+                        checkpoint.getCheckpointId(), priorWritten, ranges.size());
+            } else {
+                if (parallelism > 1 || request.isCheckpointEnabled()) {
+                    partitionColumn = partitionPlanner.resolvePartitionColumn(sourceTableInfo, request.getPartitionColumn());
+                }
+                if (parallelism > 1) {
+                    if (partitionColumn == null) {
+                        log.warn("Table {} has no single-column primary key and no partition column was given, copying sequentially",
+                                request.getSourceTable());
+                    } else {
+                        int partitionCount = request.getPartitionCount() > 0 ? request.getPartitionCount() : parallelism;
+                        ranges = partitionPlanner.planRanges(request.getSourceConnection(), request.getSourceTable(),
+                                partitionColumn, request.getWhereClause(), partitionCount, request.getPartitionStrategy(),
+                                rowCountService.estimate(request.getSourceConnection(), request.getSourceTable()));
                     }
-                    
-                    // Process any remaining records in the batch
-                    if (batchCounter > 0) {
-                        int[] results = targetPstmt.executeBatch();
-                        targetConn.commit();
-                        migratedRecords += Arrays.stream(results).sum();
+                }
+                if (request.isCheckpointEnabled()) {
+                    // The key must be unique and never NULL: a batch can end inside a run of equal keys,
+                    // and resuming with "key > last" would skip the rest of that run
+                    if (partitionColumn == null || partitionColumn.isNullable()
+                            || !columnsToMigrate.contains(partitionColumn.getName())
+                            || !isUniqueKey(request, sourceTableInfo, partitionColumn)) {
+                        log.warn("Checkpointing needs a non-nullable primary key or single-column unique key among "
+                                + "the migrated columns, migrating {} without checkpoints", request.getSourceTable());
+                    } else {
+                        checkpoint = checkpointStore.create(request, partitionColumn.getName(), ranges);
                     }
                 }
-                
-                long executionTime = System.currentTimeMillis() - startTime;
-                return new MigrationResult(
-                        true,
-                        totalRecords,
-                        migratedRecords,
-                        failedRecords,
-                        executionTime,
-                        "Migration completed successfully",
-                        null
-                );
             }
-        } catch (Exception e) {
-            log.error("Migration failed: {}", e.getMessage(), e);
+            
+            // Size the source fetch from the memory budget, shared by the partitions running at once
+            List<TableInfo.ColumnInfo> migratedColumns = sourceTableInfo.getColumns().stream()
+                    .filter(col -> columnsToMigrate.contains(col.getName()))
+                    .collect(Collectors.toList());
+            long memoryBudgetBytes = (request.getFetchMemoryBudgetMb() > 0
+                    ? request.getFetchMemoryBudgetMb() : defaultFetchMemoryBudgetMb) * 1024L * 1024L;
+            long rowWidth = FetchSizeCalculator.estimateRowWidth(migratedColumns);
+            int fetchSize = FetchSizeCalculator.fetchSize(memoryBudgetBytes / Math.max(1, Math.min(parallelism, ranges.size())),
+                    rowWidth);
+            log.info("Estimated source row width {} bytes, fetch size {}", rowWidth, fetchSize);
+            throttle.setRowWidth(rowWidth);
+            // Streamed in bounded chunks instead of being read whole, see CopyPipeline
+            Set<String> lobColumns = migratedColumns.stream()
+                    .filter(col -> FetchSizeCalculator.isLob(col.getDataType()))
+                    .map(TableInfo.ColumnInfo::getName)
+                    .collect(Collectors.toSet());
+            if (!lobColumns.isEmpty()) {
+                log.info("Streaming LOB columns {} of {}", lobColumns, request.getSourceTable());
+            }
+            
+            monitor.onPhase(MigrationJob.PHASE_COPYING);
+            // Rows the target rejects are isolated and written here; the file only appears if there are any
+            DeadLetterWriter deadLetterWriter = new DeadLetterWriter(Paths.get(deadLetterDir,
+                    request.getTargetTable() + "-" + System.currentTimeMillis() + ".jsonl"));
+            AdaptiveBatchSizer batchSizer = null;
+            if (request.isAdaptiveBatchSize()) {
+                batchSizer = new AdaptiveBatchSizer(request.getBatchSize(), request.getMinBatchSize(),
+                        request.getMaxBatchSize(), rowWidth, adaptiveMaxBatchMb * 1024L * 1024L, adaptiveTargetLatencyMs);
+                log.info("Adaptive batch size for {}: starting at {}, between {} and {} rows", request.getSourceTable(),
+                        batchSizer.currentSize(), request.getMinBatchSize(), batchSizer.maxSize());
+            }
+            CopyMonitor copyMonitor = migrationMetrics.instrument(monitor, request, rowWidth);
+            CopyContext context = new CopyContext(request, columnsToMigrate,
+                    partitionColumn == null ? null : partitionColumn.getName(), fetchSize, copyMonitor, checkpoint, filterPredicate, filterParameters, upsertQuery,
+                    deadLetterWriter, batchSizer, throttle, lobColumns);
+            List<PartitionResult> partitionResults;
+            try {
+                partitionResults = copyPartitions(context, ranges, parallelism);
+            } finally {
+                try {
+                    deadLetterWriter.close();
+                } catch (IOException e) {
+                    log.warn("Failed to close dead-letter file {}: {}", deadLetterWriter.getFile(), e.getMessage());
+                }
+            }
+            
+            int totalRecords = (int) (priorWritten + priorFailed);
+            int migratedRecords = (int) priorWritten;
+            int failedRecords = (int) priorFailed;
+            List<String> failures = new ArrayList<>();
+            long sourceFetchTime = 0;
+            long readerWaitTime = 0;
+            long targetWriteTime = 0;
+            long writerWaitTime = 0;
+            for (PartitionResult partitionResult : partitionResults) {
+                totalRecords += partitionResult.getTotalRecords();
+                migratedRecords += partitionResult.getMigratedRecords();
+                failedRecords += partitionResult.getFailedRecords();
+                sourceFetchTime += partitionResult.getSourceFetchTime();
+                readerWaitTime += partitionResult.getReaderWaitTime();
+                targetWriteTime += partitionResult.getTargetWriteTime();
+                writerWaitTime += partitionResult.getWriterWaitTime();
+                if (!partitionResult.isSuccess()) {
+                    failures.add("partition " + partitionResult.getPartition() + ": " + partitionResult.getMessage());
+                }
+            }
+            
+            long indexBuildTime = 0;
+            if (deferIndexes && failures.isEmpty()) {
+                monitor.onPhase(MigrationJob.PHASE_BUILDING_INDEXES);
+                long indexStart = System.currentTimeMillis();
+                try {
+                    buildDeferredIndexes(request, sourceTableInfo, columnsToMigrate, copyMonitor);
+                } catch (SQLException | RuntimeException e) {
+                    log.error("Failed to build keys on {}: {}", request.getTargetTable(), e.getMessage(), e);
+                    failures.add("index build: " + e.getMessage());
+                }
+                indexBuildTime = System.currentTimeMillis() - indexStart;
+            } else if (deferIndexes) {
+                log.warn("Copy into {} did not complete, primary key and indexes were not built", request.getTargetTable());
+            }
+            
             long executionTime = System.currentTimeMillis() - startTime;
-            return new MigrationResult(
-                    false,
+            MigrationResult result = new MigrationResult(
+                    failures.isEmpty(),
                     totalRecords,
                     migratedRecords,
                     failedRecords,
                     executionTime,
+                    failures.isEmpty()
+                            ? "Migration completed successfully"
+                            : monitor.isCancelled()
+                                ? "Migration cancelled"
+                                : "Migration failed: " + String.join("; ", failures),
+                    null
+            );
+            result.setPartitionResults(partitionResults);
+            result.setSourceFetchTime(sourceFetchTime);
+            result.setReaderWaitTime(readerWaitTime);
+            result.setTargetWriteTime(targetWriteTime);
+            result.setWriterWaitTime(writerWaitTime);
+            result.setIndexBuildTime(indexBuildTime);
+            result.setThrottleWaitTime(throttle.getWaitMillis());
+            if (batchSizer != null) {
+                result.setBatchSizes(batchSizer.history());
+            }
+            if (deadLetterWriter.getRows() > 0) {
+                result.setDeadLetterFile(deadLetterWriter.getFile().toAbsolutePath().toString());
+                log.warn("{} rejected rows of {} written to {}", deadLetterWriter.getRows(), request.getSourceTable(),
+                        result.getDeadLetterFile());
+            }
+            // Only advance the watermark once every row up to it is in the target
+            if (incremental && newWatermark != null && failures.isEmpty() && failedRecords == 0) {
+                String watermark = CheckpointStore.encodeKey(newWatermark);
+                watermarkStore.update(request, watermark);
+                result.setWatermark(watermark);
+            }
+            if (checkpoint != null) {
+                checkpoint.setStatus(failures.isEmpty() ? MigrationCheckpoint.STATUS_COMPLETED : MigrationCheckpoint.STATUS_FAILED);
+                checkpointStore.save(checkpoint);
+                result.setCheckpointId(checkpoint.getCheckpointId());
+            }
+            return result;
+        } catch (Exception e) {
+            log.error("Migration failed: {}", e.getMessage(), e);
+            long executionTime = System.currentTimeMillis() - startTime;
+            MigrationResult result = new MigrationResult(
+                    false,
+                    0,
+                    0,
+                    0,
+                    executionTime,
                     "Migration failed: " + e.getMessage(),
                     e
             );
+            if (checkpoint != null) {
+                checkpoint.setStatus(MigrationCheckpoint.STATUS_FAILED);
+                checkpointStore.save(checkpoint);
+                result.setCheckpointId(checkpoint.getCheckpointId());
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Rebuilds the unfinished key ranges of a checkpoint, each starting after its last committed key
+     */
+    private List<KeyRange> resumeRanges(MigrationCheckpoint checkpoint, TableInfo.ColumnInfo keyColumn) {
+        List<KeyRange> ranges = new ArrayList<>();
+        for (MigrationCheckpoint.PartitionCheckpoint partition : checkpoint.getPartitions()) {
+            if (partition.isCompleted()) {
+                continue;
+            }
+            String lowerBound = partition.getLastKey() != null ? partition.getLastKey() : partition.getLowerBound();
+            ranges.add(new KeyRange(partition.getIndex(),
+                    CheckpointStore.decodeKey(lowerBound, keyColumn),
+                    CheckpointStore.decodeKey(partition.getUpperBound(), keyColumn),
+                    false));
+        }
+        return ranges;
+    }
+
+    /**
+     * Deletes the target rows past the checkpoint of each unfinished range. Batches committed
+     * after the journal was last saved, or beyond the contiguous prefix of several writers, are
+     * copied again on resume. A target key would reject them as failed rows; without one, as
+     * with a source unique index or deferred keys, they would become duplicates.
+     */
+    private void deleteUncommittedRows(MigrationRequest request, String keyColumn, List<KeyRange> ranges,
+                                       CopyMonitor monitor) throws SQLException {
+        for (KeyRange range : ranges) {
+            String predicate = range.toPredicate(keyColumn);
+            String sql = "DELETE FROM " + request.getTargetTable() + (predicate == null ? "" : " WHERE " + predicate);
+            try (Connection conn = databaseService.getConnection(request.getTargetConnection());
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                List<Object> parameters = range.getParameters();
+                for (int i = 0; i < parameters.size(); i++) {
+                    stmt.setObject(i + 1, parameters.get(i));
+                }
+                monitor.register(stmt);
+                try {
+                    int deleted = stmt.executeUpdate();
+                    if (!conn.getAutoCommit()) {
+                        conn.commit();
+                    }
+                    log.info("Deleted {} rows of {} past the checkpoint of partition {}", deleted,
+                            request.getTargetTable(), range.getIndex());
+                } finally {
+                    monitor.unregister(stmt);
+                }
+            }
         }
     }
 
+    private TableInfo.ColumnInfo findColumn(TableInfo tableInfo, String name) {
+        return tableInfo.getColumns().stream()
+                .filter(column -> column.getName().equalsIgnoreCase(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Column not found in " + tableInfo.getTableName() + ": " + name));
+    }
+
+    /**
+     * Caps the requested parallelism so that every partition can hold all of its connections
+     * at the same time
+     */
+    private int resolveParallelism(MigrationRequest request) {
+        int parallelism = Math.max(1, request.getParallelism());
+        // Each partition holds one source connection and one target connection per writer
+        int connectionsPerPartition = Math.max(1, request.getWriterThreads());
+        if (connectionPoolManager.isSamePool(request.getSourceConnection(), request.getTargetConnection())) {
+            connectionsPerPartition++;
+        }
+        int maxParallelism = Math.max(1, connectionPoolManager.getMaxPoolSize() / connectionsPerPartition);
+        if (parallelism > maxParallelism) {
+            log.warn("Requested parallelism {} exceeds the connection pool size, using {}", parallelism, maxParallelism);
+            parallelism = maxParallelism;
+        }
+        return parallelism;
+    }
+
+    /**
+     * Copies every key range, running up to {@code parallelism} ranges at the same time
+     */
+    private List<PartitionResult> copyPartitions(CopyContext context, List<KeyRange> ranges,
+                                                 int parallelism) throws InterruptedException {
+        if (ranges.isEmpty()) {
+            return List.of();
+        }
+        if (ranges.size() == 1) {
+            return List.of(copyPartition(context, ranges.get(0)));
+        }
+        
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, ranges.size()));
+        try {
+            List<Future<PartitionResult>> futures = new ArrayList<>();
+            for (KeyRange range : ranges) {
+                futures.add(executor.submit(() -> copyPartition(context, range)));
+            }
+            List<PartitionResult> results = new ArrayList<>();
+            for (Future<PartitionResult> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    throw new RuntimeException("Partition copy failed: " + e.getCause().getMessage(), e.getCause());
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Copies one key range: one reader on its own source connection feeds the writer stages,
+     * each of which holds its own target connection
+     */
+    private PartitionResult copyPartition(CopyContext context, KeyRange range) {
+        MigrationRequest request = context.getRequest();
+        List<String> columnsToMigrate = context.getColumns();
+        String partitionColumn = context.getPartitionColumn();
+        CopyMonitor monitor = context.getMonitor();
+        long startTime = System.currentTimeMillis();
+        String rangeDescription = range.isUnbounded()
+                ? "all rows"
+                : range.toPredicate(partitionColumn) + " " + range.getParameters();
+        
+        List<BatchWriter> writers = new ArrayList<>();
+        CopyPipeline pipeline = null;
+        try (Connection sourceConn = databaseService.getConnection(request.getSourceConnection())) {
+            
+            // Create the query for selecting data from source
+            // Checkpoints record the last committed key, so rows must arrive in key order
+            MigrationCheckpoint checkpoint = context.getCheckpoint();
+            String selectQuery = buildSelectQuery(request.getSourceTable(), columnsToMigrate, request.getWhereClause(),
+                    Arrays.asList(context.getFilterPredicate(), range.toPredicate(partitionColumn)),
+                    checkpoint != null ? partitionColumn : null);
+            
+            // Create the prepared statement for inserting into target
+            String insertQuery = context.getUpsertQuery() != null
+                    ? context.getUpsertQuery()
+                    : buildInsertQuery(request.getTargetTable(), columnsToMigrate);
+            String writeMode = context.getUpsertQuery() != null ? BatchWriters.MODE_INSERT : request.getWriteMode();
+            for (int i = 0; i < Math.max(1, request.getWriterThreads()); i++) {
+                writers.add(BatchWriters.create(writeMode, request.getTargetConnection().getDbType(),
+                        databaseService.getConnection(request.getTargetConnection()), request.getTargetTable(),
+                        columnsToMigrate, insertQuery, monitor));
+            }
+            
+            try (PreparedStatement sourceStmt = FetchSizeCalculator.prepareStreaming(sourceConn,
+                    request.getSourceConnection().getDbType(), selectQuery, context.getFetchSize())) {
+                List<Object> parameters = new ArrayList<>(context.getFilterParameters());
+                parameters.addAll(range.getParameters());
+                for (int i = 0; i < parameters.size(); i++) {
+                    sourceStmt.setObject(i + 1, parameters.get(i));
+                }
+                
+                monitor.register(sourceStmt);
+                try (ResultSet rs = sourceStmt.executeQuery()) {
+                    pipeline = new CopyPipeline(request.getBatchSize(), request.getQueueCapacity(),
+                            writers, monitor, request.getSourceConnection().getDbType());
+                    pipeline.setDeadLetterWriter(context.getDeadLetterWriter());
+                    pipeline.setBatchSizer(context.getBatchSizer());
+                    pipeline.setThrottle(context.getThrottle());
+                    pipeline.setLobColumns(context.getLobColumns());
+                    pipeline.setLobLimits(lobInlineKb * 1024, lobMaxBatchMb * 1024L * 1024L);
+                    MigrationCheckpoint.PartitionCheckpoint partitionCheckpoint = checkpoint == null ? null
+                            : checkpoint.getPartitions().stream()
+                                .filter(partition -> partition.getIndex() == range.getIndex())
+                                .findFirst()
+                                .orElseThrow(() -> new IllegalStateException("No checkpoint for partition " + range.getIndex()));
+                    if (partitionCheckpoint != null) {
+                        pipeline.setCheckpointTracker(new CheckpointTracker(columnsToMigrate.indexOf(partitionColumn),
+                                (lastKey, written, failed) -> {
+                                    synchronized (checkpoint) {
+                                        partitionCheckpoint.setLastKey(CheckpointStore.encodeKey(lastKey));
+                                        partitionCheckpoint.setRowsWritten(partitionCheckpoint.getRowsWritten() + written);
+                                        partitionCheckpoint.setRowsFailed(partitionCheckpoint.getRowsFailed() + failed);
+                                    }
+                                    checkpointStore.save(checkpoint);
+                                }));
+                    }
+                    PipelineStats stats = pipeline.run(rs);
+                    if (partitionCheckpoint != null) {
+                        synchronized (checkpoint) {
+                            partitionCheckpoint.setCompleted(true);
+                        }
+                        checkpointStore.save(checkpoint);
+                    }
+                    
+                    PartitionResult result = partitionResult(range, rangeDescription, true, stats, startTime,
+                            "Partition completed successfully");
+                    log.info("Partition {} copied {} rows (fetch {} ms, reader wait {} ms, write {} ms, writer wait {} ms)",
+                            range.getIndex(), stats.getRowsWritten(), result.getSourceFetchTime(),
+                            result.getReaderWaitTime(), result.getTargetWriteTime(), result.getWriterWaitTime());
+                    return result;
+                } finally {
+                    monitor.unregister(sourceStmt);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Partition {} failed: {}", range.getIndex(), e.getMessage(), e);
+            // Batches committed before the failure stay in the target and are counted
+            PipelineStats stats = pipeline != null ? pipeline.getStats() : new PipelineStats();
+            return partitionResult(range, rangeDescription, false, stats, startTime, e.getMessage());
+        } finally {
+            for (BatchWriter writer : writers) {
+                try {
+                    writer.close();
+                } catch (SQLException e) {
+                    log.warn("Failed to close target writer: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static PartitionResult partitionResult(KeyRange range, String rangeDescription, boolean success,
+                                                   PipelineStats stats, long startTime, String message) {
+        PartitionResult result = new PartitionResult(range.getIndex(), rangeDescription, success,
+                (int) stats.getRowsRead(), (int) stats.getRowsWritten(), (int) stats.getRowsFailed(),
+                System.currentTimeMillis() - startTime, message);
+        result.setSourceFetchTime(TimeUnit.NANOSECONDS.toMillis(stats.getFetchNanos()));
+        result.setReaderWaitTime(TimeUnit.NANOSECONDS.toMillis(stats.getReaderWaitNanos()));
+        result.setTargetWriteTime(TimeUnit.NANOSECONDS.toMillis(stats.getWriteNanos()));
+        result.setWriterWaitTime(TimeUnit.NANOSECONDS.toMillis(stats.getWriterWaitNanos()));
+        return result;
+    }
+
     /**
      * Creates a target table based on the source table structure
+     *
+     * @param withPrimaryKey false to create a bare table whose key is built after the load
      */    private void createTargetTable(DatabaseConnection targetConnection, String targetTable, 
-                                   TableInfo sourceTableInfo, List<String> columnsToMigrate) throws SQLException {
+                                   TableInfo sourceTableInfo, List<String> columnsToMigrate,
+                                   String sourceDbType, boolean withPrimaryKey) throws SQLException {
         // Filter columns to include only the selected ones
         List<TableInfo.ColumnInfo> filteredColumns = sourceTableInfo.getColumns().stream()
                 .filter(col -> columnsToMigrate.contains(col.getName()))
@@ -146,8 +632,7 @@ public class MigrationService {
             TableInfo.ColumnInfo column = filteredColumns.get(i);
             
             createTableSql.append(column.getName()).append(" ").append(
-                mapDataType(column.getDataType(), targetConnection.getDbType(), 
-                    request.getSourceConnection().getDbType())
+                mapDataType(column.getDataType(), targetConnection.getDbType(), sourceDbType)
             );
             
             if (!column.isNullable()) {
@@ -165,7 +650,7 @@ public class MigrationService {
                 .map(TableInfo.ColumnInfo::getName)
                 .collect(Collectors.toList());
         
-        if (!primaryKeyColumns.isEmpty()) {
+        if (withPrimaryKey && !primaryKeyColumns.isEmpty()) {
             createTableSql.append(", PRIMARY KEY (")
                     .append(String.join(", ", primaryKeyColumns))
                     .append(")");
@@ -187,8 +672,101 @@ public class MigrationService {
         } catch (SQLException e) {
             log.error("Failed to create target table: {}", e.getMessage(), e);
             throw e;
+        } finally {
+            // Even a failed CREATE may have left a table behind
+            metadataCache.invalidate(targetConnection, targetTable);
         }
     }    /**
+     * Adds the source's primary key and secondary indexes to a target table loaded without them.
+     * The primary key goes first (SQL Server clusters on it); the other indexes are then built
+     * at the same time on separate connections, or in one ALTER TABLE on MySQL.
+     */
+    private void buildDeferredIndexes(MigrationRequest request, TableInfo sourceTableInfo, List<String> columnsToMigrate,
+                                      CopyMonitor monitor) throws SQLException {
+        DatabaseConnection target = request.getTargetConnection();
+        String targetTable = request.getTargetTable();
+        List<String> primaryKey = sourceTableInfo.getColumns().stream()
+                .filter(TableInfo.ColumnInfo::isPrimaryKey)
+                .map(TableInfo.ColumnInfo::getName)
+                .filter(columnsToMigrate::contains)
+                .collect(Collectors.toList());
+
+        // Indexes on columns that are not migrated, and the index behind the primary key, are left out
+        List<TableInfo.IndexInfo> indexes = new ArrayList<>();
+        for (TableInfo.IndexInfo index : databaseService.getIndexes(request.getSourceConnection(), request.getSourceTable())) {
+            if (!columnsToMigrate.containsAll(index.getColumns())
+                    || (index.isUnique() && index.getColumns().equals(primaryKey))) {
+                continue;
+            }
+            indexes.add(new TableInfo.IndexInfo(
+                    DatabaseDialectConverter.buildIndexName(targetTable, index.getName(), indexes.size()),
+                    index.isUnique(), index.getColumns()));
+        }
+        log.info("Building primary key {} and {} indexes on {}", primaryKey, indexes.size(), targetTable);
+
+        try {
+            if (!DatabaseDialectConverter.supportsParallelIndexBuilds(target.getDbType())) {
+                if (!primaryKey.isEmpty() || !indexes.isEmpty()) {
+                    executeDdl(target, targetTable, "ALTER TABLE",
+                            DatabaseDialectConverter.buildMySqlAddKeys(targetTable, primaryKey, indexes), monitor);
+                }
+                return;
+            }
+            if (!primaryKey.isEmpty()) {
+                executeDdl(target, targetTable, "ADD PRIMARY KEY",
+                        DatabaseDialectConverter.buildAddPrimaryKey(target.getDbType(), targetTable, primaryKey), monitor);
+            }
+            if (indexes.isEmpty()) {
+                return;
+            }
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(indexes.size(), Math.max(1, indexBuildParallelism)));
+            try {
+                List<Future<?>> builds = new ArrayList<>();
+                for (TableInfo.IndexInfo index : indexes) {
+                    String sql = DatabaseDialectConverter.buildCreateIndex(target.getDbType(), targetTable, index);
+                    builds.add(executor.submit(() -> {
+                        executeDdl(target, targetTable, "CREATE INDEX", sql, monitor);
+                        return null;
+                    }));
+                }
+                for (Future<?> build : builds) {
+                    try {
+                        build.get();
+                    } catch (ExecutionException e) {
+                        Throwable cause = e.getCause();
+                        throw cause instanceof SQLException ? (SQLException) cause
+                                : new SQLException("Index build failed: " + cause.getMessage(), cause);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while building indexes", e);
+                    }
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        } finally {
+            metadataCache.invalidate(target, targetTable);
+        }
+    }
+
+    private void executeDdl(DatabaseConnection target, String table, String operation, String sql,
+                            CopyMonitor monitor) throws SQLException {
+        try (Connection conn = databaseService.getConnection(target);
+             Statement stmt = conn.createStatement()) {
+            log.info("Running on {}: {}", table, sql);
+            monitor.register(stmt);
+            monitor.onOperationStart(CopyMonitor.Operation.DDL);
+            long start = System.nanoTime();
+            try {
+                stmt.executeUpdate(sql);
+            } finally {
+                monitor.unregister(stmt);
+            }
+            monitor.onDdl(table, operation, System.nanoTime() - start);
+        }
+    }
+
+    /**
      * Maps a data type from the source database to the target database
      */
     private String mapDataType(String sourceDataType, String targetDbType, String sourceDbType) {
@@ -217,15 +795,28 @@ public class MigrationService {
 
     /**
      * Builds the SELECT query for the source table
+     *
+     * @param predicates additional conditions ANDed with the WHERE clause; null entries are skipped
      */
-    private String buildSelectQuery(String sourceTable, List<String> columns, String whereClause) {
+    public static String buildSelectQuery(String sourceTable, List<String> columns, String whereClause, List<String> predicates,
+                                          String orderBy) {
         StringBuilder query = new StringBuilder();
         query.append("SELECT ");
         query.append(String.join(", ", columns));
         query.append(" FROM ").append(sourceTable);
         
-        if (whereClause != null && !whereClause.trim().isEmpty()) {
-            query.append(" WHERE ").append(whereClause);
+        List<String> conditions = new ArrayList<>();
+        boolean hasWhere = whereClause != null && !whereClause.trim().isEmpty();
+        if (hasWhere) {
+            conditions.add(predicates.stream().anyMatch(Objects::nonNull) ? "(" + whereClause + ")" : whereClause);
+        }
+        predicates.stream().filter(Objects::nonNull).forEach(conditions::add);
+        if (!conditions.isEmpty()) {
+            query.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        
+        if (orderBy != null) {
+            query.append(" ORDER BY ").append(orderBy);
         }
         
         return query.toString();
@@ -234,7 +825,7 @@ public class MigrationService {
     /**
      * Builds the INSERT query for the target table
      */
-    private String buildInsertQuery(String targetTable, List<String> columns) {
+    public static String buildInsertQuery(String targetTable, List<String> columns) {
         StringBuilder query = new StringBuilder();
         query.append("INSERT INTO ").append(targetTable).append(" (");
         query.append(String.join(", ", columns));
@@ -252,24 +843,71 @@ public class MigrationService {
     }
 
     /**
-     * Counts the number of records in a table
+     * Reads the largest value of a column, or null when it has no values
      */
-    public int countRecords(DatabaseConnection connection, String table, String whereClause) {
-        String countQuery = "SELECT COUNT(*) FROM " + table;
+    private Object readMaxValue(DatabaseConnection connection, String table, String column, String whereClause) {
+        String query = "SELECT MAX(" + column + ") FROM " + table;
         if (whereClause != null && !whereClause.trim().isEmpty()) {
-            countQuery += " WHERE " + whereClause;
+            query += " WHERE " + whereClause;
         }
         
         try (Connection conn = databaseService.getConnection(connection);
              Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(countQuery)) {
-            if (rs.next()) {
-                return rs.getInt(1);
-            }
-            return 0;
+             ResultSet rs = stmt.executeQuery(query)) {
+            return rs.next() ? rs.getObject(1) : null;
         } catch (SQLException e) {
-            log.error("Failed to count records: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to count records: " + e.getMessage(), e);
+            log.error("Failed to read watermark: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to read watermark: " + e.getMessage(), e);
         }
     }
+
+    /**
+     * Whether the column alone is the primary key or a unique index of the source table
+     */
+    private boolean isUniqueKey(MigrationRequest request, TableInfo tableInfo, TableInfo.ColumnInfo column) {
+        List<String> primaryKey = tableInfo.getPrimaryKey();
+        if (primaryKey.size() == 1 && primaryKey.get(0).equalsIgnoreCase(column.getName())) {
+            return true;
+        }
+        return databaseService.getIndexes(request.getSourceConnection(), request.getSourceTable()).stream()
+                .anyMatch(index -> index.isUnique() && index.getColumns().size() == 1
+                        && index.getColumns().get(0).equalsIgnoreCase(column.getName()));
+    }
+
+    /**
+     * Counts the number of records in a table with COUNT(*)
+     */
+    public long countRecords(DatabaseConnection connection, String table, String whereClause) {
+        return rowCountService.countExact(connection, table, whereClause);
+    }
+
+    /**
+     * Reads the number of records in a table from catalog statistics, -1 when there are none
+     */
+    public long estimateRecords(DatabaseConnection connection, String table) {
+        return rowCountService.estimate(connection, table);
+    }
+
+    /**
+     * Settings shared by every partition of one migration
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class CopyContext {
+        private final MigrationRequest request;
+        private final List<String> columns;
+        private final String partitionColumn;
+        private final int fetchSize;
+        private final CopyMonitor monitor;
+        private final MigrationCheckpoint checkpoint;
+        // Parameterized incremental-sync condition and its values, bound before the range parameters
+        private final String filterPredicate;
+        private final List<Object> filterParameters;
+        private final String upsertQuery;
+        private final DeadLetterWriter deadLetterWriter;
+        // Shared so the size converges per table rather than per partition
+        private final AdaptiveBatchSizer batchSizer;
+        private final Throttle throttle;
+        private final Set<String> lobColumns;
+    }
 }
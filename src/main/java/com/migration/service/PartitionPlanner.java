@@ -0,0 +1,268 @@
+package main.java.com.migration.service;
+
+import com.migration.model.DatabaseConnection;
+import com.migration.model.KeyRange;
+import com.migration.model.TableInfo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits a table into contiguous key ranges so that each range can be copied independently
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PartitionPlanner {
+
+    public static final String STRATEGY_MINMAX = "MINMAX";
+    public static final String STRATEGY_QUANTILE = "QUANTILE";
+
+    // Matched against whole type names; substrings such as "int" also occur in interval and point
+    private static final Set<String> INTEGRAL_TYPES = Set.of("int", "integer", "tinyint", "smallint", "mediumint",
+            "bigint", "int2", "int4", "int8", "serial", "smallserial", "bigserial", "serial2", "serial4", "serial8");
+    private static final Set<String> DECIMAL_TYPES = Set.of("number", "numeric", "decimal", "dec", "smalldecimal",
+            "float", "float4", "float8", "double", "real", "binary_float", "binary_double");
+    // Keys are read and decoded as timestamps, which TIME values are not
+    private static final Set<String> TEMPORAL_TYPES = Set.of("date", "timestamp", "timestamptz", "datetime",
+            "datetime2", "smalldatetime", "datetimeoffset", "seconddate");
+
+    // Sampled rows per partition when quantile boundaries are computed over a sample
+    private static final int SAMPLE_ROWS_PER_PARTITION = 1000;
+
+    private final DatabaseService databaseService;
+
+    /**
+     * Picks the column to partition on: the requested column, otherwise a single-column primary key
+     *
+     * @return the column, or null if the table cannot be partitioned
+     */
+    public TableInfo.ColumnInfo resolvePartitionColumn(TableInfo tableInfo, String requestedColumn) {
+        if (requestedColumn != null && !requestedColumn.trim().isEmpty()) {
+            return tableInfo.getColumns().stream()
+                    .filter(col -> col.getName().equalsIgnoreCase(requestedColumn.trim()))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException(
+                            "Partition column not found in " + tableInfo.getTableName() + ": " + requestedColumn));
+        }
+        List<TableInfo.ColumnInfo> primaryKeys = tableInfo.getColumns().stream()
+                .filter(TableInfo.ColumnInfo::isPrimaryKey)
+                .toList();
+        return primaryKeys.size() == 1 ? primaryKeys.get(0) : null;
+    }
+
+    /**
+     * Splits the key column into at most {@code partitionCount} ranges. MINMAX divides the
+     * [MIN, MAX] interval evenly and is used for numeric and date keys; QUANTILE uses NTILE
+     * boundaries so that skewed or non-numeric keys still give balanced partitions. The NTILE
+     * boundaries of a large table are computed over a sample of it rather than a full sort.
+     *
+     * @param estimatedRows rows in the table from statistics, -1 when unknown; sizes the sample
+     */
+    public List<KeyRange> planRanges(DatabaseConnection connection, String table, TableInfo.ColumnInfo column,
+                                     String whereClause, int partitionCount, String strategy, long estimatedRows) {
+        if (partitionCount <= 1) {
+            return List.of(KeyRange.unbounded());
+        }
+
+        boolean temporal = isTemporal(column.getDataType());
+        boolean numeric = isNumeric(column.getDataType());
+        boolean quantile = STRATEGY_QUANTILE.equalsIgnoreCase(strategy) || (!temporal && !numeric);
+
+        try (Connection conn = databaseService.getConnection(connection)) {
+            List<Object> boundaries = quantile
+                    ? quantileBoundaries(conn, connection.getDbType(), table, column.getName(), whereClause,
+                            partitionCount, estimatedRows)
+                    : minMaxBoundaries(conn, table, column, whereClause, partitionCount, temporal);
+            List<KeyRange> ranges = toRanges(boundaries);
+            log.info("Planned {} partitions on {}.{} using {} strategy", ranges.size(), table, column.getName(),
+                    quantile ? STRATEGY_QUANTILE : STRATEGY_MINMAX);
+            return ranges;
+        } catch (SQLException e) {
+            log.error("Failed to plan partitions: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to plan partitions: " + e.getMessage(), e);
+        }
+    }
+
+    private List<Object> minMaxBoundaries(Connection conn, String table, TableInfo.ColumnInfo column,
+                                          String whereClause, int partitionCount, boolean temporal) throws SQLException {
+        String sql = "SELECT MIN(" + column.getName() + "), MAX(" + column.getName() + ") FROM " + table
+                + where(whereClause, null);
+        List<Object> boundaries = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            if (!rs.next()) {
+                return boundaries;
+            }
+            if (temporal) {
+                Timestamp min = rs.getTimestamp(1);
+                Timestamp max = rs.getTimestamp(2);
+                if (min == null || max == null) {
+                    return boundaries;
+                }
+                long step = (max.getTime() - min.getTime()) / partitionCount;
+                for (int i = 1; i < partitionCount && step > 0; i++) {
+                    boundaries.add(new Timestamp(min.getTime() + step * i));
+                }
+            } else {
+                BigDecimal min = rs.getBigDecimal(1);
+                BigDecimal max = rs.getBigDecimal(2);
+                if (min == null || max == null) {
+                    return boundaries;
+                }
+                boolean integral = isIntegral(column.getDataType());
+                BigDecimal step = max.subtract(min).divide(BigDecimal.valueOf(partitionCount), 10, RoundingMode.FLOOR);
+                for (int i = 1; i < partitionCount && step.signum() > 0; i++) {
+                    BigDecimal boundary = min.add(step.multiply(BigDecimal.valueOf(i)));
+                    boundaries.add(integral ? (Object) boundary.setScale(0, RoundingMode.FLOOR).longValue() : boundary);
+                }
+            }
+        }
+        return boundaries;
+    }
+
+    private List<Object> quantileBoundaries(Connection conn, String dbType, String table, String column,
+                                            String whereClause, int partitionCount, long estimatedRows) throws SQLException {
+        long sampleRows = (long) partitionCount * SAMPLE_ROWS_PER_PARTITION;
+        if (estimatedRows > sampleRows) {
+            BigDecimal percent = BigDecimal.valueOf(sampleRows * 100.0 / estimatedRows).setScale(6, RoundingMode.UP);
+            String sampleSql = sampledQuantileQuery(dbType, table, column, whereClause, partitionCount, percent);
+            if (sampleSql != null) {
+                try {
+                    List<Object> boundaries = quantileBoundaries(conn, sampleSql);
+                    log.debug("Computed quantile boundaries of {} over a {}% sample", table, percent.toPlainString());
+                    return boundaries;
+                } catch (SQLException e) {
+                    // Sampling is not available on every kind of table, e.g. HANA row tables
+                    log.warn("Sampling {} failed, computing quantile boundaries over the whole table: {}", table,
+                            e.getMessage());
+                }
+            }
+        }
+        return quantileBoundaries(conn, quantileQuery(table, column, whereClause, partitionCount, null));
+    }
+
+    private static List<Object> quantileBoundaries(Connection conn, String sql) throws SQLException {
+        List<Object> boundaries = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                boundaries.add(rs.getObject(1));
+            }
+        }
+        // The last bucket maximum is the upper end of the key space, not a boundary
+        if (!boundaries.isEmpty()) {
+            boundaries.remove(boundaries.size() - 1);
+        }
+        return boundaries;
+    }
+
+    /**
+     * The NTILE query over a sample of the table in the dialect's sampling syntax. Block sampling
+     * reads only the sampled pages; MySQL has none and filters on RAND(), which still scans but
+     * sorts only the sample.
+     *
+     * @return the query, or null for dialects without a way to sample
+     */
+    private static String sampledQuantileQuery(String dbType, String table, String column, String whereClause,
+                                               int partitionCount, BigDecimal percent) {
+        String pct = percent.toPlainString();
+        switch (dbType == null ? "" : dbType.toLowerCase()) {
+            case "postgresql":
+            case "hana":
+                return quantileQuery(table + " TABLESAMPLE SYSTEM (" + pct + ")", column, whereClause, partitionCount, null);
+            case "sqlserver":
+                return quantileQuery(table + " TABLESAMPLE (" + pct + " PERCENT)", column, whereClause, partitionCount, null);
+            case "oracle":
+                return quantileQuery(table + " SAMPLE (" + pct + ")", column, whereClause, partitionCount, null);
+            case "mysql":
+                return quantileQuery(table, column, whereClause, partitionCount,
+                        "RAND() < " + percent.movePointLeft(2).toPlainString());
+            default:
+                return null;
+        }
+    }
+
+    private static String quantileQuery(String from, String column, String whereClause, int partitionCount,
+                                        String sampleCondition) {
+        String condition = column + " IS NOT NULL" + (sampleCondition == null ? "" : " AND " + sampleCondition);
+        return "SELECT MAX(" + column + ") FROM (SELECT " + column + ", NTILE(" + partitionCount
+                + ") OVER (ORDER BY " + column + ") AS bucket FROM " + from
+                + where(whereClause, condition) + ") q GROUP BY bucket ORDER BY bucket";
+    }
+
+    /**
+     * Turns sorted boundaries b1..bn into ranges (-inf, b1], (b1, b2], ..., (bn, +inf).
+     * The first range also picks up NULL keys so no row is lost.
+     */
+    private List<KeyRange> toRanges(List<Object> boundaries) {
+        List<Object> distinct = new ArrayList<>();
+        for (Object boundary : boundaries) {
+            if (boundary != null && (distinct.isEmpty() || !distinct.get(distinct.size() - 1).equals(boundary))) {
+                distinct.add(boundary);
+            }
+        }
+        if (distinct.isEmpty()) {
+            return List.of(KeyRange.unbounded());
+        }
+
+        List<KeyRange> ranges = new ArrayList<>();
+        Object lower = null;
+        for (Object boundary : distinct) {
+            ranges.add(new KeyRange(ranges.size(), lower, boundary, lower == null));
+            lower = boundary;
+        }
+        ranges.add(new KeyRange(ranges.size(), lower, null, false));
+        return ranges;
+    }
+
+    private static String where(String whereClause, String extraCondition) {
+        boolean hasWhere = whereClause != null && !whereClause.trim().isEmpty();
+        if (!hasWhere && extraCondition == null) {
+            return "";
+        }
+        if (!hasWhere) {
+            return " WHERE " + extraCondition;
+        }
+        if (extraCondition == null) {
+            return " WHERE " + whereClause;
+        }
+        return " WHERE (" + whereClause + ") AND " + extraCondition;
+    }
+
+    static boolean isTemporal(String dataType) {
+        return TEMPORAL_TYPES.contains(typeName(dataType));
+    }
+
+    static boolean isNumeric(String dataType) {
+        String type = typeName(dataType);
+        return INTEGRAL_TYPES.contains(type) || DECIMAL_TYPES.contains(type);
+    }
+
+    static boolean isIntegral(String dataType) {
+        return INTEGRAL_TYPES.contains(typeName(dataType));
+    }
+
+    /**
+     * The base name of a type as the drivers and catalogs report it, without length, precision or
+     * modifiers: {@code NUMBER(10,0)}, {@code bigint unsigned} and {@code timestamp with time zone}
+     * become {@code number}, {@code bigint} and {@code timestamp}
+     */
+    private static String typeName(String dataType) {
+        String type = dataType == null ? "" : dataType.trim().toLowerCase();
+        for (int i = 0; i < type.length(); i++) {
+            char c = type.charAt(i);
+            if (c == '(' || Character.isWhitespace(c)) {
+                return type.substring(0, i);
+            }
+        }
+        return type;
+    }
+}
@@ -0,0 +1,266 @@
+package main.java.com.migration.service;
+
+import com.migration.model.DatabaseConnection;
+import com.migration.model.KeyRange;
+import com.migration.model.TableInfo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Counts the rows of a table. Estimates come from the optimizer statistics of the dialect and
+ * cost one catalog lookup, for a single table or a whole schema; exact counts scan the table, split into key ranges counted at the
+ * same time when a WHERE clause has to be evaluated row by row.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RowCountService {
+
+    private final DatabaseService databaseService;
+    private final PartitionPlanner partitionPlanner;
+    private final ConnectionPoolManager connectionPoolManager;
+
+    @Value("${migration.count.parallelism:4}")
+    private int countParallelism;
+
+    /**
+     * Reads the row count of a table from catalog statistics
+     *
+     * @return the estimate, or -1 when the table has no statistics or they cannot be read
+     */
+    public long estimate(DatabaseConnection connection, String table) {
+        int dot = table.lastIndexOf('.');
+        String schema = dot > 0 ? table.substring(0, dot) : null;
+        String name = table.substring(dot + 1);
+        List<String> parameters = new ArrayList<>();
+        String sql = estimateQuery(connection.getDbType(), schema, table, parameters);
+        if (sql == null) {
+            return estimateFromIndexes(connection, List.of(table)).get(table);
+        }
+        // Oracle and HANA may match both the name as given and its upper-case form
+        Map<String, Long> estimates = queryEstimates(connection, sql, parameters);
+        return estimates.containsKey(name) ? estimates.get(name)
+                : estimates.values().stream().findFirst().orElse(-1L);
+    }
+
+    /**
+     * Reads the row counts of every table in a schema from catalog statistics with one query.
+     * A null schema means the connection's current schema.
+     *
+     * @return estimates keyed by table name, -1 for tables without statistics; empty when the
+     * statistics cannot be read
+     */
+    public Map<String, Long> estimateSchema(DatabaseConnection connection, String schema) {
+        List<String> parameters = new ArrayList<>();
+        String sql = estimateQuery(connection.getDbType(), schema, null, parameters);
+        if (sql == null) {
+            return estimateFromIndexes(connection, databaseService.getAllTables(connection));
+        }
+        return queryEstimates(connection, sql, parameters);
+    }
+
+    /**
+     * The statistics query of a dialect, returning TABLE_NAME and ROW_COUNT, for one table when
+     * {@code table} is set and for the whole schema otherwise
+     *
+     * @return the query, or null for dialects without one
+     */
+    private static String estimateQuery(String dbType, String schema, String table, List<String> parameters) {
+        String name = table == null ? null : table.substring(table.lastIndexOf('.') + 1);
+        switch (dbType == null ? "" : dbType.toLowerCase()) {
+            case "postgresql":
+                // reltuples is -1 until the first ANALYZE; a partitioned parent has none of its own
+                parameters.add(table != null ? table : schema);
+                return "SELECT c.relname AS TABLE_NAME, CAST(CASE WHEN c.relkind = 'p' THEN "
+                        + "(SELECT SUM(p.reltuples) FROM pg_inherits i JOIN pg_class p ON p.oid = i.inhrelid "
+                        + "WHERE i.inhparent = c.oid AND p.reltuples >= 0) ELSE c.reltuples END AS BIGINT) AS ROW_COUNT "
+                        + "FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace WHERE c.relkind IN ('r', 'p') AND "
+                        + (table != null ? "c.oid = to_regclass(?)" : "n.nspname = COALESCE(?, current_schema())");
+            case "mysql":
+                parameters.add(schema);
+                if (table != null) {
+                    parameters.add(name);
+                }
+                return "SELECT TABLE_NAME, TABLE_ROWS AS ROW_COUNT FROM information_schema.TABLES "
+                        + "WHERE TABLE_TYPE = 'BASE TABLE' AND TABLE_SCHEMA = COALESCE(?, DATABASE())"
+                        + (table != null ? " AND TABLE_NAME = ?" : "");
+            case "sqlserver":
+                parameters.add(table != null ? table : schema);
+                return "SELECT t.name AS TABLE_NAME, SUM(p.rows) AS ROW_COUNT FROM sys.tables t "
+                        + "JOIN sys.schemas s ON s.schema_id = t.schema_id "
+                        + "JOIN sys.partitions p ON p.object_id = t.object_id AND p.index_id IN (0, 1) WHERE "
+                        + (table != null ? "t.object_id = OBJECT_ID(?)" : "s.name = COALESCE(?, SCHEMA_NAME())")
+                        + " GROUP BY t.name";
+            case "oracle":
+                // Unquoted names are stored in upper case
+                parameters.add(schema);
+                if (table == null) {
+                    return "SELECT TABLE_NAME, NUM_ROWS AS ROW_COUNT FROM ALL_TABLES "
+                            + "WHERE OWNER = COALESCE(?, SYS_CONTEXT('USERENV', 'CURRENT_SCHEMA'))";
+                }
+                parameters.add(name);
+                parameters.add(name);
+                return "SELECT TABLE_NAME, NUM_ROWS AS ROW_COUNT FROM ALL_TABLES "
+                        + "WHERE OWNER = COALESCE(UPPER(?), SYS_CONTEXT('USERENV', 'CURRENT_SCHEMA')) "
+                        + "AND TABLE_NAME IN (?, UPPER(?))";
+            case "hana":
+                parameters.add(schema);
+                if (table == null) {
+                    return "SELECT TABLE_NAME, RECORD_COUNT AS ROW_COUNT FROM SYS.M_TABLES "
+                            + "WHERE SCHEMA_NAME = COALESCE(?, CURRENT_SCHEMA)";
+                }
+                parameters.add(name);
+                parameters.add(name);
+                return "SELECT TABLE_NAME, RECORD_COUNT AS ROW_COUNT FROM SYS.M_TABLES "
+                        + "WHERE SCHEMA_NAME = COALESCE(UPPER(?), CURRENT_SCHEMA) AND TABLE_NAME IN (?, UPPER(?))";
+            default:
+                return null;
+        }
+    }
+
+    private Map<String, Long> queryEstimates(DatabaseConnection connection, String sql, List<String> parameters) {
+        Map<String, Long> estimates = new LinkedHashMap<>();
+        try (Connection conn = databaseService.getConnection(connection);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < parameters.size(); i++) {
+                stmt.setString(i + 1, parameters.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    long rows = rs.getLong("ROW_COUNT");
+                    estimates.put(rs.getString("TABLE_NAME"), rs.wasNull() || rows < 0 ? -1 : rows);
+                }
+            }
+        } catch (SQLException e) {
+            // Statistics views often need extra privileges; estimates are optional
+            log.warn("Row statistics are not available: {}", e.getMessage());
+        }
+        return estimates;
+    }
+
+    /**
+     * Fallback for other databases: the optimizer statistics the driver reports through
+     * {@code getIndexInfo(approximate = true)}, one metadata call per table
+     */
+    private Map<String, Long> estimateFromIndexes(DatabaseConnection connection, Collection<String> tables) {
+        Map<String, Long> estimates = new LinkedHashMap<>();
+        try (Connection conn = databaseService.getConnection(connection)) {
+            DatabaseMetaData metaData = conn.getMetaData();
+            for (String table : tables) {
+                long tableStatistic = -1;
+                long largestIndex = 0;
+                try (ResultSet rs = metaData.getIndexInfo(connection.getDatabaseName(), null, table, false, true)) {
+                    while (rs.next()) {
+                        long cardinality = rs.getLong("CARDINALITY");
+                        if (rs.getShort("TYPE") == DatabaseMetaData.tableIndexStatistic) {
+                            tableStatistic = cardinality;
+                        } else {
+                            largestIndex = Math.max(largestIndex, cardinality);
+                        }
+                    }
+                } catch (SQLException e) {
+                    log.debug("No statistics for {}: {}", table, e.getMessage());
+                }
+                estimates.put(table, tableStatistic >= 0 ? tableStatistic : largestIndex > 0 ? largestIndex : -1);
+            }
+        } catch (SQLException e) {
+            log.warn("Row statistics are not available: {}", e.getMessage());
+            tables.forEach(table -> estimates.putIfAbsent(table, -1L));
+        }
+        return estimates;
+    }
+
+    /**
+     * Counts the rows matching the WHERE clause with COUNT(*). With a WHERE clause and a numeric
+     * or temporal single-column key the table is split into key ranges counted in parallel, each
+     * on its own connection; without one the database can usually answer from its smallest index.
+     */
+    public long countExact(DatabaseConnection connection, String table, String whereClause) {
+        boolean filtered = whereClause != null && !whereClause.trim().isEmpty();
+        int parallelism = Math.min(countParallelism, connectionPoolManager.getMaxPoolSize());
+        List<KeyRange> ranges = List.of(KeyRange.unbounded());
+        String keyColumn = null;
+        if (filtered && parallelism > 1) {
+            TableInfo tableInfo = databaseService.getTableInfo(connection, table);
+            TableInfo.ColumnInfo column = partitionPlanner.resolvePartitionColumn(tableInfo, null);
+            // Quantile boundaries would cost a sorted scan of their own, and so would MIN/MAX under the
+            // filter; the unfiltered MIN/MAX of a key is read from the ends of its index
+            if (column != null && (PartitionPlanner.isNumeric(column.getDataType())
+                    || PartitionPlanner.isTemporal(column.getDataType()))) {
+                keyColumn = column.getName();
+                ranges = partitionPlanner.planRanges(connection, table, column, null, parallelism,
+                        PartitionPlanner.STRATEGY_MINMAX, -1);
+            }
+        }
+        if (ranges.size() == 1) {
+            return count(connection, table, whereClause, keyColumn, ranges.get(0));
+        }
+
+        String rangeColumn = keyColumn;
+        ExecutorService executor = Executors.newFixedThreadPool(ranges.size());
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (KeyRange range : ranges) {
+                futures.add(executor.submit(() -> count(connection, table, whereClause, rangeColumn, range)));
+            }
+            long total = 0;
+            for (Future<Long> future : futures) {
+                try {
+                    total += future.get();
+                } catch (ExecutionException e) {
+                    throw new RuntimeException("Failed to count records: " + e.getCause().getMessage(), e.getCause());
+                }
+            }
+            log.info("Counted {} rows of {} in {} key ranges", total, table, ranges.size());
+            return total;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while counting records", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long count(DatabaseConnection connection, String table, String whereClause, String keyColumn,
+                       KeyRange range) {
+        List<String> conditions = new ArrayList<>();
+        if (whereClause != null && !whereClause.trim().isEmpty()) {
+            conditions.add("(" + whereClause + ")");
+        }
+        String predicate = keyColumn == null ? null : range.toPredicate(keyColumn);
+        if (predicate != null) {
+            conditions.add(predicate);
+        }
+        String countQuery = "SELECT COUNT(*) FROM " + table
+                + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions));
+
+        try (Connection conn = databaseService.getConnection(connection);
+             PreparedStatement stmt = conn.prepareStatement(countQuery)) {
+            if (predicate != null) {
+                List<Object> parameters = range.getParameters();
+                for (int i = 0; i < parameters.size(); i++) {
+                    stmt.setObject(i + 1, parameters.get(i));
+                }
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        } catch (SQLException e) {
+            log.error("Failed to count records: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to count records: " + e.getMessage(), e);
+        }
+    }
+}
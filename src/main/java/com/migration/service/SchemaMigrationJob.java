@@ -0,0 +1,149 @@
+package main.java.com.migration.service;
+
+import com.migration.model.SchemaJobStatus;
+import com.migration.model.SchemaMigrationRequest;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Runtime state of a schema migration: the tables to copy, their foreign-key dependencies and
+ * the per-table migration jobs
+ */
+public class SchemaMigrationJob {
+
+    public static final String PHASE_QUEUED = "QUEUED";
+    public static final String PHASE_PLANNING = "PLANNING";
+    public static final String PHASE_COPYING = "COPYING";
+    public static final String PHASE_COMPLETED = "COMPLETED";
+    public static final String PHASE_FAILED = "FAILED";
+    public static final String PHASE_CANCELLED = "CANCELLED";
+
+    public static final String TABLE_PENDING = "PENDING";
+    public static final String TABLE_RUNNING = "RUNNING";
+    public static final String TABLE_COMPLETED = "COMPLETED";
+    public static final String TABLE_FAILED = "FAILED";
+    public static final String TABLE_SKIPPED = "SKIPPED";
+
+    @Getter
+    private final String jobId;
+    @Getter
+    private final SchemaMigrationRequest request;
+    private final long submittedAt = System.currentTimeMillis();
+    @Getter
+    private final List<TableTask> tasks = new ArrayList<>();
+
+    @Setter
+    private volatile String phase = PHASE_QUEUED;
+    @Setter
+    private volatile String message;
+    private volatile Long startedAt;
+    @Getter
+    private volatile Long finishedAt;
+    private volatile boolean cancelRequested;
+
+    public SchemaMigrationJob(String jobId, SchemaMigrationRequest request) {
+        this.jobId = jobId;
+        this.request = request;
+    }
+
+    public void start() {
+        startedAt = System.currentTimeMillis();
+    }
+
+    public void finish(String phase, String message) {
+        this.phase = phase;
+        this.message = message;
+        this.finishedAt = System.currentTimeMillis();
+    }
+
+    public boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    public boolean isCancelled() {
+        return cancelRequested;
+    }
+
+    /**
+     * Stops scheduling new tables and cancels the running ones
+     */
+    public void cancel() {
+        cancelRequested = true;
+        synchronized (tasks) {
+            for (TableTask task : tasks) {
+                if (task.job != null) {
+                    task.job.cancel();
+                }
+            }
+        }
+    }
+
+    public SchemaJobStatus toStatus() {
+        SchemaJobStatus status = new SchemaJobStatus();
+        status.setJobId(jobId);
+        status.setPhase(phase);
+        status.setSubmittedAt(submittedAt);
+        status.setStartedAt(startedAt);
+        status.setFinishedAt(finishedAt);
+        status.setCancelRequested(cancelRequested);
+        status.setMessage(message);
+        synchronized (tasks) {
+            status.setTotalTables(tasks.size());
+            for (TableTask task : tasks) {
+                SchemaJobStatus.TableStatus table = new SchemaJobStatus.TableStatus();
+                table.setSourceTable(task.sourceTable);
+                table.setTargetTable(task.targetTable);
+                table.setState(task.state);
+                table.setEstimatedRows(task.estimatedRows);
+                table.setDependsOn(new ArrayList<>(task.dependsOn));
+                table.setMessage(task.message);
+                if (task.job != null) {
+                    table.setJob(task.job.toStatus());
+                    status.setRowsWritten(status.getRowsWritten() + table.getJob().getRowsWritten());
+                }
+                switch (task.state) {
+                    case TABLE_COMPLETED:
+                        status.setCompletedTables(status.getCompletedTables() + 1);
+                        break;
+                    case TABLE_FAILED:
+                        status.setFailedTables(status.getFailedTables() + 1);
+                        break;
+                    case TABLE_SKIPPED:
+                        status.setSkippedTables(status.getSkippedTables() + 1);
+                        break;
+                    default:
+                        break;
+                }
+                status.getTables().add(table);
+            }
+        }
+        return status;
+    }
+
+    /**
+     * One table of the schema. State changes happen on the scheduler thread, except that a
+     * finished copy sets the final state from its worker thread.
+     */
+    @Getter
+    @Setter
+    public static class TableTask {
+        private final String sourceTable;
+        private final String targetTable;
+        private final long estimatedRows;
+        private final Set<String> dependsOn = new LinkedHashSet<>();
+        private volatile String state = TABLE_PENDING;
+        private volatile String message;
+        private volatile MigrationJob job;
+
+        public TableTask(String sourceTable, String targetTable, long estimatedRows) {
+            this.sourceTable = sourceTable;
+            this.targetTable = targetTable;
+            this.estimatedRows = estimatedRows;
+        }
+    }
+}
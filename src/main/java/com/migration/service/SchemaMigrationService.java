@@ -0,0 +1,353 @@
+package main.java.com.migration.service;
+
+import com.migration.model.MigrationRequest;
+import com.migration.model.MigrationResult;
+import com.migration.model.SchemaJobStatus;
+import com.migration.model.SchemaMigrationRequest;
+import com.migration.model.TableInfo;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Migrates a whole schema as one background job. Tables are loaded parents first according to
+ * their foreign keys; independent tables run concurrently, largest first, as long as the
+ * job's source and target connection budgets allow.
+ */
+@Service
+@Slf4j
+public class SchemaMigrationService {
+
+    private final DatabaseService databaseService;
+    private final MigrationService migrationService;
+    private final ConnectionPoolManager connectionPoolManager;
+    private final CatalogIntrospector catalogIntrospector;
+    private final ThrottleService throttleService;
+    private final ExecutorService coordinator;
+    private final Map<String, SchemaMigrationJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${migration.schema.max-concurrent-tables:4}")
+    private int defaultMaxConcurrentTables;
+
+    public SchemaMigrationService(DatabaseService databaseService, MigrationService migrationService,
+                                  ConnectionPoolManager connectionPoolManager, CatalogIntrospector catalogIntrospector,
+                                  ThrottleService throttleService, MeterRegistry meterRegistry,
+                                  @Value("${migration.schema.max-concurrent-jobs:2}") int maxConcurrentJobs) {
+        this.databaseService = databaseService;
+        this.migrationService = migrationService;
+        this.connectionPoolManager = connectionPoolManager;
+        this.catalogIntrospector = catalogIntrospector;
+        this.throttleService = throttleService;
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.coordinator = new ThreadPoolExecutor(maxConcurrentJobs, maxConcurrentJobs, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "schema-job-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        Gauge.builder("migration.schema.jobs.active", jobs, all -> all.values().stream().filter(job -> !job.isFinished()).count())
+                .description("Schema migration jobs queued or running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a schema migration and returns its job ID
+     */
+    public String submit(SchemaMigrationRequest request) {
+        String jobId = UUID.randomUUID().toString();
+        SchemaMigrationJob job = new SchemaMigrationJob(jobId, request);
+        jobs.put(jobId, job);
+        coordinator.execute(() -> run(job));
+        log.info("Submitted schema migration job {}", jobId);
+        return jobId;
+    }
+
+    public Optional<SchemaJobStatus> getStatus(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(SchemaMigrationJob::toStatus);
+    }
+
+    public List<SchemaJobStatus> listJobs() {
+        return jobs.values().stream()
+                .map(SchemaMigrationJob::toStatus)
+                .sorted(Comparator.comparingLong(SchemaJobStatus::getSubmittedAt).reversed())
+                .toList();
+    }
+
+    /**
+     * @return false if the job does not exist or has already finished
+     */
+    public boolean cancel(String jobId) {
+        SchemaMigrationJob job = jobs.get(jobId);
+        if (job == null || job.isFinished()) {
+            return false;
+        }
+        log.info("Cancelling schema migration job {}", jobId);
+        job.cancel();
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().stream().filter(job -> !job.isFinished()).forEach(SchemaMigrationJob::cancel);
+        coordinator.shutdownNow();
+    }
+
+    private void run(SchemaMigrationJob job) {
+        job.start();
+        try {
+            job.setPhase(SchemaMigrationJob.PHASE_PLANNING);
+            plan(job);
+            job.setPhase(SchemaMigrationJob.PHASE_COPYING);
+            schedule(job);
+
+            SchemaJobStatus status = job.toStatus();
+            String summary = status.getCompletedTables() + " of " + status.getTotalTables() + " tables migrated, "
+                    + status.getFailedTables() + " failed, " + status.getSkippedTables() + " skipped";
+            if (job.isCancelled()) {
+                job.finish(SchemaMigrationJob.PHASE_CANCELLED, "Schema migration cancelled: " + summary);
+            } else if (status.getFailedTables() > 0 || status.getSkippedTables() > 0) {
+                job.finish(SchemaMigrationJob.PHASE_FAILED, summary);
+            } else {
+                job.finish(SchemaMigrationJob.PHASE_COMPLETED, summary);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish(SchemaMigrationJob.PHASE_CANCELLED, "Schema migration interrupted");
+        } catch (RuntimeException e) {
+            log.error("Schema migration job {} failed: {}", job.getJobId(), e.getMessage(), e);
+            job.finish(SchemaMigrationJob.PHASE_FAILED, "Schema migration failed: " + e.getMessage());
+        }
+        log.info("Schema migration job {} finished", job.getJobId());
+    }
+
+    /**
+     * Resolves the tables, their foreign-key parents and their estimated sizes
+     */
+    private void plan(SchemaMigrationJob job) {
+        SchemaMigrationRequest request = job.getRequest();
+        List<String> tables = resolveTables(request);
+        if (tables.isEmpty()) {
+            throw new IllegalArgumentException("No tables match the request");
+        }
+        Map<String, Set<String>> dependencies = databaseService.getTableDependencies(request.getSourceConnection(), tables);
+        // One pass over the catalog gives every size and warms the cache for the table copies
+        Map<String, TableInfo> catalog = catalogIntrospector.introspect(request.getSourceConnection(), null);
+
+        String prefix = request.getTargetTablePrefix() == null ? "" : request.getTargetTablePrefix();
+        synchronized (job.getTasks()) {
+            for (String table : tables) {
+                TableInfo tableInfo = catalog.get(table);
+                long estimatedRows = tableInfo != null ? Math.max(0, tableInfo.getEstimatedRows()) : 0;
+                SchemaMigrationJob.TableTask task = new SchemaMigrationJob.TableTask(table, prefix + table, estimatedRows);
+                task.getDependsOn().addAll(dependencies.getOrDefault(table, Set.of()));
+                job.getTasks().add(task);
+            }
+        }
+        log.info("Planned schema migration of {} tables", tables.size());
+    }
+
+    private List<String> resolveTables(SchemaMigrationRequest request) {
+        if (request.getTables() != null && !request.getTables().isEmpty()) {
+            return new ArrayList<>(request.getTables());
+        }
+        List<String> allTables = databaseService.getAllTables(request.getSourceConnection());
+        if (request.getTablePattern() == null || request.getTablePattern().isEmpty()) {
+            return new ArrayList<>(allTables);
+        }
+        Pattern pattern = globToPattern(request.getTablePattern());
+        return allTables.stream().filter(table -> pattern.matcher(table).matches()).collect(Collectors.toList());
+    }
+
+    private static Pattern globToPattern(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (char ch : glob.toCharArray()) {
+            if (ch == '*') {
+                regex.append(".*");
+            } else if (ch == '?') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(ch)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE);
+    }
+
+    /**
+     * Runs tables whose parents are done, largest first. A table that does not fit in the
+     * remaining connection budget is passed over for smaller ready tables until connections
+     * are released. Tables whose parent failed are skipped.
+     */
+    private void schedule(SchemaMigrationJob job) throws InterruptedException {
+        SchemaMigrationRequest request = job.getRequest();
+        int poolSize = connectionPoolManager.getMaxPoolSize();
+        int maxTables = request.getMaxConcurrentTables() > 0 ? request.getMaxConcurrentTables() : defaultMaxConcurrentTables;
+        int sourceBudget = request.getMaxSourceConnections() > 0 ? request.getMaxSourceConnections() : poolSize;
+        int targetBudget = request.getMaxTargetConnections() > 0 ? request.getMaxTargetConnections() : poolSize;
+        Semaphore sourcePermits = new Semaphore(sourceBudget);
+        Semaphore targetPermits = new Semaphore(targetBudget);
+
+        // Each table holds one source connection per partition and one target connection per writer
+        int parallelism = Math.max(1, request.getParallelism());
+        int sourceNeed = Math.min(sourceBudget, parallelism);
+        int targetNeed = Math.min(targetBudget, parallelism * Math.max(1, request.getWriterThreads()));
+
+        Map<String, SchemaMigrationJob.TableTask> byName = new HashMap<>();
+        job.getTasks().forEach(task -> byName.put(task.getSourceTable(), task));
+
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, maxTables));
+        CompletionService<SchemaMigrationJob.TableTask> completions = new ExecutorCompletionService<>(workers);
+        int running = 0;
+        try {
+            while (true) {
+                List<SchemaMigrationJob.TableTask> pending = job.getTasks().stream()
+                        .filter(task -> SchemaMigrationJob.TABLE_PENDING.equals(task.getState()))
+                        .collect(Collectors.toList());
+                skipOrphans(pending, byName);
+                pending.removeIf(task -> !SchemaMigrationJob.TABLE_PENDING.equals(task.getState()));
+
+                if (job.isCancelled()) {
+                    pending.forEach(task -> {
+                        task.setState(SchemaMigrationJob.TABLE_SKIPPED);
+                        task.setMessage("Schema migration cancelled");
+                    });
+                    pending.clear();
+                }
+
+                List<SchemaMigrationJob.TableTask> ready = pending.stream()
+                        .filter(task -> task.getDependsOn().stream()
+                                .allMatch(parent -> SchemaMigrationJob.TABLE_COMPLETED.equals(byName.get(parent).getState())))
+                        .sorted(Comparator.comparingLong(SchemaMigrationJob.TableTask::getEstimatedRows).reversed())
+                        .collect(Collectors.toList());
+
+                if (ready.isEmpty() && running == 0) {
+                    if (pending.isEmpty()) {
+                        return;
+                    }
+                    // Only a foreign-key cycle can leave pending tables with nothing running
+                    log.warn("Foreign-key cycle among {}, loading them in size order",
+                            pending.stream().map(SchemaMigrationJob.TableTask::getSourceTable).toList());
+                    pending.forEach(task -> task.getDependsOn().clear());
+                    continue;
+                }
+
+                for (SchemaMigrationJob.TableTask task : ready) {
+                    if (running >= maxTables) {
+                        break;
+                    }
+                    if (!sourcePermits.tryAcquire(sourceNeed)) {
+                        continue;
+                    }
+                    if (!targetPermits.tryAcquire(targetNeed)) {
+                        sourcePermits.release(sourceNeed);
+                        continue;
+                    }
+                    MigrationRequest tableRequest = toTableRequest(request, task);
+                    String tableJobId = job.getJobId() + "/" + task.getSourceTable();
+                    MigrationJob tableJob = new MigrationJob(tableJobId, tableRequest,
+                            throttleService.forRequest(tableRequest, tableJobId));
+                    task.setJob(tableJob);
+                    if (job.isCancelled()) {
+                        // cancel() may have run before the job was attached
+                        tableJob.cancel();
+                    }
+                    task.setState(SchemaMigrationJob.TABLE_RUNNING);
+                    running++;
+                    completions.submit(() -> {
+                        try {
+                            copyTable(task, tableJob);
+                        } finally {
+                            sourcePermits.release(sourceNeed);
+                            targetPermits.release(targetNeed);
+                        }
+                        return task;
+                    });
+                }
+
+                if (running > 0) {
+                    completions.take();
+                    running--;
+                }
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Skips pending tables with a failed or skipped parent
+     */
+    private void skipOrphans(List<SchemaMigrationJob.TableTask> pending, Map<String, SchemaMigrationJob.TableTask> byName) {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (SchemaMigrationJob.TableTask task : pending) {
+                if (!SchemaMigrationJob.TABLE_PENDING.equals(task.getState())) {
+                    continue;
+                }
+                for (String parent : task.getDependsOn()) {
+                    String parentState = byName.get(parent).getState();
+                    if (SchemaMigrationJob.TABLE_FAILED.equals(parentState)
+                            || SchemaMigrationJob.TABLE_SKIPPED.equals(parentState)) {
+                        task.setState(SchemaMigrationJob.TABLE_SKIPPED);
+                        task.setMessage("Parent table " + parent + " was not migrated");
+                        changed = true;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private void copyTable(SchemaMigrationJob.TableTask task, MigrationJob tableJob) {
+        tableJob.start();
+        MigrationResult result;
+        try {
+            result = migrationService.migrateData(tableJob.getRequest(), tableJob, tableJob.getThrottle());
+        } catch (RuntimeException e) {
+            log.error("Migration of table {} failed: {}", task.getSourceTable(), e.getMessage(), e);
+            result = new MigrationResult(false, 0, 0, 0, 0, "Migration failed: " + e.getMessage(), e);
+        }
+        tableJob.finish(result);
+        task.setMessage(result.getMessage());
+        task.setState(result.isSuccess() ? SchemaMigrationJob.TABLE_COMPLETED : SchemaMigrationJob.TABLE_FAILED);
+    }
+
+    private MigrationRequest toTableRequest(SchemaMigrationRequest request, SchemaMigrationJob.TableTask task) {
+        MigrationRequest tableRequest = new MigrationRequest();
+        tableRequest.setSourceConnection(request.getSourceConnection());
+        tableRequest.setTargetConnection(request.getTargetConnection());
+        tableRequest.setSourceTable(task.getSourceTable());
+        tableRequest.setTargetTable(task.getTargetTable());
+        tableRequest.setCreateTargetTable(request.isCreateTargetTables());
+        tableRequest.setTruncateTargetTable(request.isTruncateTargetTables());
+        tableRequest.setBatchSize(request.getBatchSize());
+        tableRequest.setParallelism(request.getParallelism());
+        tableRequest.setWriterThreads(request.getWriterThreads());
+        tableRequest.setWriteMode(request.getWriteMode());
+        return tableRequest;
+    }
+}
@@ -0,0 +1,68 @@
+package main.java.com.migration.service;
+
+import com.migration.model.MigrationRequest;
+import com.migration.model.ThrottleSettings;
+import com.migration.service.copy.Throttle;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Owns the global source throttle shared by every migration and creates the per-job throttles
+ * that chain to it
+ */
+@Service
+@Slf4j
+public class ThrottleService {
+
+    private final Throttle global;
+
+    @Value("${migration.throttle.auto.max-fetch-micros-per-row:50}")
+    private long defaultMaxFetchMicrosPerRow;
+
+    public ThrottleService(@Value("${migration.throttle.global.rows-per-second:0}") long rowsPerSecond,
+                           @Value("${migration.throttle.global.bytes-per-second:0}") long bytesPerSecond) {
+        this.global = new Throttle("global", null, rowsPerSecond, bytesPerSecond);
+    }
+
+    public Throttle getGlobal() {
+        return global;
+    }
+
+    /**
+     * Creates the throttle for one migration from the limits in its request
+     */
+    public Throttle forRequest(MigrationRequest request, String name) {
+        Throttle throttle = new Throttle(name, global, request.getRowsPerSecond(), request.getBytesPerSecond());
+        throttle.setAutoThrottle(request.isAutoThrottle(), request.getAutoThrottleMaxFetchMicrosPerRow() > 0
+                ? request.getAutoThrottleMaxFetchMicrosPerRow() : defaultMaxFetchMicrosPerRow);
+        return throttle;
+    }
+
+    /**
+     * Applies the non-null settings to a throttle, effective for the next batch read
+     */
+    public void update(Throttle throttle, ThrottleSettings settings) {
+        throttle.setLimits(
+                settings.getRowsPerSecond() != null ? settings.getRowsPerSecond() : throttle.getRowsPerSecond(),
+                settings.getBytesPerSecond() != null ? settings.getBytesPerSecond() : throttle.getBytesPerSecond());
+        if (settings.getAutoThrottle() != null || settings.getMaxFetchMicrosPerRow() != null) {
+            throttle.setAutoThrottle(
+                    settings.getAutoThrottle() != null ? settings.getAutoThrottle() : throttle.isAutoThrottle(),
+                    settings.getMaxFetchMicrosPerRow() != null ? settings.getMaxFetchMicrosPerRow()
+                            : throttle.getMaxFetchMicrosPerRow() > 0 ? throttle.getMaxFetchMicrosPerRow()
+                            : defaultMaxFetchMicrosPerRow);
+        }
+    }
+
+    public static ThrottleSettings settingsOf(Throttle throttle) {
+        ThrottleSettings settings = new ThrottleSettings();
+        settings.setRowsPerSecond(throttle.getRowsPerSecond());
+        settings.setBytesPerSecond(throttle.getBytesPerSecond());
+        settings.setAutoThrottle(throttle.isAutoThrottle());
+        settings.setMaxFetchMicrosPerRow(throttle.getMaxFetchMicrosPerRow());
+        settings.setEffectiveRowsPerSecond(throttle.getEffectiveRowsPerSecond());
+        settings.setWaitMillis(throttle.getWaitMillis());
+        return settings;
+    }
+}
@@ -0,0 +1,469 @@
+package main.java.com.migration.service;
+
+import com.migration.model.DatabaseConnection;
+import com.migration.model.KeyRange;
+import com.migration.model.TableInfo;
+import com.migration.model.VerificationRequest;
+import com.migration.model.VerificationResult;
+import com.migration.util.FetchSizeCalculator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Proves that a target table holds the same rows as its source. Both tables are split into the
+ * same key ranges, and each range is reduced to a row count plus an order-independent checksum
+ * (the sum of per-row hashes) on both sides at the same time. Only ranges whose checksums differ
+ * are read again, row by row, to report the keys that are missing or different.
+ * <p>
+ * When both sides are the same dialect the checksum is computed by the database, so only two
+ * numbers per range cross the network. Across dialects, or for LOB columns, rows are streamed
+ * and hashed here after normalizing number scale, booleans and temporal values so that the
+ * same value read from two different drivers hashes the same.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VerificationService {
+
+    private static final String NULL_MARKER = "\u0000";
+    private static final char SEPARATOR = '\u001f';
+
+    private final DatabaseService databaseService;
+    private final PartitionPlanner partitionPlanner;
+    private final RowCountService rowCountService;
+    private final ConnectionPoolManager connectionPoolManager;
+
+    @Value("${migration.verify.chunk-count:64}")
+    private int defaultChunkCount;
+
+    // Source rows of one mismatched chunk held in memory to find the differing keys
+    @Value("${migration.verify.max-drill-down-rows:1000000}")
+    private int maxDrillDownRows;
+
+    @Value("${migration.fetch.memory-budget-mb:64}")
+    private long fetchMemoryBudgetMb;
+
+    public VerificationResult verify(VerificationRequest request) {
+        long startTime = System.currentTimeMillis();
+        VerificationResult result = new VerificationResult();
+        try {
+            TableInfo sourceTableInfo = databaseService.getTableInfo(request.getSourceConnection(), request.getSourceTable());
+            TableInfo.ColumnInfo keyColumn = partitionPlanner.resolvePartitionColumn(sourceTableInfo, request.getKeyColumn());
+            if (keyColumn == null) {
+                throw new IllegalArgumentException("Table " + request.getSourceTable()
+                        + " has no single-column primary key, give a keyColumn to verify on");
+            }
+            List<TableInfo.ColumnInfo> columns = sourceTableInfo.getColumns().stream()
+                    .filter(col -> request.getSelectedColumns() == null || request.getSelectedColumns().isEmpty()
+                            || request.getSelectedColumns().contains(col.getName()))
+                    .collect(Collectors.toList());
+
+            int chunkCount = request.getChunkCount() > 0 ? request.getChunkCount() : defaultChunkCount;
+            List<KeyRange> ranges = partitionPlanner.planRanges(request.getSourceConnection(), request.getSourceTable(),
+                    keyColumn, request.getWhereClause(), chunkCount, request.getPartitionStrategy(),
+                    rowCountService.estimate(request.getSourceConnection(), request.getSourceTable()));
+            String sourceDbType = normalize(request.getSourceConnection().getDbType());
+            boolean pushDown = request.isPushDown()
+                    && sourceDbType.equals(normalize(request.getTargetConnection().getDbType()))
+                    && supportsPushDown(sourceDbType)
+                    && columns.stream().noneMatch(col -> FetchSizeCalculator.isLob(col.getDataType()));
+            // Each chunk holds a source and a target connection at the same time
+            int parallelism = Math.max(1, Math.min(request.getParallelism(),
+                    Math.min(ranges.size(), connectionPoolManager.getMaxPoolSize() / 2)));
+            int fetchSize = FetchSizeCalculator.fetchSize(fetchMemoryBudgetMb * 1024L * 1024L / parallelism,
+                    FetchSizeCalculator.estimateRowWidth(columns));
+            log.info("Verifying {} against {} on {} in {} chunks, {} at a time, checksums {}", request.getSourceTable(),
+                    request.getTargetTable(), keyColumn.getName(), ranges.size(), parallelism,
+                    pushDown ? "in the database" : "streamed");
+
+            Verification verification = new Verification(request, keyColumn.getName(),
+                    columns.stream().map(TableInfo.ColumnInfo::getName).collect(Collectors.toList()),
+                    pushDown, fetchSize);
+            List<ChunkOutcome> outcomes = new ArrayList<>();
+            ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+            try {
+                List<Future<ChunkOutcome>> futures = new ArrayList<>();
+                for (KeyRange range : ranges) {
+                    futures.add(executor.submit(() -> verifyChunk(verification, range)));
+                }
+                for (Future<ChunkOutcome> future : futures) {
+                    try {
+                        outcomes.add(future.get());
+                    } catch (ExecutionException e) {
+                        throw new RuntimeException("Chunk verification failed: " + e.getCause().getMessage(), e.getCause());
+                    }
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            for (ChunkOutcome outcome : outcomes) {
+                VerificationResult.ChunkResult chunk = outcome.chunk;
+                result.setSourceRows(result.getSourceRows() + chunk.getSourceRows());
+                result.setTargetRows(result.getTargetRows() + chunk.getTargetRows());
+                if (!chunk.isMatched()) {
+                    result.getChunkResults().add(chunk);
+                    result.getDifferences().addAll(outcome.differences);
+                }
+            }
+            result.setChunks(ranges.size());
+            result.setMismatchedChunks(result.getChunkResults().size());
+            result.setKeyColumn(keyColumn.getName());
+            result.setMethod(pushDown ? VerificationResult.METHOD_PUSH_DOWN : VerificationResult.METHOD_STREAMING);
+            result.setDifferencesTruncated(verification.truncated);
+            result.setMatched(result.getChunkResults().isEmpty());
+            result.setSuccess(true);
+            result.setMessage(result.isMatched()
+                    ? String.format("Tables match: %d rows in %d chunks", result.getSourceRows(), result.getChunks())
+                    : String.format("%d of %d chunks differ, %d differing keys found%s", result.getMismatchedChunks(),
+                            result.getChunks(), result.getDifferences().size(),
+                            verification.truncated ? " (list truncated)" : ""));
+        } catch (Exception e) {
+            log.error("Verification failed: {}", e.getMessage(), e);
+            result.setSuccess(false);
+            result.setMessage("Verification failed: " + e.getMessage());
+        }
+        result.setExecutionTime(System.currentTimeMillis() - startTime);
+        log.info("Verification of {} finished in {} ms: {}", request.getTargetTable(), result.getExecutionTime(),
+                result.getMessage());
+        return result;
+    }
+
+    /**
+     * Checksums one key range on both sides at the same time and drills into it if they differ
+     */
+    private ChunkOutcome verifyChunk(Verification verification, KeyRange range) throws Exception {
+        VerificationRequest request = verification.request;
+        String predicate = range.toPredicate(verification.keyColumn);
+        String rangeDescription = range.isUnbounded() ? "all rows" : predicate + " " + range.getParameters();
+
+        ExecutorService targetSide = Executors.newSingleThreadExecutor();
+        Checksum source;
+        Checksum target;
+        try {
+            Future<Checksum> targetChecksum = targetSide.submit(() -> checksum(verification,
+                    request.getTargetConnection(), request.getTargetTable(), null, range));
+            source = checksum(verification, request.getSourceConnection(), request.getSourceTable(),
+                    request.getWhereClause(), range);
+            try {
+                target = targetChecksum.get();
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            }
+        } finally {
+            targetSide.shutdownNow();
+        }
+
+        boolean matched = source.rows == target.rows && source.hash.equals(target.hash);
+        VerificationResult.ChunkResult chunk = new VerificationResult.ChunkResult(range.getIndex(), rangeDescription,
+                source.rows, target.rows, source.hash, target.hash, matched, matched ? "Chunk matches" : null);
+        List<VerificationResult.RowDifference> differences = new ArrayList<>();
+        if (!matched) {
+            chunk.setMessage(drillDown(verification, range, differences));
+            log.info("Chunk {} of {} differs: {}", range.getIndex(), request.getTargetTable(), chunk.getMessage());
+        }
+        return new ChunkOutcome(chunk, differences);
+    }
+
+    private Checksum checksum(Verification verification, DatabaseConnection connection, String table,
+                              String whereClause, KeyRange range) throws SQLException {
+        String dbType = normalize(connection.getDbType());
+        if (verification.pushDown) {
+            String sql = "SELECT " + checksumExpression(dbType, verification.columns) + " FROM " + table
+                    + where(whereClause, range.toPredicate(verification.keyColumn));
+            try (Connection conn = databaseService.getConnection(connection);
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                bind(stmt, range);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    BigDecimal hash = rs.getBigDecimal(2);
+                    return new Checksum(rs.getLong(1), hash == null ? "0" : hash.toPlainString());
+                }
+            }
+        }
+
+        long rows = 0;
+        long hash = 0;
+        RowHasher hasher = new RowHasher();
+        String sql = "SELECT " + String.join(", ", verification.columns) + " FROM " + table
+                + where(whereClause, range.toPredicate(verification.keyColumn));
+        try (Connection conn = databaseService.getConnection(connection);
+             PreparedStatement stmt = FetchSizeCalculator.prepareStreaming(conn, dbType, sql, verification.fetchSize)) {
+            bind(stmt, range);
+            try (ResultSet rs = stmt.executeQuery()) {
+                int columnCount = verification.columns.size();
+                while (rs.next()) {
+                    // Addition is commutative, so the order rows arrive in does not matter
+                    hash += hasher.hash(rs, columnCount);
+                    rows++;
+                }
+            }
+        }
+        return new Checksum(rows, Long.toUnsignedString(hash));
+    }
+
+    /**
+     * Reads the source side of a mismatched range into memory keyed by row key, then streams the
+     * target side against it. Returns a summary for the chunk.
+     */
+    private String drillDown(Verification verification, KeyRange range,
+                             List<VerificationResult.RowDifference> differences) throws SQLException {
+        VerificationRequest request = verification.request;
+        int keyIndex = verification.columns.indexOf(verification.keyColumn);
+        List<String> selected = new ArrayList<>(verification.columns);
+        if (keyIndex < 0) {
+            selected.add(verification.keyColumn);
+        }
+        int hashedColumns = verification.columns.size();
+        int keyPosition = keyIndex < 0 ? selected.size() : keyIndex + 1;
+        RowHasher hasher = new RowHasher();
+
+        Map<String, Long> sourceRows = new HashMap<>();
+        String sourceSql = "SELECT " + String.join(", ", selected) + " FROM " + request.getSourceTable()
+                + where(request.getWhereClause(), range.toPredicate(verification.keyColumn));
+        try (Connection conn = databaseService.getConnection(request.getSourceConnection());
+             PreparedStatement stmt = FetchSizeCalculator.prepareStreaming(conn,
+                     request.getSourceConnection().getDbType(), sourceSql, verification.fetchSize)) {
+            bind(stmt, range);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (sourceRows.size() >= maxDrillDownRows) {
+                        return "Chunk differs but has more than " + maxDrillDownRows
+                                + " rows to compare, verify with more chunks to find the keys";
+                    }
+                    sourceRows.put(normalizeValue(rs.getObject(keyPosition)), hasher.hash(rs, hashedColumns));
+                }
+            }
+        }
+
+        int missingInSource = 0;
+        int different = 0;
+        String targetSql = "SELECT " + String.join(", ", selected) + " FROM " + request.getTargetTable()
+                + where(null, range.toPredicate(verification.keyColumn));
+        try (Connection conn = databaseService.getConnection(request.getTargetConnection());
+             PreparedStatement stmt = FetchSizeCalculator.prepareStreaming(conn,
+                     request.getTargetConnection().getDbType(), targetSql, verification.fetchSize)) {
+            bind(stmt, range);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String key = normalizeValue(rs.getObject(keyPosition));
+                    Long sourceHash = sourceRows.remove(key);
+                    if (sourceHash == null) {
+                        missingInSource++;
+                        report(verification, differences, range, key, VerificationResult.RowDifference.MISSING_IN_SOURCE);
+                    } else if (sourceHash != hasher.hash(rs, hashedColumns)) {
+                        different++;
+                        report(verification, differences, range, key, VerificationResult.RowDifference.DIFFERENT);
+                    }
+                }
+            }
+        }
+        for (String key : sourceRows.keySet()) {
+            report(verification, differences, range, key, VerificationResult.RowDifference.MISSING_IN_TARGET);
+        }
+        return String.format("%d rows missing in target, %d extra rows in target, %d rows different",
+                sourceRows.size(), missingInSource, different);
+    }
+
+    private void report(Verification verification, List<VerificationResult.RowDifference> differences,
+                        KeyRange range, String key, String type) {
+        if (verification.reported.incrementAndGet() > verification.request.getMaxReportedDifferences()) {
+            verification.truncated = true;
+            return;
+        }
+        differences.add(new VerificationResult.RowDifference(range.getIndex(), key, type));
+    }
+
+    /**
+     * Row count and the sum of per-row hashes in one SELECT item list. Every row hash is a
+     * non-negative integer under 2^60 so the sums cannot overflow the database's numeric type.
+     */
+    static String checksumExpression(String dbType, List<String> columns) {
+        switch (dbType) {
+            case "postgresql":
+                return "COUNT(*), SUM(('x' || SUBSTR(MD5(ROW(" + String.join(", ", columns)
+                        + ")::TEXT), 1, 15))::BIT(60)::BIGINT)";
+            case "mysql": {
+                List<String> values = new ArrayList<>();
+                for (String column : columns) {
+                    values.add("IFNULL(" + column + ", CHAR(0))");
+                }
+                return "COUNT(*), SUM(CAST(CONV(SUBSTRING(MD5(CONCAT_WS(CHAR(31), " + String.join(", ", values)
+                        + ")), 1, 15), 16, 10) AS UNSIGNED))";
+            }
+            case "sqlserver":
+                // CHECKSUM_AGG is order-independent but weaker than a sum of digests; the row count backs it up
+                return "COUNT_BIG(*), CHECKSUM_AGG(BINARY_CHECKSUM(" + String.join(", ", columns) + "))";
+            case "oracle":
+                return "COUNT(*), SUM(ORA_HASH(" + String.join(" || CHR(31) || ", columns) + "))";
+            default:
+                throw new IllegalArgumentException("No checksum query for " + dbType);
+        }
+    }
+
+    static boolean supportsPushDown(String dbType) {
+        switch (dbType) {
+            case "postgresql":
+            case "mysql":
+            case "sqlserver":
+            case "oracle":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Renders a value the same way whichever driver returned it: numbers without trailing
+     * zeros, booleans as 1/0, temporal values in ISO form and binary values as Base64
+     */
+    static String normalizeValue(Object value) throws SQLException {
+        if (value == null) {
+            return NULL_MARKER;
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? "1" : "0";
+        }
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).stripTrailingZeros().toPlainString();
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return BigDecimal.valueOf(((Number) value).doubleValue()).stripTrailingZeros().toPlainString();
+        }
+        if (value instanceof Number) {
+            return new BigDecimal(value.toString()).stripTrailingZeros().toPlainString();
+        }
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime().toString();
+        }
+        if (value instanceof Date) {
+            return ((Date) value).toLocalDate().toString();
+        }
+        if (value instanceof Time) {
+            return ((Time) value).toLocalTime().toString();
+        }
+        if (value instanceof byte[]) {
+            return Base64.getEncoder().encodeToString((byte[]) value);
+        }
+        if (value instanceof Blob) {
+            Blob blob = (Blob) value;
+            return Base64.getEncoder().encodeToString(blob.getBytes(1, (int) blob.length()));
+        }
+        if (value instanceof Clob) {
+            Clob clob = (Clob) value;
+            return clob.getSubString(1, (int) clob.length());
+        }
+        return value.toString();
+    }
+
+    private static void bind(PreparedStatement stmt, KeyRange range) throws SQLException {
+        List<Object> parameters = range.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            stmt.setObject(i + 1, parameters.get(i));
+        }
+    }
+
+    private static String where(String whereClause, String predicate) {
+        List<String> conditions = new ArrayList<>();
+        if (whereClause != null && !whereClause.trim().isEmpty()) {
+            conditions.add("(" + whereClause + ")");
+        }
+        if (predicate != null) {
+            conditions.add(predicate);
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private static String normalize(String dbType) {
+        return dbType == null ? "" : dbType.toLowerCase();
+    }
+
+    /**
+     * Hashes the first columns of the current row to 64 bits; one instance per thread
+     */
+    private static class RowHasher {
+
+        private final MessageDigest digest;
+        private final StringBuilder row = new StringBuilder();
+
+        RowHasher() {
+            try {
+                this.digest = MessageDigest.getInstance("MD5");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("MD5 is not available", e);
+            }
+        }
+
+        long hash(ResultSet rs, int columnCount) throws SQLException {
+            row.setLength(0);
+            for (int i = 1; i <= columnCount; i++) {
+                row.append(normalizeValue(rs.getObject(i))).append(SEPARATOR);
+            }
+            byte[] bytes = digest.digest(row.toString().getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(bytes).getLong();
+        }
+    }
+
+    /**
+     * Settings and shared counters of one verification
+     */
+    private static class Verification {
+        private final VerificationRequest request;
+        private final String keyColumn;
+        private final List<String> columns;
+        private final boolean pushDown;
+        private final int fetchSize;
+        private final AtomicInteger reported = new AtomicInteger();
+        private volatile boolean truncated;
+
+        Verification(VerificationRequest request, String keyColumn, List<String> columns, boolean pushDown,
+                     int fetchSize) {
+            this.request = request;
+            this.keyColumn = keyColumn;
+            this.columns = Collections.unmodifiableList(columns);
+            this.pushDown = pushDown;
+            this.fetchSize = fetchSize;
+        }
+    }
+
+    private static class Checksum {
+        private final long rows;
+        private final String hash;
+
+        Checksum(long rows, String hash) {
+            this.rows = rows;
+            this.hash = hash;
+        }
+    }
+
+    private static class ChunkOutcome {
+        private final VerificationResult.ChunkResult chunk;
+        private final List<VerificationResult.RowDifference> differences;
+
+        ChunkOutcome(VerificationResult.ChunkResult chunk, List<VerificationResult.RowDifference> differences) {
+            this.chunk = chunk;
+            this.differences = differences;
+        }
+    }
+}
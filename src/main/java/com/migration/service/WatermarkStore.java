@@ -0,0 +1,116 @@
+package main.java.com.migration.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.migration.model.MigrationRequest;
+import com.migration.model.SyncWatermark;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Remembers the high-water mark of every incremental sync in a JSON file. A sync is identified
+ * by its source and target databases and tables and its watermark column.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WatermarkStore {
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${migration.incremental.watermark-file:watermarks.json}")
+    private String watermarkFile;
+
+    /**
+     * Returns the stable ID of the sync described by the request
+     */
+    public static String syncId(MigrationRequest request) {
+        String identity = request.getSourceConnection().buildJdbcUrl() + "|" + request.getSourceTable() + "|"
+                + request.getTargetConnection().buildJdbcUrl() + "|" + request.getTargetTable() + "|"
+                + request.getIncrementalColumn();
+        return UUID.nameUUIDFromBytes(identity.toLowerCase().getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    public synchronized Optional<SyncWatermark> get(String id) {
+        return Optional.ofNullable(read().get(id));
+    }
+
+    public synchronized List<SyncWatermark> list() {
+        return new ArrayList<>(read().values());
+    }
+
+    /**
+     * Records the new high-water mark of the sync described by the request
+     */
+    public synchronized void update(MigrationRequest request, String value) {
+        Map<String, SyncWatermark> watermarks = read();
+        SyncWatermark watermark = new SyncWatermark();
+        watermark.setId(syncId(request));
+        watermark.setSourceTable(request.getSourceTable());
+        watermark.setTargetTable(request.getTargetTable());
+        watermark.setColumn(request.getIncrementalColumn());
+        watermark.setValue(value);
+        watermark.setUpdatedAt(System.currentTimeMillis());
+        watermarks.put(watermark.getId(), watermark);
+        write(watermarks);
+        log.info("Watermark of {} -> {} on {} is now {}", request.getSourceTable(), request.getTargetTable(),
+                request.getIncrementalColumn(), value);
+    }
+
+    /**
+     * Forgets a watermark so that the next run copies the whole table again
+     */
+    public synchronized boolean reset(String id) {
+        Map<String, SyncWatermark> watermarks = read();
+        if (watermarks.remove(id) == null) {
+            return false;
+        }
+        write(watermarks);
+        return true;
+    }
+
+    private Map<String, SyncWatermark> read() {
+        Path file = Paths.get(watermarkFile);
+        if (!Files.exists(file)) {
+            return new LinkedHashMap<>();
+        }
+        try {
+            return objectMapper.readValue(file.toFile(), new TypeReference<LinkedHashMap<String, SyncWatermark>>() {
+            });
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read watermarks: " + e.getMessage(), e);
+        }
+    }
+
+    private void write(Map<String, SyncWatermark> watermarks) {
+        Path file = Paths.get(watermarkFile).toAbsolutePath();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            Files.write(temp, objectMapper.writeValueAsBytes(watermarks));
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write watermarks: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package main.java.com.migration.service.copy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Chooses the number of rows per batch for one table by hill climbing on measured throughput.
+ * <p>
+ * The size starts at the initial value and doubles while rows/sec improves; once a step makes
+ * throughput worse the direction reverses and the step shrinks, until it is too small to matter
+ * and the size is kept. Independently of throughput, the size is cut when a batch takes longer
+ * than the latency target, when the estimated bytes per batch exceed the limit (packet limits of
+ * the target) or when the heap is nearly full. Shared by every partition of a migration.
+ */
+@Slf4j
+public class AdaptiveBatchSizer {
+
+    // Batches measured at a size before it is judged
+    private static final int SAMPLES_PER_SIZE = 3;
+    private static final double INITIAL_STEP = 2.0;
+    private static final double MIN_STEP = 1.1;
+    private static final double HEAP_HIGH_WATER = 0.8;
+
+    private final int minSize;
+    private final int maxSize;
+    private final long targetLatencyNanos;
+    private final List<Integer> history = new ArrayList<>();
+
+    private volatile int currentSize;
+    private double step = INITIAL_STEP;
+    private boolean growing = true;
+    private boolean converged;
+    private double previousThroughput;
+    private long sampleRows;
+    private long sampleNanos;
+    private int samples;
+
+    /**
+     * @param rowWidth      estimated bytes per row
+     * @param maxBatchBytes largest estimated batch in bytes; caps {@code maxSize}
+     */
+    public AdaptiveBatchSizer(int initialSize, int minSize, int maxSize, long rowWidth, long maxBatchBytes,
+                              long targetLatencyMillis) {
+        long byBytes = Math.max(1, maxBatchBytes / Math.max(1, rowWidth));
+        this.minSize = Math.max(1, Math.min(minSize, maxSize));
+        this.maxSize = (int) Math.max(this.minSize, Math.min(maxSize, byBytes));
+        this.targetLatencyNanos = targetLatencyMillis * 1_000_000L;
+        this.currentSize = clamp(initialSize);
+        history.add(currentSize);
+    }
+
+    /**
+     * Rows the reader should put into the next batch
+     */
+    public int currentSize() {
+        return currentSize;
+    }
+
+    /**
+     * Largest size the sizer will ever choose; batches are allocated with this capacity
+     */
+    public int maxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Sizes chosen so far, in order, starting with the initial size
+     */
+    public synchronized List<Integer> history() {
+        return new ArrayList<>(history);
+    }
+
+    /**
+     * Records the write time of a batch and adjusts the size
+     *
+     * @param limit the row limit the batch was filled against
+     * @param full  false when the batch was cut short by the end of the data; batches ended early
+     *              by the LOB byte limit are full and are judged like any other
+     */
+    public synchronized void onBatchWritten(int rows, int limit, boolean full, long nanos) {
+        // Batches filled before the last change, or cut short at the end of the data, say nothing about the current size
+        if (limit != currentSize || !full) {
+            return;
+        }
+        if (nanos > targetLatencyNanos && currentSize > minSize) {
+            resize(currentSize / 2, "batch took " + nanos / 1_000_000 + " ms");
+            return;
+        }
+        if (heapUsage() > HEAP_HIGH_WATER && currentSize > minSize) {
+            resize(currentSize / 2, "heap is " + Math.round(heapUsage() * 100) + "% full");
+            return;
+        }
+        if (converged) {
+            return;
+        }
+
+        sampleRows += rows;
+        sampleNanos += nanos;
+        if (++samples < SAMPLES_PER_SIZE) {
+            return;
+        }
+        double throughput = sampleRows * 1e9 / Math.max(1, sampleNanos);
+        if (previousThroughput > 0 && throughput < previousThroughput) {
+            // The last step made things worse: go back the other way with a smaller step
+            growing = !growing;
+            step = Math.sqrt(step);
+            if (step < MIN_STEP) {
+                converged = true;
+                log.info("Batch size converged at {} rows ({} rows/s)", currentSize, Math.round(throughput));
+                resetSamples();
+                return;
+            }
+        }
+        previousThroughput = throughput;
+        int next = clamp((int) Math.round(growing ? currentSize * step : currentSize / step));
+        if (next == currentSize) {
+            converged = true;
+            log.info("Batch size converged at {} rows ({} rows/s)", currentSize, Math.round(throughput));
+            resetSamples();
+            return;
+        }
+        resize(next, Math.round(throughput) + " rows/s");
+    }
+
+    private void resize(int size, String reason) {
+        int next = clamp(size);
+        resetSamples();
+        if (next == currentSize) {
+            return;
+        }
+        log.debug("Batch size {} -> {} ({})", currentSize, next, reason);
+        currentSize = next;
+        history.add(next);
+    }
+
+    private void resetSamples() {
+        sampleRows = 0;
+        sampleNanos = 0;
+        samples = 0;
+    }
+
+    /**
+     * Share of the heap still in use after the last collection, so garbage does not count
+     */
+    private double heapUsage() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage afterGc = pool.getType() == MemoryType.HEAP ? pool.getCollectionUsage() : null;
+            if (afterGc != null) {
+                used += afterGc.getUsed();
+            }
+        }
+        return (double) used / Runtime.getRuntime().maxMemory();
+    }
+
+    private int clamp(int size) {
+        return Math.max(minSize, Math.min(maxSize, size));
+    }
+}
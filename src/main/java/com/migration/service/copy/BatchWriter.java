@@ -0,0 +1,31 @@
+package main.java.com.migration.service.copy;
+
+import java.sql.SQLException;
+
+/**
+ * Writer stage of the copy pipeline. Each writer owns its own target connection and is
+ * used by a single thread.
+ */
+public interface BatchWriter extends AutoCloseable {
+
+    /**
+     * Called once on the reader thread before any batch is written
+     */
+    default void init(ColumnLayout layout) throws SQLException {
+    }
+
+    /**
+     * Writes and commits the rows of the batch
+     *
+     * @return the number of rows written
+     */
+    int write(RowBatch batch) throws SQLException;
+
+    /**
+     * Discards whatever part of the current batch was not committed
+     */
+    void rollback() throws SQLException;
+
+    @Override
+    void close() throws SQLException;
+}
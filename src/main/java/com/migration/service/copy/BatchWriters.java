@@ -0,0 +1,80 @@
+package main.java.com.migration.service.copy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Chooses the writer strategy for a target database
+ */
+@Slf4j
+public final class BatchWriters {
+
+    public static final String MODE_INSERT = "INSERT";
+    public static final String MODE_BULK = "BULK";
+    public static final String MODE_MULTI_ROW = "MULTI_ROW";
+
+    private BatchWriters() {
+    }
+
+    /**
+     * Creates a writer that owns the given target connection. In BULK mode the vendor-native
+     * bulk protocol is used when the target supports it; targets without one (Oracle, HANA)
+     * get multi-row INSERTs. MULTI_ROW always writes multi-row INSERTs. Otherwise, and whenever
+     * the bulk API cannot be reached through the connection, rows are written with batched INSERTs.
+     */
+    public static BatchWriter create(String writeMode, String targetDbType, Connection connection, String targetTable,
+                                     List<String> columns, String insertQuery, CopyMonitor monitor) throws SQLException {
+        try {
+            if (MODE_BULK.equalsIgnoreCase(writeMode)) {
+                BatchWriter bulkWriter = createBulkWriter(targetDbType, connection, targetTable, columns, insertQuery, monitor);
+                if (bulkWriter != null) {
+                    return bulkWriter;
+                }
+            }
+            if (MODE_MULTI_ROW.equalsIgnoreCase(writeMode)) {
+                return new MultiRowInsertWriter(connection, targetDbType, targetTable, columns, monitor);
+            }
+            return new InsertBatchWriter(connection, insertQuery, monitor);
+        } catch (SQLException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    private static BatchWriter createBulkWriter(String targetDbType, Connection connection, String targetTable,
+                                                List<String> columns, String insertQuery, CopyMonitor monitor) throws SQLException {
+        String dbType = targetDbType == null ? "" : targetDbType.toLowerCase();
+        try {
+            switch (dbType) {
+                case "postgresql":
+                    if (connection.isWrapperFor(org.postgresql.PGConnection.class)) {
+                        return new PostgresCopyWriter(connection, targetTable, columns, monitor);
+                    }
+                    break;
+                case "mysql":
+                    if (connection.isWrapperFor(com.mysql.cj.jdbc.JdbcConnection.class)) {
+                        return new MySqlLoadDataWriter(connection, targetTable, columns, insertQuery, monitor);
+                    }
+                    break;
+                case "sqlserver":
+                    if (connection.isWrapperFor(com.microsoft.sqlserver.jdbc.SQLServerConnection.class)) {
+                        return new SqlServerBulkCopyWriter(connection, targetTable, columns, insertQuery, monitor);
+                    }
+                    break;
+                case "oracle":
+                case "hana":
+                    return new MultiRowInsertWriter(connection, targetDbType, targetTable, columns, monitor);
+                default:
+                    break;
+            }
+        } catch (LinkageError e) {
+            log.warn("Bulk load driver classes for {} are not available: {}", targetDbType, e.getMessage());
+            return null;
+        }
+        log.info("No bulk load path available for {}, using batched INSERT", targetDbType);
+        return null;
+    }
+}
@@ -0,0 +1,82 @@
+package main.java.com.migration.service.copy;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Turns batch commits into a resumable position for one partition. Rows must arrive ordered
+ * by the key column. With several writers batches commit out of order, so the position only
+ * advances to the last key of the longest run of finished batches in read order.
+ */
+public class CheckpointTracker {
+
+    /**
+     * Receives the new position after each advance
+     */
+    @FunctionalInterface
+    public interface Listener {
+        void onCheckpoint(Object lastKey, long rowsWritten, long rowsFailed);
+    }
+
+    private final int keyColumn;
+    private final Listener listener;
+    private final Map<Long, Pending> pending = new TreeMap<>();
+
+    private long nextSequence;
+    private long nextToCommit;
+
+    public CheckpointTracker(int keyColumn, Listener listener) {
+        this.keyColumn = keyColumn;
+        this.listener = listener;
+    }
+
+    /**
+     * Called on the reader thread before the batch is handed to the writers
+     */
+    public synchronized void onBatchRead(RowBatch batch) {
+        long sequence = nextSequence++;
+        batch.setSequence(sequence);
+        pending.put(sequence, new Pending(batch.get(batch.size() - 1, keyColumn)));
+    }
+
+    /**
+     * Called by a writer once the batch is committed or given up on, before the batch is recycled
+     */
+    public synchronized void onBatchDone(RowBatch batch, long written, long failed) {
+        Pending entry = pending.get(batch.getSequence());
+        if (entry == null) {
+            return;
+        }
+        entry.done = true;
+        entry.written = written;
+        entry.failed = failed;
+
+        Object lastKey = null;
+        long advancedWritten = 0;
+        long advancedFailed = 0;
+        boolean advanced = false;
+        Pending next;
+        while ((next = pending.get(nextToCommit)) != null && next.done) {
+            pending.remove(nextToCommit++);
+            lastKey = next.lastKey;
+            advancedWritten += next.written;
+            advancedFailed += next.failed;
+            advanced = true;
+        }
+        // Reported under the lock so positions are delivered in order
+        if (advanced) {
+            listener.onCheckpoint(lastKey, advancedWritten, advancedFailed);
+        }
+    }
+
+    private static class Pending {
+        private final Object lastKey;
+        private boolean done;
+        private long written;
+        private long failed;
+
+        Pending(Object lastKey) {
+            this.lastKey = lastKey;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package main.java.com.migration.service.copy;
+
+import java.sql.Types;
+
+/**
+ * How a column's values are read, stored in a {@link RowBatch} and bound. LONG, DOUBLE and
+ * BOOLEAN values are kept in primitive arrays so the hot path does not box them. LOB columns
+ * are read as streams and held as {@link LobValue} once they exceed the inline limit.
+ */
+public enum ColumnKind {
+    LONG,
+    DOUBLE,
+    BOOLEAN,
+    DECIMAL,
+    STRING,
+    TIMESTAMP,
+    DATE,
+    TIME,
+    BYTES,
+    CHARACTER_LOB,
+    BINARY_LOB,
+    OBJECT;
+
+    /**
+     * Resolves the kind of a source column from its JDBC metadata
+     *
+     * @param dateHasTime true for sources such as Oracle whose DATE carries a time of day
+     */
+    public static ColumnKind of(int sqlType, int precision, int scale, boolean signed, boolean dateHasTime) {
+        switch (sqlType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+                return LONG;
+            case Types.BIGINT:
+                // Unsigned BIGINT values can exceed Long.MAX_VALUE
+                return signed ? LONG : DECIMAL;
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                // Integral NUMBER(p) columns that fit in a long, e.g. Oracle keys
+                return scale == 0 && precision > 0 && precision <= 18 ? LONG : DECIMAL;
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return DOUBLE;
+            case Types.BIT:
+                // Multi-bit columns such as MySQL BIT(8) are not flags
+                return precision <= 1 ? BOOLEAN : OBJECT;
+            case Types.BOOLEAN:
+                return BOOLEAN;
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+                return STRING;
+            case Types.LONGVARCHAR:
+            case Types.LONGNVARCHAR:
+            case Types.CLOB:
+            case Types.NCLOB:
+                return CHARACTER_LOB;
+            case Types.TIMESTAMP:
+                return TIMESTAMP;
+            case Types.DATE:
+                return dateHasTime ? TIMESTAMP : DATE;
+            case Types.TIME:
+                return TIME;
+            case Types.BINARY:
+            case Types.VARBINARY:
+                return BYTES;
+            case Types.LONGVARBINARY:
+            case Types.BLOB:
+                return BINARY_LOB;
+            default:
+                return OBJECT;
+        }
+    }
+
+    /**
+     * The streamed kind for a column the source catalog declares as a LOB but the driver reports
+     * as an ordinary type, e.g. PostgreSQL text and bytea
+     */
+    public ColumnKind asLob() {
+        switch (this) {
+            case STRING:
+                return CHARACTER_LOB;
+            case BYTES:
+                return BINARY_LOB;
+            default:
+                return this;
+        }
+    }
+
+    public boolean isLob() {
+        return this == CHARACTER_LOB || this == BINARY_LOB;
+    }
+}
@@ -0,0 +1,101 @@
+package main.java.com.migration.service.copy;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Column names, JDBC types and storage kinds of the source result set, captured once on the
+ * reader thread so writer stages never touch the source metadata
+ */
+public class ColumnLayout {
+
+    private final String[] names;
+    private final int[] types;
+    private final int[] precisions;
+    private final int[] scales;
+    private final ColumnKind[] kinds;
+
+    public ColumnLayout(String[] names, int[] types, int[] precisions, int[] scales, ColumnKind[] kinds) {
+        this.names = names;
+        this.types = types;
+        this.precisions = precisions;
+        this.scales = scales;
+        this.kinds = kinds;
+    }
+
+    /**
+     * @param dateHasTime true for sources such as Oracle whose DATE carries a time of day
+     */
+    public static ColumnLayout from(ResultSetMetaData metaData, boolean dateHasTime) throws SQLException {
+        return from(metaData, dateHasTime, Collections.emptySet());
+    }
+
+    /**
+     * @param dateHasTime true for sources such as Oracle whose DATE carries a time of day
+     * @param lobColumns  columns the source catalog declares as LOBs, matched case-insensitively;
+     *                    these are streamed even when the driver reports them as VARCHAR or VARBINARY
+     */
+    public static ColumnLayout from(ResultSetMetaData metaData, boolean dateHasTime, Collection<String> lobColumns)
+            throws SQLException {
+        Set<String> lobs = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        lobs.addAll(lobColumns);
+        int count = metaData.getColumnCount();
+        String[] names = new String[count];
+        int[] types = new int[count];
+        int[] precisions = new int[count];
+        int[] scales = new int[count];
+        ColumnKind[] kinds = new ColumnKind[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = metaData.getColumnLabel(i + 1);
+            types[i] = metaData.getColumnType(i + 1);
+            precisions[i] = metaData.getPrecision(i + 1);
+            scales[i] = metaData.getScale(i + 1);
+            kinds[i] = ColumnKind.of(types[i], precisions[i], scales[i], metaData.isSigned(i + 1), dateHasTime);
+            if (lobs.contains(names[i])) {
+                kinds[i] = kinds[i].asLob();
+            }
+        }
+        return new ColumnLayout(names, types, precisions, scales, kinds);
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public String name(int column) {
+        return names[column];
+    }
+
+    public int type(int column) {
+        return types[column];
+    }
+
+    public int precision(int column) {
+        return precisions[column];
+    }
+
+    public int scale(int column) {
+        return scales[column];
+    }
+
+    public ColumnKind kind(int column) {
+        return kinds[column];
+    }
+
+    public boolean hasLobs() {
+        for (ColumnKind kind : kinds) {
+            if (kind.isLob()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public ColumnKind[] kinds() {
+        return kinds.clone();
+    }
+}
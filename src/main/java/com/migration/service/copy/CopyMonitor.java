@@ -0,0 +1,90 @@
+package main.java.com.migration.service.copy;
+
+import java.sql.Statement;
+
+/**
+ * Receives progress from a running migration and tells it when to stop.
+ * Statements registered here are cancelled with {@link Statement#cancel()} on cancellation.
+ */
+public interface CopyMonitor {
+
+    CopyMonitor NONE = new CopyMonitor() {
+    };
+
+    /**
+     * The timed operations reported by the callbacks below
+     */
+    enum Operation {
+        METADATA_LOOKUP,
+        DDL,
+        FETCH,
+        BIND,
+        EXECUTE,
+        COMMIT
+    }
+
+    default void onPhase(String phase) {
+    }
+
+    default void onEstimatedTotal(long rows) {
+    }
+
+    /**
+     * Called on the working thread right before a timed operation starts. The callback reporting
+     * the operation's time follows on the same thread once it has finished.
+     */
+    default void onOperationStart(Operation operation) {
+    }
+
+    /**
+     * Time spent reading the structure of a table
+     */
+    default void onMetadataLookup(String table, long nanos) {
+    }
+
+    /**
+     * Time spent running a DDL statement (CREATE TABLE, TRUNCATE) against a table
+     */
+    default void onDdl(String table, String operation, long nanos) {
+    }
+
+    default void onRowsRead(long rows) {
+    }
+
+    default void onRowsWritten(long rows) {
+    }
+
+    default void onRowsFailed(long rows) {
+    }
+
+    /**
+     * Time the reader spent fetching one block of rows from the source
+     */
+    default void onFetch(int rows, long nanos) {
+    }
+
+    /**
+     * Time a writer spent binding the parameters of one batch
+     */
+    default void onBatchBound(int rows, long nanos) {
+    }
+
+    /**
+     * Time a writer spent sending one batch (or one multi-row statement) to the target, commit excluded
+     */
+    default void onBatchExecuted(int rows, long nanos) {
+    }
+
+    default void onCommit(long nanos) {
+    }
+
+    default boolean isCancelled() {
+        return false;
+    }
+
+    default void register(Statement statement) {
+    }
+
+    default void unregister(Statement statement) {
+    }
+}
@@ -0,0 +1,394 @@
+package main.java.com.migration.service.copy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Copies a source result set to the target through a reader stage and one or more writer
+ * stages connected by a bounded queue of row batches, so that source fetches overlap with
+ * target batch inserts and commits.
+ * <p>
+ * A fixed set of batches circulates between a free queue and a filled queue. The reader
+ * blocks when no free batch is left, which bounds memory to
+ * {@code (queueCapacity + writers) * batchSize} rows, or the sizer's maximum batch size when
+ * batches are sized adaptively. With LOB columns a batch also ends at the LOB byte limit, and
+ * values above the inline limit wait in temporary files that are deleted once the batch is written.
+ */
+@Slf4j
+public class CopyPipeline {
+
+    private static final RowBatch END_OF_DATA = new RowBatch(0, new ColumnKind[0]);
+    private static final long POLL_MILLIS = 100;
+
+    private final int batchSize;
+    private final int queueCapacity;
+    private final List<BatchWriter> writers;
+    private final CopyMonitor monitor;
+    private final String sourceDbType;
+    private CheckpointTracker checkpointTracker;
+    private DeadLetterWriter deadLetterWriter;
+    private AdaptiveBatchSizer batchSizer;
+    private Throttle throttle;
+    private Collection<String> lobColumns = Collections.emptySet();
+    private int lobInlineBytes = RowCopier.DEFAULT_LOB_INLINE_BYTES;
+    private long lobMaxBatchBytes;
+    private ColumnLayout layout;
+    private final PipelineStats stats = new PipelineStats();
+
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final AtomicLong rowsFailed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong writeNanos = new AtomicLong();
+    private final AtomicLong writerWaitNanos = new AtomicLong();
+
+    public CopyPipeline(int batchSize, int queueCapacity, List<BatchWriter> writers, CopyMonitor monitor,
+                        String sourceDbType) {
+        if (writers.isEmpty()) {
+            throw new IllegalArgumentException("At least one writer is required");
+        }
+        this.batchSize = Math.max(1, batchSize);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.writers = writers;
+        this.monitor = monitor;
+        this.sourceDbType = sourceDbType;
+    }
+
+    /**
+     * Reports every finished batch to the tracker; the result set must be ordered by its key column
+     */
+    public void setCheckpointTracker(CheckpointTracker checkpointTracker) {
+        this.checkpointTracker = checkpointTracker;
+    }
+
+    /**
+     * Records rows rejected by the target; without one they are only counted
+     */
+    public void setDeadLetterWriter(DeadLetterWriter deadLetterWriter) {
+        this.deadLetterWriter = deadLetterWriter;
+    }
+
+    /**
+     * Lets the sizer choose the rows per batch instead of the fixed batch size
+     */
+    public void setBatchSizer(AdaptiveBatchSizer batchSizer) {
+        this.batchSizer = batchSizer;
+    }
+
+    /**
+     * Holds the reader back after each batch until the throttle allows the next fetch
+     */
+    public void setThrottle(Throttle throttle) {
+        this.throttle = throttle;
+    }
+
+    /**
+     * Streams these columns as LOBs even when the driver reports them as ordinary strings or bytes
+     */
+    public void setLobColumns(Collection<String> lobColumns) {
+        this.lobColumns = lobColumns;
+    }
+
+    /**
+     * @param inlineBytes   largest LOB value kept on the heap; larger ones are spilled to temporary files
+     * @param maxBatchBytes LOB bytes after which a batch is sent even if it has room for more rows, 0 for no limit
+     */
+    public void setLobLimits(int inlineBytes, long maxBatchBytes) {
+        this.lobInlineBytes = Math.max(0, inlineBytes);
+        this.lobMaxBatchBytes = maxBatchBytes;
+    }
+
+    /**
+     * Counters of the last {@link #run}. They are also filled in when the run fails, and then
+     * cover the batches that were committed before the failure.
+     */
+    public PipelineStats getStats() {
+        stats.setRowsWritten(rowsWritten.get());
+        stats.setRowsFailed(rowsFailed.get());
+        stats.setBatches(batches.get());
+        stats.setWriteNanos(writeNanos.get());
+        stats.setWriterWaitNanos(writerWaitNanos.get());
+        return stats;
+    }
+
+    /**
+     * Reads every row of the result set on the calling thread and hands the batches to the
+     * writer threads. Returns once all writers have drained the queue.
+     */
+    public PipelineStats run(ResultSet rs) throws SQLException, InterruptedException {
+        // Oracle DATE carries a time of day and must not be truncated to a java.sql.Date
+        layout = ColumnLayout.from(rs.getMetaData(), "oracle".equalsIgnoreCase(sourceDbType), lobColumns);
+        RowCopier.ColumnReader[] readers = RowCopier.readers(layout, lobInlineBytes);
+        for (BatchWriter writer : writers) {
+            writer.init(layout);
+        }
+        BlockingQueue<RowBatch> filled = new ArrayBlockingQueue<>(queueCapacity + writers.size());
+        BlockingQueue<RowBatch> free = new ArrayBlockingQueue<>(queueCapacity + writers.size());
+        int capacity = batchSizer != null ? batchSizer.maxSize() : batchSize;
+        List<RowBatch> allBatches = new ArrayList<>();
+        for (int i = 0; i < queueCapacity + writers.size(); i++) {
+            RowBatch batch = new RowBatch(capacity, layout.kinds());
+            if (layout.hasLobs()) {
+                batch.setByteLimit(lobMaxBatchBytes);
+            }
+            allBatches.add(batch);
+        }
+        free.addAll(allBatches);
+
+        ExecutorService writerThreads = Executors.newFixedThreadPool(writers.size());
+        List<Future<?>> writerFutures = new ArrayList<>();
+        for (BatchWriter writer : writers) {
+            writerFutures.add(writerThreads.submit(() -> runWriter(writer, filled, free)));
+        }
+
+        try {
+            read(rs, readers, filled, free, stats);
+        } catch (SQLException | RuntimeException e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            // Let every writer finish what is already queued, then stop
+            for (int i = 0; i < writers.size(); i++) {
+                offer(filled, END_OF_DATA);
+            }
+            for (Future<?> future : writerFutures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    failure.compareAndSet(null, e.getCause());
+                }
+            }
+            writerThreads.shutdownNow();
+            if (layout.hasLobs()) {
+                // Batches left unwritten after a failure still hold spilled values
+                for (RowBatch batch : allBatches) {
+                    batch.releaseLobs();
+                }
+            }
+        }
+
+        Throwable error = failure.get();
+        if (error instanceof SQLException) {
+            throw (SQLException) error;
+        } else if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        } else if (error != null) {
+            throw new SQLException("Copy pipeline failed: " + error.getMessage(), error);
+        }
+        return getStats();
+    }
+
+    private void read(ResultSet rs, RowCopier.ColumnReader[] readers, BlockingQueue<RowBatch> filled,
+                      BlockingQueue<RowBatch> free, PipelineStats stats) throws SQLException, InterruptedException {
+        long rowsRead = 0;
+        boolean more = true;
+        while (more) {
+            long waitStart = System.nanoTime();
+            RowBatch batch = poll(free);
+            stats.setReaderWaitNanos(stats.getReaderWaitNanos() + System.nanoTime() - waitStart);
+            if (batch == null) {
+                return;
+            }
+
+            monitor.onOperationStart(CopyMonitor.Operation.FETCH);
+            long fetchStart = System.nanoTime();
+            batch.clear();
+            if (batchSizer != null) {
+                batch.setLimit(batchSizer.currentSize());
+            }
+            while (!batch.isFull()) {
+                if (!rs.next()) {
+                    more = false;
+                    break;
+                }
+                int row = batch.size();
+                for (RowCopier.ColumnReader reader : readers) {
+                    reader.read(rs, batch, row);
+                }
+                batch.advance();
+                rowsRead++;
+            }
+            long fetchNanos = System.nanoTime() - fetchStart;
+            stats.setFetchNanos(stats.getFetchNanos() + fetchNanos);
+            stats.setRowsRead(rowsRead);
+            monitor.onFetch(batch.size(), fetchNanos);
+            monitor.onRowsRead(batch.size());
+            if (monitor.isCancelled()) {
+                throw new CancellationException("Migration cancelled");
+            }
+
+            if (batch.isEmpty()) {
+                offer(free, batch);
+                continue;
+            }
+            if (checkpointTracker != null) {
+                checkpointTracker.onBatchRead(batch);
+            }
+            int rows = batch.size();
+            if (!offer(filled, batch)) {
+                return;
+            }
+            // The batch is already with the writers; only the next fetch waits
+            if (throttle != null) {
+                throttle.onFetch(rows, fetchNanos);
+                throttle.acquire(rows, monitor::isCancelled);
+            }
+        }
+    }
+
+    private void runWriter(BatchWriter writer, BlockingQueue<RowBatch> filled, BlockingQueue<RowBatch> free) {
+        RowBatch scratch = null;
+        try {
+            while (true) {
+                long waitStart = System.nanoTime();
+                RowBatch batch = poll(filled);
+                writerWaitNanos.addAndGet(System.nanoTime() - waitStart);
+                if (batch == null || batch == END_OF_DATA) {
+                    return;
+                }
+                if (monitor.isCancelled()) {
+                    throw new CancellationException("Migration cancelled");
+                }
+
+                long writeStart = System.nanoTime();
+                try {
+                    int written = writer.write(batch);
+                    if (batchSizer != null) {
+                        batchSizer.onBatchWritten(batch.size(), batch.limit(), batch.isFull(), System.nanoTime() - writeStart);
+                    }
+                    rowsWritten.addAndGet(written);
+                    monitor.onRowsWritten(written);
+                    if (checkpointTracker != null) {
+                        checkpointTracker.onBatchDone(batch, written, 0);
+                    }
+                } catch (SQLException e) {
+                    writer.rollback();
+                    if (monitor.isCancelled()) {
+                        throw new CancellationException("Migration cancelled");
+                    }
+                    if (isConnectionFailure(e)) {
+                        throw e;
+                    }
+                    log.warn("Failed to write batch of {} rows, isolating rejected rows: {}", batch.size(), e.getMessage());
+                    if (scratch == null) {
+                        scratch = new RowBatch(batch.capacity(), batch.kinds());
+                    }
+                    int written = isolate(writer, batch, scratch, 0, batch.size(), e);
+                    int failed = batch.size() - written;
+                    rowsWritten.addAndGet(written);
+                    rowsFailed.addAndGet(failed);
+                    monitor.onRowsWritten(written);
+                    monitor.onRowsFailed(failed);
+                    if (checkpointTracker != null) {
+                        checkpointTracker.onBatchDone(batch, written, failed);
+                    }
+                }
+                writeNanos.addAndGet(System.nanoTime() - writeStart);
+                batches.incrementAndGet();
+                batch.releaseLobs();
+                offer(free, batch);
+            }
+        } catch (CancellationException e) {
+            failure.compareAndSet(null, e);
+        } catch (SQLException | RuntimeException e) {
+            log.error("Writer stage failed: {}", e.getMessage(), e);
+            failure.compareAndSet(null, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+        }
+    }
+
+    /**
+     * Finds the rejected rows of a failed range by writing each half on its own and splitting
+     * the halves that fail again, so k bad rows among n cost O(k log n) round trips. Rows that
+     * fail on their own go to the dead-letter file.
+     *
+     * @return the number of rows of the range that were written
+     */
+    private int isolate(BatchWriter writer, RowBatch batch, RowBatch scratch, int from, int to,
+                        SQLException cause) throws SQLException {
+        if (to - from == 1) {
+            reject(batch, from, cause);
+            return 0;
+        }
+        int middle = (from + to) >>> 1;
+        return writeOrSplit(writer, batch, scratch, from, middle) + writeOrSplit(writer, batch, scratch, middle, to);
+    }
+
+    private int writeOrSplit(BatchWriter writer, RowBatch batch, RowBatch scratch, int from, int to) throws SQLException {
+        if (monitor.isCancelled()) {
+            throw new CancellationException("Migration cancelled");
+        }
+        // The scratch batch is overwritten by every attempt, so rows are always copied from the original
+        scratch.copyFrom(batch, from, to);
+        try {
+            return writer.write(scratch);
+        } catch (SQLException e) {
+            writer.rollback();
+            if (isConnectionFailure(e)) {
+                throw e;
+            }
+            return isolate(writer, batch, scratch, from, to, e);
+        }
+    }
+
+    private void reject(RowBatch batch, int row, SQLException cause) throws SQLException {
+        if (deadLetterWriter == null) {
+            return;
+        }
+        try {
+            deadLetterWriter.write(layout, batch, row, cause);
+        } catch (IOException e) {
+            throw new SQLException("Failed to write dead-letter file: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Connection-level errors (SQLSTATE class 08) would fail every split, so they end the writer instead
+     */
+    private static boolean isConnectionFailure(SQLException e) {
+        return e.getSQLState() != null && e.getSQLState().startsWith("08");
+    }
+
+    /**
+     * Takes the next batch, giving up when another stage has failed
+     */
+    private RowBatch poll(BlockingQueue<RowBatch> queue) throws InterruptedException {
+        RowBatch batch;
+        while ((batch = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+            if (failure.get() != null) {
+                return null;
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Enqueues a batch, giving up when another stage has failed
+     */
+    private boolean offer(BlockingQueue<RowBatch> queue, RowBatch batch) throws InterruptedException {
+        while (!queue.offer(batch, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (failure.get() != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,97 @@
+package main.java.com.migration.service.copy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Appends rows the target rejected to a JSON Lines file, one object per row with the column
+ * values and the SQLException that rejected it. The file is created on the first rejected row
+ * and shared by every writer of a migration.
+ */
+@Slf4j
+public class DeadLetterWriter implements AutoCloseable {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Path file;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private BufferedWriter out;
+    private long rows;
+
+    public DeadLetterWriter(Path file) {
+        this.file = file;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public synchronized long getRows() {
+        return rows;
+    }
+
+    /**
+     * Records one rejected row
+     */
+    public synchronized void write(ColumnLayout layout, RowBatch batch, int row, SQLException error) throws IOException {
+        if (out == null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+            log.info("Writing rejected rows to {}", file.toAbsolutePath());
+        }
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (int c = 0; c < layout.size(); c++) {
+            values.put(layout.name(c), toText(batch.get(row, c)));
+        }
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("row", values);
+        entry.put("error", error.getMessage());
+        entry.put("sqlState", error.getSQLState());
+        entry.put("errorCode", error.getErrorCode());
+        out.write(objectMapper.writeValueAsString(entry));
+        out.newLine();
+        // Flushed per row so the file is complete even if the process dies
+        out.flush();
+        rows++;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    private static Object toText(Object value) {
+        if (value == null || value instanceof Number && !(value instanceof BigDecimal) || value instanceof Boolean) {
+            return value;
+        }
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).toPlainString();
+        }
+        if (value instanceof LobValue) {
+            // Large documents would make the file unreadable; the source row still has the value
+            return "<" + value + ">";
+        }
+        if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            StringBuilder hex = new StringBuilder(bytes.length * 2);
+            for (byte b : bytes) {
+                hex.append(HEX[(b >> 4) & 0x0f]).append(HEX[b & 0x0f]);
+            }
+            return hex.toString();
+        }
+        return value.toString();
+    }
+}
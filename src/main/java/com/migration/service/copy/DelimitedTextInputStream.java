@@ -0,0 +1,263 @@
+package main.java.com.migration.service.copy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.SQLException;
+
+/**
+ * Streams the rows of a batch as tab-separated text in the format shared by PostgreSQL
+ * {@code COPY ... FROM STDIN} and MySQL {@code LOAD DATA}: NULL is {@code \N} and backslash,
+ * tab, newline and carriage return are backslash-escaped. Rows are encoded one at a time as
+ * the driver reads, so the batch is never rendered as a whole. Spilled {@link LobValue}s are
+ * encoded a chunk at a time, so neither is a row.
+ */
+public class DelimitedTextInputStream extends InputStream {
+
+    /**
+     * How binary values are rendered
+     */
+    public enum BinaryFormat {
+        /** PostgreSQL bytea hex input, e.g. {@code \\x0a0b} */
+        POSTGRES_HEX,
+        /** Plain hex digits, decoded on the MySQL side with UNHEX() */
+        PLAIN_HEX
+    }
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final int LOB_CHUNK_SIZE = 32 * 1024;
+
+    private final RowBatch batch;
+    private final BinaryFormat binaryFormat;
+    private final boolean numericBooleans;
+    private final StringBuilder line = new StringBuilder(256);
+
+    private int nextRow;
+    // Row being encoded and its next column; -1 between rows
+    private int row = -1;
+    private int column;
+    // Spilled LOB of the current row being encoded chunk by chunk
+    private InputStream lobBytes;
+    private Reader lobChars;
+    private byte[] lobByteChunk;
+    private char[] lobCharChunk;
+    private byte[] buffer = new byte[0];
+    private int position;
+
+    public DelimitedTextInputStream(RowBatch batch, BinaryFormat binaryFormat, boolean numericBooleans) {
+        this.batch = batch;
+        this.binaryFormat = binaryFormat;
+        this.numericBooleans = numericBooleans;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return buffer[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] target, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        int copied = 0;
+        while (copied < length && fill()) {
+            int chunk = Math.min(length - copied, buffer.length - position);
+            System.arraycopy(buffer, position, target, offset + copied, chunk);
+            position += chunk;
+            copied += chunk;
+        }
+        return copied == 0 ? -1 : copied;
+    }
+
+    /**
+     * Encodes the next part of the current row once the previous one is used up: the cells up
+     * to and including the next spilled LOB, a chunk of that LOB, or the rest of the row
+     *
+     * @return false when every row has been read
+     */
+    private boolean fill() throws IOException {
+        while (position >= buffer.length) {
+            line.setLength(0);
+            if (lobBytes != null || lobChars != null) {
+                appendLobChunk();
+            } else {
+                if (row < 0) {
+                    if (nextRow >= batch.size()) {
+                        return false;
+                    }
+                    row = nextRow++;
+                    column = 0;
+                }
+                appendCells();
+            }
+            buffer = line.toString().getBytes(StandardCharsets.UTF_8);
+            position = 0;
+        }
+        return true;
+    }
+
+    /**
+     * Appends the remaining cells of the row, stopping after a cell that opened a LOB stream
+     */
+    private void appendCells() throws IOException {
+        while (column < batch.columnCount()) {
+            int c = column++;
+            if (c > 0) {
+                line.append('\t');
+            }
+            appendCell(row, c);
+            if (lobBytes != null || lobChars != null) {
+                return;
+            }
+        }
+        line.append('\n');
+        row = -1;
+    }
+
+    private void appendLobChunk() throws IOException {
+        if (lobBytes != null) {
+            int read = lobBytes.read(lobByteChunk);
+            if (read == -1) {
+                lobBytes.close();
+                lobBytes = null;
+                return;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = lobByteChunk[i];
+                line.append(HEX[(b >> 4) & 0x0f]).append(HEX[b & 0x0f]);
+            }
+        } else {
+            int read = lobChars.read(lobCharChunk, 0, lobCharChunk.length - 1);
+            if (read == -1) {
+                lobChars.close();
+                lobChars = null;
+                return;
+            }
+            // Each chunk is encoded on its own, so a surrogate pair must not be split between two
+            if (Character.isHighSurrogate(lobCharChunk[read - 1])) {
+                int next = lobChars.read();
+                if (next != -1) {
+                    lobCharChunk[read++] = (char) next;
+                }
+            }
+            appendEscaped(lobCharChunk, read);
+        }
+    }
+
+    /**
+     * Appends primitive cells straight from the batch arrays without boxing
+     */
+    private void appendCell(int row, int column) throws IOException {
+        if (batch.isNull(row, column)) {
+            line.append("\\N");
+            return;
+        }
+        switch (batch.kind(column)) {
+            case LONG:
+                line.append(batch.getLong(row, column));
+                break;
+            case DOUBLE:
+                line.append(batch.getDouble(row, column));
+                break;
+            case BOOLEAN:
+                boolean flag = batch.getBoolean(row, column);
+                line.append(numericBooleans ? (flag ? "1" : "0") : (flag ? "true" : "false"));
+                break;
+            default:
+                appendValue(batch.getObject(row, column));
+        }
+    }
+
+    private void appendValue(Object value) throws IOException {
+        try {
+            if (value == null) {
+                line.append("\\N");
+            } else if (value instanceof LobValue) {
+                openLob((LobValue) value);
+            } else if (value instanceof byte[]) {
+                appendBinary((byte[]) value);
+            } else if (value instanceof Blob) {
+                Blob blob = (Blob) value;
+                appendBinary(blob.getBytes(1, (int) blob.length()));
+            } else if (value instanceof Clob) {
+                try (Reader reader = ((Clob) value).getCharacterStream()) {
+                    char[] chars = new char[8192];
+                    int read;
+                    while ((read = reader.read(chars)) != -1) {
+                        appendEscaped(chars, read);
+                    }
+                }
+            } else if (value instanceof Boolean) {
+                boolean flag = (Boolean) value;
+                line.append(numericBooleans ? (flag ? "1" : "0") : (flag ? "true" : "false"));
+            } else if (value instanceof BigDecimal) {
+                line.append(((BigDecimal) value).toPlainString());
+            } else {
+                String text = value.toString();
+                appendEscaped(text.toCharArray(), text.length());
+            }
+        } catch (SQLException e) {
+            throw new IOException("Failed to read LOB value: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Starts streaming a spilled value; its chunks are encoded by the following {@link #fill()} calls
+     */
+    private void openLob(LobValue lob) throws IOException {
+        if (lob.isCharacter()) {
+            if (lobCharChunk == null) {
+                lobCharChunk = new char[LOB_CHUNK_SIZE];
+            }
+            lobChars = lob.openReader();
+        } else {
+            if (binaryFormat == BinaryFormat.POSTGRES_HEX) {
+                line.append("\\\\x");
+            }
+            if (lobByteChunk == null) {
+                lobByteChunk = new byte[LOB_CHUNK_SIZE];
+            }
+            lobBytes = lob.openBinaryStream();
+        }
+    }
+
+    private void appendBinary(byte[] bytes) {
+        if (binaryFormat == BinaryFormat.POSTGRES_HEX) {
+            // The backslash itself must be escaped in the text format
+            line.append("\\\\x");
+        }
+        for (byte b : bytes) {
+            line.append(HEX[(b >> 4) & 0x0f]).append(HEX[b & 0x0f]);
+        }
+    }
+
+    private void appendEscaped(char[] chars, int length) {
+        for (int i = 0; i < length; i++) {
+            char ch = chars[i];
+            switch (ch) {
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                default:
+                    line.append(ch);
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package main.java.com.migration.service.copy;
+
+import java.sql.Statement;
+
+/**
+ * Passes every call on to another monitor; subclasses override the calls they observe
+ */
+public abstract class ForwardingCopyMonitor implements CopyMonitor {
+
+    private final CopyMonitor delegate;
+
+    protected ForwardingCopyMonitor(CopyMonitor delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void onPhase(String phase) {
+        delegate.onPhase(phase);
+    }
+
+    @Override
+    public void onEstimatedTotal(long rows) {
+        delegate.onEstimatedTotal(rows);
+    }
+
+    @Override
+    public void onOperationStart(Operation operation) {
+        delegate.onOperationStart(operation);
+    }
+
+    @Override
+    public void onMetadataLookup(String table, long nanos) {
+        delegate.onMetadataLookup(table, nanos);
+    }
+
+    @Override
+    public void onDdl(String table, String operation, long nanos) {
+        delegate.onDdl(table, operation, nanos);
+    }
+
+    @Override
+    public void onRowsRead(long rows) {
+        delegate.onRowsRead(rows);
+    }
+
+    @Override
+    public void onRowsWritten(long rows) {
+        delegate.onRowsWritten(rows);
+    }
+
+    @Override
+    public void onRowsFailed(long rows) {
+        delegate.onRowsFailed(rows);
+    }
+
+    @Override
+    public void onFetch(int rows, long nanos) {
+        delegate.onFetch(rows, nanos);
+    }
+
+    @Override
+    public void onBatchBound(int rows, long nanos) {
+        delegate.onBatchBound(rows, nanos);
+    }
+
+    @Override
+    public void onBatchExecuted(int rows, long nanos) {
+        delegate.onBatchExecuted(rows, nanos);
+    }
+
+    @Override
+    public void onCommit(long nanos) {
+        delegate.onCommit(nanos);
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return delegate.isCancelled();
+    }
+
+    @Override
+    public void register(Statement statement) {
+        delegate.register(statement);
+    }
+
+    @Override
+    public void unregister(Statement statement) {
+        delegate.unregister(statement);
+    }
+}
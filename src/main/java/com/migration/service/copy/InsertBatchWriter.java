@@ -0,0 +1,84 @@
+package main.java.com.migration.service.copy;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Writes batches through a parameterized INSERT using JDBC statement batching
+ */
+public class InsertBatchWriter implements BatchWriter {
+
+    private final Connection connection;
+    private final PreparedStatement statement;
+    private final CopyMonitor monitor;
+    private RowCopier.ColumnBinder[] binders;
+
+    public InsertBatchWriter(Connection connection, String insertQuery, CopyMonitor monitor) throws SQLException {
+        this.connection = connection;
+        this.monitor = monitor;
+        // Disable auto-commit for batch operations
+        connection.setAutoCommit(false);
+        this.statement = connection.prepareStatement(insertQuery);
+        monitor.register(statement);
+    }
+
+    /**
+     * Builds the typed binders, using the target parameter types where the driver reports them
+     */
+    @Override
+    public void init(ColumnLayout layout) {
+        int[] targetTypes = RowCopier.parameterTypes(statement, layout.size());
+        this.binders = RowCopier.binders(layout, targetTypes);
+    }
+
+    @Override
+    public int write(RowBatch batch) throws SQLException {
+        monitor.onOperationStart(CopyMonitor.Operation.BIND);
+        long bindStart = System.nanoTime();
+        for (int r = 0; r < batch.size(); r++) {
+            for (RowCopier.ColumnBinder binder : binders) {
+                binder.bind(statement, batch, r);
+            }
+            statement.addBatch();
+        }
+        long executeStart = System.nanoTime();
+        monitor.onBatchBound(batch.size(), executeStart - bindStart);
+        monitor.onOperationStart(CopyMonitor.Operation.EXECUTE);
+        int[] results = statement.executeBatch();
+        long commitStart = System.nanoTime();
+        monitor.onBatchExecuted(batch.size(), commitStart - executeStart);
+        monitor.onOperationStart(CopyMonitor.Operation.COMMIT);
+        connection.commit();
+        monitor.onCommit(System.nanoTime() - commitStart);
+        return countUpdates(results);
+    }
+
+    @Override
+    public void rollback() throws SQLException {
+        statement.clearBatch();
+        connection.rollback();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        monitor.unregister(statement);
+        try {
+            statement.close();
+        } finally {
+            connection.close();
+        }
+    }
+
+    /**
+     * Sums batch update counts, counting rows the driver reports as SUCCESS_NO_INFO
+     */
+    static int countUpdates(int[] results) {
+        int count = 0;
+        for (int result : results) {
+            count += result == Statement.SUCCESS_NO_INFO ? 1 : Math.max(result, 0);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,160 @@
+package main.java.com.migration.service.copy;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A BLOB or CLOB value too large to keep on the heap, spilled to a temporary file while it waits
+ * in a {@link RowBatch}. Values up to the inline limit are returned as {@code byte[]} or
+ * {@code String} instead, so small LOBs cost no file I/O.
+ * <p>
+ * The source value is copied through a fixed buffer and the target reads it back as a stream, so
+ * heap use per value is bounded by the buffer. A source LOB stream is only valid until the
+ * cursor moves, which is why the value is copied out at all rather than handed to the writer.
+ * Streams opened for binding stay open until {@link #release()}, after the batch has executed.
+ */
+public final class LobValue {
+
+    private static final String FILE_PREFIX = "migration-lob-";
+
+    private final boolean character;
+    private final Path file;
+    // Bytes for binary values, characters for character values
+    private final long length;
+    private final List<Closeable> openStreams = new ArrayList<>();
+
+    private LobValue(boolean character, Path file, long length) {
+        this.character = character;
+        this.file = file;
+        this.length = length;
+    }
+
+    /**
+     * Copies a binary stream, returning a {@code byte[]} when it fits in {@code inlineLimit} bytes
+     */
+    public static Object readBinary(InputStream in, int inlineLimit, byte[] buffer) throws IOException {
+        try (InputStream source = in) {
+            ByteArrayOutputStream inline = new ByteArrayOutputStream(Math.min(inlineLimit, buffer.length));
+            int read;
+            while ((read = source.read(buffer)) != -1) {
+                if (inline.size() + read <= inlineLimit) {
+                    inline.write(buffer, 0, read);
+                    continue;
+                }
+                // Too large to keep: move what was read so far to a file and stream the rest after it
+                Path file = Files.createTempFile(FILE_PREFIX, ".bin");
+                long length = inline.size() + read;
+                try (OutputStream out = Files.newOutputStream(file)) {
+                    inline.writeTo(out);
+                    out.write(buffer, 0, read);
+                    while ((read = source.read(buffer)) != -1) {
+                        out.write(buffer, 0, read);
+                        length += read;
+                    }
+                } catch (IOException e) {
+                    Files.deleteIfExists(file);
+                    throw e;
+                }
+                return new LobValue(false, file, length);
+            }
+            return inline.toByteArray();
+        }
+    }
+
+    /**
+     * Copies a character stream, returning a {@code String} when it fits in {@code inlineLimit}
+     * characters
+     */
+    public static Object readCharacter(Reader in, int inlineLimit, char[] buffer) throws IOException {
+        try (Reader source = in) {
+            StringBuilder inline = new StringBuilder(Math.min(inlineLimit, buffer.length));
+            int read;
+            while ((read = source.read(buffer)) != -1) {
+                if (inline.length() + read <= inlineLimit) {
+                    inline.append(buffer, 0, read);
+                    continue;
+                }
+                Path file = Files.createTempFile(FILE_PREFIX, ".txt");
+                long length = inline.length() + read;
+                try (Writer out = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+                    out.append(inline);
+                    out.write(buffer, 0, read);
+                    while ((read = source.read(buffer)) != -1) {
+                        out.write(buffer, 0, read);
+                        length += read;
+                    }
+                } catch (IOException e) {
+                    Files.deleteIfExists(file);
+                    throw e;
+                }
+                return new LobValue(true, file, length);
+            }
+            return inline.toString();
+        }
+    }
+
+    public boolean isCharacter() {
+        return character;
+    }
+
+    /**
+     * Length in bytes for binary values and in characters for character values
+     */
+    public long length() {
+        return length;
+    }
+
+    /**
+     * Opens the content for binding; closed by {@link #release()}
+     */
+    public synchronized InputStream openBinaryStream() throws IOException {
+        InputStream in = Files.newInputStream(file);
+        openStreams.add(in);
+        return in;
+    }
+
+    /**
+     * Opens the content for binding; closed by {@link #release()}
+     */
+    public synchronized Reader openReader() throws IOException {
+        Reader reader = new BufferedReader(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+        openStreams.add(reader);
+        return reader;
+    }
+
+    /**
+     * Closes the streams opened for binding and deletes the file
+     */
+    public synchronized void release() {
+        for (Closeable stream : openStreams) {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                // Nothing more to do with a stream that is being discarded
+            }
+        }
+        openStreams.clear();
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            file.toFile().deleteOnExit();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return (character ? "CLOB" : "BLOB") + " of " + length + (character ? " characters" : " bytes");
+    }
+}
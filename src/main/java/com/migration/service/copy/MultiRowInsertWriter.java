@@ -0,0 +1,214 @@
+package main.java.com.migration.service.copy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes batches as multi-row INSERT statements for drivers that send every
+ * {@code addBatch()} as its own single-row INSERT. Each statement carries as many rows as the
+ * target's bind parameter limit allows; the statement for a full chunk and those for tail
+ * chunks are prepared once and reused.
+ * <p>
+ * Syntax per dialect: {@code VALUES (...), (...)} for PostgreSQL, MySQL and SQL Server,
+ * {@code INSERT ALL INTO ... SELECT 1 FROM DUAL} for Oracle and
+ * {@code SELECT ... FROM DUMMY UNION ALL ...} for SAP HANA.
+ */
+@Slf4j
+public class MultiRowInsertWriter implements BatchWriter {
+
+    // Tail sizes vary only when batch sizes do, so a handful of cached statements is enough
+    private static final int MAX_CACHED_TAIL_STATEMENTS = 4;
+
+    private final Connection connection;
+    private final String dbType;
+    private final String targetTable;
+    private final List<String> columns;
+    private final CopyMonitor monitor;
+    private final Map<Integer, PreparedStatement> tailStatements = new HashMap<>();
+
+    private PreparedStatement fullStatement;
+    private int rowsPerStatement;
+    private RowCopier.ColumnBinder[][] binders;
+
+    public MultiRowInsertWriter(Connection connection, String targetDbType, String targetTable,
+                                List<String> columns, CopyMonitor monitor) throws SQLException {
+        this.connection = connection;
+        this.dbType = targetDbType == null ? "" : targetDbType.toLowerCase();
+        this.targetTable = targetTable;
+        this.columns = columns;
+        this.monitor = monitor;
+        connection.setAutoCommit(false);
+    }
+
+    /**
+     * Returns the largest number of bind parameters a single statement may carry on the target
+     */
+    static int maxParameters(String dbType) {
+        switch (dbType) {
+            case "sqlserver":
+                // 2100 includes the parameters sp_prepexec and sp_executesql add themselves
+                return 2098;
+            case "postgresql":
+                return 32767;
+            case "oracle":
+            case "mysql":
+                return 65535;
+            case "hana":
+                return 32767;
+            default:
+                return 2000;
+        }
+    }
+
+    /**
+     * Returns the largest number of rows a single statement may carry on the target
+     */
+    static int maxRows(String dbType) {
+        switch (dbType) {
+            case "sqlserver":
+                // Limit of a table value constructor
+                return 1000;
+            case "oracle":
+            case "hana":
+                // Long INSERT ALL / UNION ALL statements parse slowly
+                return 500;
+            default:
+                return 5000;
+        }
+    }
+
+    /**
+     * Builds an INSERT for the given number of rows in the target's multi-row syntax
+     */
+    static String buildStatement(String dbType, String targetTable, List<String> columns, int rows) {
+        String columnList = String.join(", ", columns);
+        StringBuilder placeholders = new StringBuilder();
+        for (int i = 0; i < columns.size(); i++) {
+            placeholders.append(i == 0 ? "?" : ", ?");
+        }
+
+        StringBuilder query = new StringBuilder();
+        switch (dbType) {
+            case "oracle":
+                query.append("INSERT ALL");
+                for (int r = 0; r < rows; r++) {
+                    query.append(" INTO ").append(targetTable).append(" (").append(columnList)
+                            .append(") VALUES (").append(placeholders).append(")");
+                }
+                query.append(" SELECT 1 FROM DUAL");
+                break;
+            case "hana":
+                query.append("INSERT INTO ").append(targetTable).append(" (").append(columnList).append(") ");
+                for (int r = 0; r < rows; r++) {
+                    if (r > 0) {
+                        query.append(" UNION ALL ");
+                    }
+                    query.append("SELECT ").append(placeholders).append(" FROM DUMMY");
+                }
+                break;
+            default:
+                query.append("INSERT INTO ").append(targetTable).append(" (").append(columnList).append(") VALUES ");
+                for (int r = 0; r < rows; r++) {
+                    if (r > 0) {
+                        query.append(", ");
+                    }
+                    query.append("(").append(placeholders).append(")");
+                }
+                break;
+        }
+        return query.toString();
+    }
+
+    @Override
+    public void init(ColumnLayout layout) throws SQLException {
+        int columnCount = Math.max(1, columns.size());
+        rowsPerStatement = Math.max(1, Math.min(maxRows(dbType), maxParameters(dbType) / columnCount));
+        fullStatement = prepare(rowsPerStatement);
+
+        int[] targetTypes = RowCopier.parameterTypes(fullStatement, columns.size());
+        binders = new RowCopier.ColumnBinder[rowsPerStatement][];
+        for (int r = 0; r < rowsPerStatement; r++) {
+            binders[r] = RowCopier.binders(layout, targetTypes, 1 + r * columns.size());
+        }
+        log.debug("Writing up to {} rows per INSERT into {} ({})", rowsPerStatement, targetTable, dbType);
+    }
+
+    @Override
+    public int write(RowBatch batch) throws SQLException {
+        int written = 0;
+        for (int start = 0; start < batch.size(); start += rowsPerStatement) {
+            int rows = Math.min(rowsPerStatement, batch.size() - start);
+            PreparedStatement statement = rows == rowsPerStatement ? fullStatement : tailStatement(rows);
+            monitor.onOperationStart(CopyMonitor.Operation.BIND);
+            long bindStart = System.nanoTime();
+            for (int r = 0; r < rows; r++) {
+                for (RowCopier.ColumnBinder binder : binders[r]) {
+                    binder.bind(statement, batch, start + r);
+                }
+            }
+            long executeStart = System.nanoTime();
+            monitor.onBatchBound(rows, executeStart - bindStart);
+            monitor.onOperationStart(CopyMonitor.Operation.EXECUTE);
+            int updated = statement.executeUpdate();
+            monitor.onBatchExecuted(rows, System.nanoTime() - executeStart);
+            // Some drivers report INSERT ALL / UNION ALL inserts without a row count
+            written += updated > 0 ? updated : rows;
+        }
+        monitor.onOperationStart(CopyMonitor.Operation.COMMIT);
+        long commitStart = System.nanoTime();
+        connection.commit();
+        monitor.onCommit(System.nanoTime() - commitStart);
+        return written;
+    }
+
+    @Override
+    public void rollback() throws SQLException {
+        connection.rollback();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            closeStatement(fullStatement);
+            for (PreparedStatement statement : tailStatements.values()) {
+                closeStatement(statement);
+            }
+        } finally {
+            connection.close();
+        }
+    }
+
+    private PreparedStatement tailStatement(int rows) throws SQLException {
+        PreparedStatement statement = tailStatements.get(rows);
+        if (statement == null) {
+            if (tailStatements.size() >= MAX_CACHED_TAIL_STATEMENTS) {
+                for (PreparedStatement cached : tailStatements.values()) {
+                    closeStatement(cached);
+                }
+                tailStatements.clear();
+            }
+            statement = prepare(rows);
+            tailStatements.put(rows, statement);
+        }
+        return statement;
+    }
+
+    private PreparedStatement prepare(int rows) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(buildStatement(dbType, targetTable, columns, rows));
+        monitor.register(statement);
+        return statement;
+    }
+
+    private void closeStatement(PreparedStatement statement) throws SQLException {
+        if (statement != null) {
+            monitor.unregister(statement);
+            statement.close();
+        }
+    }
+}
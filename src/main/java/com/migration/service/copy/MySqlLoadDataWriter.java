@@ -0,0 +1,134 @@
+package main.java.com.migration.service.copy;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes batches with MySQL {@code LOAD DATA LOCAL INFILE}, feeding the rows from an in-memory
+ * stream instead of a file. If the server has local infile disabled, the writer switches to
+ * batched INSERTs for the rest of the copy. A batch the server loads only in part fails as a
+ * whole, since the skipped rows are only reported as warnings.
+ */
+@Slf4j
+public class MySqlLoadDataWriter implements BatchWriter {
+
+    // ER_CLIENT_LOCAL_FILES_DISABLED and ER_NOT_ALLOWED_COMMAND
+    private static final int LOCAL_INFILE_DISABLED = 3948;
+    private static final int COMMAND_NOT_ALLOWED = 1148;
+
+    private final Connection connection;
+    private final Statement statement;
+    private final String targetTable;
+    private final List<String> columns;
+    private final String insertQuery;
+    private final CopyMonitor monitor;
+
+    private ColumnLayout layout;
+    private String loadSql;
+    private BatchWriter fallback;
+
+    public MySqlLoadDataWriter(Connection connection, String targetTable, List<String> columns,
+                               String insertQuery, CopyMonitor monitor) throws SQLException {
+        this.connection = connection;
+        this.targetTable = targetTable;
+        this.columns = columns;
+        this.insertQuery = insertQuery;
+        this.monitor = monitor;
+        connection.setAutoCommit(false);
+        this.statement = connection.createStatement();
+        monitor.register(statement);
+    }
+
+    @Override
+    public void init(ColumnLayout layout) throws SQLException {
+        this.layout = layout;
+        // Binary columns travel as hex and are decoded with UNHEX() into the real column
+        List<String> targets = new ArrayList<>();
+        List<String> assignments = new ArrayList<>();
+        for (int i = 0; i < columns.size(); i++) {
+            if (isBinary(layout.type(i))) {
+                targets.add("@c" + i);
+                assignments.add(columns.get(i) + " = UNHEX(@c" + i + ")");
+            } else {
+                targets.add(columns.get(i));
+            }
+        }
+        loadSql = "LOAD DATA LOCAL INFILE 'stream' INTO TABLE " + targetTable
+                + " CHARACTER SET utf8mb4 (" + String.join(", ", targets) + ")"
+                + (assignments.isEmpty() ? "" : " SET " + String.join(", ", assignments));
+    }
+
+    @Override
+    public int write(RowBatch batch) throws SQLException {
+        if (fallback != null) {
+            return fallback.write(batch);
+        }
+        try {
+            statement.unwrap(JdbcStatement.class).setLocalInfileInputStream(
+                    new DelimitedTextInputStream(batch, DelimitedTextInputStream.BinaryFormat.PLAIN_HEX, true));
+            monitor.onOperationStart(CopyMonitor.Operation.EXECUTE);
+            long executeStart = System.nanoTime();
+            int loaded = statement.executeUpdate(loadSql);
+            long commitStart = System.nanoTime();
+            monitor.onBatchExecuted(batch.size(), commitStart - executeStart);
+            if (loaded != batch.size()) {
+                // LOCAL implies IGNORE: rejected rows are only warnings, so fail the batch and let the
+                // pipeline isolate them
+                SQLWarning warning = statement.getWarnings();
+                connection.rollback();
+                throw new SQLException("LOAD DATA loaded " + loaded + " of " + batch.size() + " rows"
+                        + (warning != null ? ": " + warning.getMessage() : ""), warning);
+            }
+            monitor.onOperationStart(CopyMonitor.Operation.COMMIT);
+            connection.commit();
+            monitor.onCommit(System.nanoTime() - commitStart);
+            return loaded;
+        } catch (SQLException e) {
+            if (e.getErrorCode() != LOCAL_INFILE_DISABLED && e.getErrorCode() != COMMAND_NOT_ALLOWED) {
+                throw e;
+            }
+            log.warn("LOAD DATA LOCAL INFILE is not allowed ({}), falling back to batched INSERT", e.getMessage());
+            connection.rollback();
+            fallback = new InsertBatchWriter(connection, insertQuery, monitor);
+            fallback.init(layout);
+            return fallback.write(batch);
+        }
+    }
+
+    @Override
+    public void rollback() throws SQLException {
+        if (fallback != null) {
+            fallback.rollback();
+        } else {
+            connection.rollback();
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        monitor.unregister(statement);
+        try {
+            statement.close();
+        } finally {
+            // The fallback shares the connection and closes it
+            if (fallback != null) {
+                fallback.close();
+            } else {
+                connection.close();
+            }
+        }
+    }
+
+    private static boolean isBinary(int sqlType) {
+        return sqlType == Types.BINARY || sqlType == Types.VARBINARY || sqlType == Types.LONGVARBINARY
+                || sqlType == Types.BLOB;
+    }
+}
@@ -0,0 +1,20 @@
+package main.java.com.migration.service.copy;
+
+import lombok.Data;
+
+/**
+ * Counters collected by one run of the copy pipeline. Reader wait is time the reader spent
+ * blocked on a full buffer (the target is the bottleneck); writer wait is time the writers
+ * spent idle on an empty buffer (the source is the bottleneck).
+ */
+@Data
+public class PipelineStats {
+    private long rowsRead;
+    private long rowsWritten;
+    private long rowsFailed;
+    private long batches;
+    private long fetchNanos;
+    private long readerWaitNanos;
+    private long writeNanos;
+    private long writerWaitNanos;
+}
@@ -0,0 +1,57 @@
+package main.java.com.migration.service.copy;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Writes batches with PostgreSQL {@code COPY ... FROM STDIN}, streaming the rows as text
+ */
+public class PostgresCopyWriter implements BatchWriter {
+
+    private final Connection connection;
+    private final CopyManager copyManager;
+    private final String copySql;
+    private final CopyMonitor monitor;
+
+    public PostgresCopyWriter(Connection connection, String targetTable, List<String> columns,
+                              CopyMonitor monitor) throws SQLException {
+        this.connection = connection;
+        this.monitor = monitor;
+        this.copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+        this.copySql = "COPY " + targetTable + " (" + String.join(", ", columns) + ") FROM STDIN";
+        connection.setAutoCommit(false);
+    }
+
+    @Override
+    public int write(RowBatch batch) throws SQLException {
+        try {
+            monitor.onOperationStart(CopyMonitor.Operation.EXECUTE);
+            long executeStart = System.nanoTime();
+            long copied = copyManager.copyIn(copySql,
+                    new DelimitedTextInputStream(batch, DelimitedTextInputStream.BinaryFormat.POSTGRES_HEX, false));
+            long commitStart = System.nanoTime();
+            monitor.onBatchExecuted(batch.size(), commitStart - executeStart);
+            monitor.onOperationStart(CopyMonitor.Operation.COMMIT);
+            connection.commit();
+            monitor.onCommit(System.nanoTime() - commitStart);
+            return (int) copied;
+        } catch (IOException e) {
+            throw new SQLException("COPY failed: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void rollback() throws SQLException {
+        connection.rollback();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        connection.close();
+    }
+}
@@ -0,0 +1,249 @@
+package main.java.com.migration.service.copy;
+
+import java.util.Arrays;
+
+/**
+ * A reusable block of rows passed from the reader stage to a writer stage.
+ * <p>
+ * Values are stored column by column: LONG and BOOLEAN columns in {@code long[]}, DOUBLE
+ * columns in {@code double[]} and everything else in {@code Object[]}, with a separate null
+ * flag per cell. Batches are recycled through the pipeline so these arrays are allocated once.
+ * <p>
+ * Batches with LOB columns also stop filling once the LOB bytes read reach the byte limit, so a
+ * run of large documents cannot multiply the batch size by the document size.
+ */
+public class RowBatch {
+
+    private final ColumnKind[] kinds;
+    private final long[][] longs;
+    private final double[][] doubles;
+    private final Object[][] objects;
+    private final boolean[][] nulls;
+    private final int capacity;
+    private int limit;
+    private int size;
+    private long sequence;
+    private long byteLimit = Long.MAX_VALUE;
+    private long bytes;
+
+    public RowBatch(int capacity, ColumnKind[] kinds) {
+        this.capacity = capacity;
+        this.limit = capacity;
+        this.kinds = kinds;
+        this.longs = new long[kinds.length][];
+        this.doubles = new double[kinds.length][];
+        this.objects = new Object[kinds.length][];
+        this.nulls = new boolean[kinds.length][capacity];
+        for (int c = 0; c < kinds.length; c++) {
+            switch (kinds[c]) {
+                case LONG:
+                case BOOLEAN:
+                    longs[c] = new long[capacity];
+                    break;
+                case DOUBLE:
+                    doubles[c] = new double[capacity];
+                    break;
+                default:
+                    objects[c] = new Object[capacity];
+            }
+        }
+    }
+
+    public ColumnKind kind(int column) {
+        return kinds[column];
+    }
+
+    public int columnCount() {
+        return kinds.length;
+    }
+
+    public boolean isNull(int row, int column) {
+        return nulls[column][row];
+    }
+
+    public void setNull(int row, int column) {
+        nulls[column][row] = true;
+        if (objects[column] != null) {
+            objects[column][row] = null;
+        }
+    }
+
+    public long getLong(int row, int column) {
+        return longs[column][row];
+    }
+
+    public void setLong(int row, int column, long value) {
+        longs[column][row] = value;
+        nulls[column][row] = false;
+    }
+
+    public boolean getBoolean(int row, int column) {
+        return longs[column][row] != 0;
+    }
+
+    public void setBoolean(int row, int column, boolean value) {
+        longs[column][row] = value ? 1 : 0;
+        nulls[column][row] = false;
+    }
+
+    public double getDouble(int row, int column) {
+        return doubles[column][row];
+    }
+
+    public void setDouble(int row, int column, double value) {
+        doubles[column][row] = value;
+        nulls[column][row] = false;
+    }
+
+    public Object getObject(int row, int column) {
+        return objects[column][row];
+    }
+
+    public void setObject(int row, int column, Object value) {
+        objects[column][row] = value;
+        nulls[column][row] = value == null;
+    }
+
+    /**
+     * Returns the value of any column as an object, boxing primitives. Only for writers that
+     * need objects; the INSERT path binds through the typed getters instead.
+     */
+    public Object get(int row, int column) {
+        if (nulls[column][row]) {
+            return null;
+        }
+        switch (kinds[column]) {
+            case LONG:
+                return longs[column][row];
+            case BOOLEAN:
+                return longs[column][row] != 0;
+            case DOUBLE:
+                return doubles[column][row];
+            default:
+                return objects[column][row];
+        }
+    }
+
+    public ColumnKind[] kinds() {
+        return kinds.clone();
+    }
+
+    /**
+     * Replaces the contents of this batch with rows {@code from} (inclusive) to {@code to}
+     * (exclusive) of another batch with the same column kinds
+     */
+    public void copyFrom(RowBatch source, int from, int to) {
+        int count = to - from;
+        for (int c = 0; c < kinds.length; c++) {
+            if (longs[c] != null) {
+                System.arraycopy(source.longs[c], from, longs[c], 0, count);
+            } else if (doubles[c] != null) {
+                System.arraycopy(source.doubles[c], from, doubles[c], 0, count);
+            } else {
+                System.arraycopy(source.objects[c], from, objects[c], 0, count);
+            }
+            System.arraycopy(source.nulls[c], from, nulls[c], 0, count);
+        }
+        size = count;
+    }
+
+    /**
+     * Marks the row at {@link #size()} as filled
+     */
+    public void advance() {
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isFull() {
+        return size >= limit || bytes >= byteLimit;
+    }
+
+    /**
+     * Rows that make the batch full, see {@link #setLimit}
+     */
+    public int limit() {
+        return limit;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Sets how many rows make the batch full, at most its capacity. Lowering the limit drops the
+     * references held beyond it so a smaller batch does not keep larger values alive.
+     */
+    public void setLimit(int limit) {
+        int newLimit = Math.max(1, Math.min(limit, capacity));
+        if (newLimit < this.limit) {
+            for (Object[] column : objects) {
+                if (column != null) {
+                    Arrays.fill(column, newLimit, this.limit, null);
+                }
+            }
+        }
+        this.limit = newLimit;
+    }
+
+    /**
+     * Sets how many LOB bytes make the batch full; at least one row is always taken
+     */
+    public void setByteLimit(long byteLimit) {
+        this.byteLimit = byteLimit > 0 ? byteLimit : Long.MAX_VALUE;
+    }
+
+    /**
+     * Counts LOB bytes read into the batch towards the byte limit
+     */
+    public void addBytes(long count) {
+        bytes += count;
+    }
+
+    public long bytes() {
+        return bytes;
+    }
+
+    /**
+     * Deletes the spilled LOB values held by the batch, including one read into a row that was
+     * never completed. Only the batch a value was read into may release it; batches filled with
+     * {@link #copyFrom} share the values.
+     */
+    public void releaseLobs() {
+        for (int c = 0; c < kinds.length; c++) {
+            if (!kinds[c].isLob()) {
+                continue;
+            }
+            for (int r = 0; r < objects[c].length; r++) {
+                Object value = objects[c][r];
+                if (value instanceof LobValue) {
+                    ((LobValue) value).release();
+                    objects[c][r] = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Position of the batch in read order, assigned when checkpointing
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public void clear() {
+        size = 0;
+        bytes = 0;
+    }
+}
@@ -0,0 +1,347 @@
+package main.java.com.migration.service.copy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Builds the typed per-column accessors used on the copy hot path. Readers move a value from
+ * the source result set into a {@link RowBatch} with the matching typed getter and
+ * {@code wasNull()}; binders move it from the batch into the target statement with the matching
+ * typed setter, applying cross-dialect conversions such as BOOLEAN to a numeric column.
+ * LOB columns are read and bound as streams, see {@link LobValue}.
+ */
+public final class RowCopier {
+
+    /**
+     * Largest LOB value kept on the heap when no limit is given
+     */
+    public static final int DEFAULT_LOB_INLINE_BYTES = 1024 * 1024;
+
+    private static final int LOB_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Reads one column of the current source row into the batch
+     */
+    @FunctionalInterface
+    public interface ColumnReader {
+        void read(ResultSet rs, RowBatch batch, int row) throws SQLException;
+    }
+
+    /**
+     * Binds one column of a batch row to a statement parameter
+     */
+    @FunctionalInterface
+    public interface ColumnBinder {
+        void bind(PreparedStatement statement, RowBatch batch, int row) throws SQLException;
+    }
+
+    private RowCopier() {
+    }
+
+    /**
+     * Builds readers that keep LOB values up to {@code lobInlineBytes} on the heap and spill
+     * larger ones to temporary files. The readers must only be used by one thread.
+     */
+    public static ColumnReader[] readers(ColumnLayout layout, int lobInlineBytes) {
+        ColumnReader[] readers = new ColumnReader[layout.size()];
+        for (int c = 0; c < readers.length; c++) {
+            readers[c] = reader(layout.kind(c), c, lobInlineBytes);
+        }
+        return readers;
+    }
+
+    /**
+     * Builds binders for parameters 1..n of the statement
+     *
+     * @param targetTypes JDBC types of the target parameters, or null if the driver does not report them
+     */
+    public static ColumnBinder[] binders(ColumnLayout layout, int[] targetTypes) {
+        return binders(layout, targetTypes, 1);
+    }
+
+    /**
+     * Builds binders for parameters starting at {@code firstParameter}, for statements that
+     * bind several rows at once
+     */
+    public static ColumnBinder[] binders(ColumnLayout layout, int[] targetTypes, int firstParameter) {
+        ColumnBinder[] binders = new ColumnBinder[layout.size()];
+        for (int c = 0; c < binders.length; c++) {
+            int targetType = targetTypes != null && c < targetTypes.length ? targetTypes[c] : Types.OTHER;
+            binders[c] = binder(layout.kind(c), c, firstParameter + c, layout.type(c), targetType);
+        }
+        return binders;
+    }
+
+    /**
+     * Returns the parameter types the driver reports for the statement, or null when it
+     * cannot describe them
+     */
+    public static int[] parameterTypes(PreparedStatement statement, int count) {
+        try {
+            ParameterMetaData metaData = statement.getParameterMetaData();
+            int[] types = new int[count];
+            for (int i = 0; i < count; i++) {
+                types[i] = metaData.getParameterType(i + 1);
+            }
+            return types;
+        } catch (SQLException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static ColumnReader reader(ColumnKind kind, int column, int lobInlineBytes) {
+        int index = column + 1;
+        switch (kind) {
+            case LONG:
+                return (rs, batch, row) -> {
+                    long value = rs.getLong(index);
+                    if (rs.wasNull()) {
+                        batch.setNull(row, column);
+                    } else {
+                        batch.setLong(row, column, value);
+                    }
+                };
+            case DOUBLE:
+                return (rs, batch, row) -> {
+                    double value = rs.getDouble(index);
+                    if (rs.wasNull()) {
+                        batch.setNull(row, column);
+                    } else {
+                        batch.setDouble(row, column, value);
+                    }
+                };
+            case BOOLEAN:
+                return (rs, batch, row) -> {
+                    boolean value = rs.getBoolean(index);
+                    if (rs.wasNull()) {
+                        batch.setNull(row, column);
+                    } else {
+                        batch.setBoolean(row, column, value);
+                    }
+                };
+            case DECIMAL:
+                return (rs, batch, row) -> batch.setObject(row, column, rs.getBigDecimal(index));
+            case STRING:
+                return (rs, batch, row) -> batch.setObject(row, column, rs.getString(index));
+            case TIMESTAMP:
+                return (rs, batch, row) -> batch.setObject(row, column, rs.getTimestamp(index));
+            case DATE:
+                return (rs, batch, row) -> batch.setObject(row, column, rs.getDate(index));
+            case TIME:
+                return (rs, batch, row) -> batch.setObject(row, column, rs.getTime(index));
+            case BYTES:
+                return (rs, batch, row) -> batch.setObject(row, column, rs.getBytes(index));
+            case BINARY_LOB: {
+                byte[] buffer = new byte[LOB_BUFFER_SIZE];
+                return (rs, batch, row) -> {
+                    InputStream in = rs.getBinaryStream(index);
+                    if (in == null) {
+                        batch.setNull(row, column);
+                        return;
+                    }
+                    Object value;
+                    try {
+                        value = LobValue.readBinary(in, lobInlineBytes, buffer);
+                    } catch (IOException e) {
+                        throw new SQLException("Failed to read LOB column " + index + ": " + e.getMessage(), e);
+                    }
+                    batch.setObject(row, column, value);
+                    batch.addBytes(value instanceof LobValue ? ((LobValue) value).length() : ((byte[]) value).length);
+                };
+            }
+            case CHARACTER_LOB: {
+                char[] buffer = new char[LOB_BUFFER_SIZE];
+                return (rs, batch, row) -> {
+                    Reader in = rs.getCharacterStream(index);
+                    if (in == null) {
+                        batch.setNull(row, column);
+                        return;
+                    }
+                    Object value;
+                    try {
+                        value = LobValue.readCharacter(in, lobInlineBytes, buffer);
+                    } catch (IOException e) {
+                        throw new SQLException("Failed to read LOB column " + index + ": " + e.getMessage(), e);
+                    }
+                    batch.setObject(row, column, value);
+                    batch.addBytes(value instanceof LobValue ? ((LobValue) value).length() : ((String) value).length());
+                };
+            }
+            default:
+                return (rs, batch, row) -> batch.setObject(row, column, rs.getObject(index));
+        }
+    }
+
+    private static ColumnBinder binder(ColumnKind kind, int column, int parameter, int sourceType, int targetType) {
+        int nullType = targetType != Types.OTHER && targetType != Types.VARCHAR ? targetType : sourceType;
+        switch (kind) {
+            case LONG:
+                if (targetType == Types.BOOLEAN || targetType == Types.BIT) {
+                    return (ps, batch, row) -> {
+                        if (batch.isNull(row, column)) {
+                            ps.setNull(parameter, nullType);
+                        } else {
+                            ps.setBoolean(parameter, batch.getLong(row, column) != 0);
+                        }
+                    };
+                }
+                return (ps, batch, row) -> {
+                    if (batch.isNull(row, column)) {
+                        ps.setNull(parameter, nullType);
+                    } else {
+                        ps.setLong(parameter, batch.getLong(row, column));
+                    }
+                };
+            case DOUBLE:
+                return (ps, batch, row) -> {
+                    if (batch.isNull(row, column)) {
+                        ps.setNull(parameter, nullType);
+                    } else {
+                        ps.setDouble(parameter, batch.getDouble(row, column));
+                    }
+                };
+            case BOOLEAN:
+                if (isNumeric(targetType)) {
+                    // e.g. BOOLEAN into TINYINT(1) or Oracle NUMBER(1)
+                    return (ps, batch, row) -> {
+                        if (batch.isNull(row, column)) {
+                            ps.setNull(parameter, nullType);
+                        } else {
+                            ps.setInt(parameter, batch.getBoolean(row, column) ? 1 : 0);
+                        }
+                    };
+                }
+                return (ps, batch, row) -> {
+                    if (batch.isNull(row, column)) {
+                        ps.setNull(parameter, nullType);
+                    } else {
+                        ps.setBoolean(parameter, batch.getBoolean(row, column));
+                    }
+                };
+            case DECIMAL:
+                return (ps, batch, row) -> {
+                    if (batch.isNull(row, column)) {
+                        ps.setNull(parameter, nullType);
+                    } else {
+                        ps.setBigDecimal(parameter, (java.math.BigDecimal) batch.getObject(row, column));
+                    }
+                };
+            case STRING:
+                return (ps, batch, row) -> {
+                    if (batch.isNull(row, column)) {
+                        ps.setNull(parameter, nullType);
+                    } else {
+                        ps.setString(parameter, (String) batch.getObject(row, column));
+                    }
+                };
+            case TIMESTAMP:
+                return (ps, batch, row) -> {
+                    if (batch.isNull(row, column)) {
+                        ps.setNull(parameter, nullType);
+                    } else {
+                        ps.setTimestamp(parameter, (java.sql.Timestamp) batch.getObject(row, column));
+                    }
+                };
+            case DATE:
+                return (ps, batch, row) -> {
+                    if (batch.isNull(row, column)) {
+                        ps.setNull(parameter, nullType);
+                    } else {
+                        ps.setDate(parameter, (java.sql.Date) batch.getObject(row, column));
+                    }
+                };
+            case TIME:
+                return (ps, batch, row) -> {
+                    if (batch.isNull(row, column)) {
+                        ps.setNull(parameter, nullType);
+                    } else {
+                        ps.setTime(parameter, (java.sql.Time) batch.getObject(row, column));
+                    }
+                };
+            case BYTES:
+                return (ps, batch, row) -> {
+                    if (batch.isNull(row, column)) {
+                        ps.setNull(parameter, nullType);
+                    } else {
+                        ps.setBytes(parameter, (byte[]) batch.getObject(row, column));
+                    }
+                };
+            case BINARY_LOB:
+                return (ps, batch, row) -> {
+                    if (batch.isNull(row, column)) {
+                        ps.setNull(parameter, nullType);
+                        return;
+                    }
+                    Object value = batch.getObject(row, column);
+                    if (value instanceof LobValue) {
+                        LobValue lob = (LobValue) value;
+                        ps.setBinaryStream(parameter, openBinaryStream(lob), lob.length());
+                    } else {
+                        ps.setBytes(parameter, (byte[]) value);
+                    }
+                };
+            case CHARACTER_LOB:
+                return (ps, batch, row) -> {
+                    if (batch.isNull(row, column)) {
+                        ps.setNull(parameter, nullType);
+                        return;
+                    }
+                    Object value = batch.getObject(row, column);
+                    if (value instanceof LobValue) {
+                        LobValue lob = (LobValue) value;
+                        ps.setCharacterStream(parameter, openReader(lob), lob.length());
+                    } else {
+                        ps.setString(parameter, (String) value);
+                    }
+                };
+            default:
+                return (ps, batch, row) -> {
+                    if (batch.isNull(row, column)) {
+                        ps.setNull(parameter, nullType);
+                    } else {
+                        ps.setObject(parameter, batch.getObject(row, column));
+                    }
+                };
+        }
+    }
+
+    /**
+     * Opens a fresh stream per bind, so a batch retried while isolating rejected rows reads the
+     * value again from the start
+     */
+    private static InputStream openBinaryStream(LobValue lob) throws SQLException {
+        try {
+            return lob.openBinaryStream();
+        } catch (IOException e) {
+            throw new SQLException("Failed to open spilled LOB: " + e.getMessage(), e);
+        }
+    }
+
+    private static Reader openReader(LobValue lob) throws SQLException {
+        try {
+            return lob.openReader();
+        } catch (IOException e) {
+            throw new SQLException("Failed to open spilled LOB: " + e.getMessage(), e);
+        }
+    }
+
+    private static boolean isNumeric(int sqlType) {
+        switch (sqlType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                return true;
+            default:
+                return false;
+        }
+    }
+}
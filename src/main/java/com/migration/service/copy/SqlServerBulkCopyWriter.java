@@ -0,0 +1,185 @@
+package main.java.com.migration.service.copy;
+
+import com.microsoft.sqlserver.jdbc.ISQLServerBulkData;
+import com.microsoft.sqlserver.jdbc.SQLServerBulkCopy;
+import com.microsoft.sqlserver.jdbc.SQLServerBulkCopyOptions;
+import com.microsoft.sqlserver.jdbc.SQLServerConnection;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes batches with {@link SQLServerBulkCopy}, reading the rows straight out of the batch.
+ * The bulk copy API only takes whole values, so tables with LOB columns are written with
+ * batched INSERTs instead, which bind spilled values as streams.
+ */
+@Slf4j
+public class SqlServerBulkCopyWriter implements BatchWriter {
+
+    private final Connection connection;
+    private final String targetTable;
+    private final List<String> columns;
+    private final String insertQuery;
+    private final CopyMonitor monitor;
+    private ColumnLayout layout;
+    private BatchWriter fallback;
+
+    public SqlServerBulkCopyWriter(Connection connection, String targetTable, List<String> columns,
+                                   String insertQuery, CopyMonitor monitor) throws SQLException {
+        this.connection = connection;
+        this.targetTable = targetTable;
+        this.columns = columns;
+        this.insertQuery = insertQuery;
+        this.monitor = monitor;
+        connection.setAutoCommit(false);
+    }
+
+    @Override
+    public void init(ColumnLayout layout) throws SQLException {
+        this.layout = layout;
+        if (layout.hasLobs()) {
+            log.info("{} has LOB columns, writing it with batched INSERT instead of bulk copy", targetTable);
+            fallback = new InsertBatchWriter(connection, insertQuery, monitor);
+            fallback.init(layout);
+        }
+    }
+
+    @Override
+    public int write(RowBatch batch) throws SQLException {
+        if (fallback != null) {
+            return fallback.write(batch);
+        }
+        SQLServerBulkCopyOptions options = new SQLServerBulkCopyOptions();
+        // Run inside the connection's transaction so rollback() discards a failed batch
+        options.setUseInternalTransaction(false);
+        options.setBatchSize(batch.size());
+
+        monitor.onOperationStart(CopyMonitor.Operation.EXECUTE);
+        long executeStart = System.nanoTime();
+        try (SQLServerBulkCopy bulkCopy = new SQLServerBulkCopy(connection.unwrap(SQLServerConnection.class))) {
+            bulkCopy.setBulkCopyOptions(options);
+            bulkCopy.setDestinationTableName(targetTable);
+            for (int i = 0; i < columns.size(); i++) {
+                bulkCopy.addColumnMapping(i + 1, columns.get(i));
+            }
+            bulkCopy.writeToServer(new BatchBulkData(batch));
+        }
+        long commitStart = System.nanoTime();
+        monitor.onBatchExecuted(batch.size(), commitStart - executeStart);
+        monitor.onOperationStart(CopyMonitor.Operation.COMMIT);
+        connection.commit();
+        monitor.onCommit(System.nanoTime() - commitStart);
+        return batch.size();
+    }
+
+    @Override
+    public void rollback() throws SQLException {
+        if (fallback != null) {
+            fallback.rollback();
+        } else {
+            connection.rollback();
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        // The fallback shares the connection and closes it
+        if (fallback != null) {
+            fallback.close();
+        } else {
+            connection.close();
+        }
+    }
+
+    /**
+     * Exposes a row batch to the bulk copy API
+     */
+    private class BatchBulkData implements ISQLServerBulkData {
+
+        private final RowBatch batch;
+        private final Object[] row;
+        private int current = -1;
+
+        BatchBulkData(RowBatch batch) {
+            this.batch = batch;
+            this.row = new Object[batch.columnCount()];
+        }
+
+        @Override
+        public Set<Integer> getColumnOrdinals() {
+            Set<Integer> ordinals = new LinkedHashSet<>();
+            for (int i = 1; i <= layout.size(); i++) {
+                ordinals.add(i);
+            }
+            return ordinals;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return columns.get(column - 1);
+        }
+
+        @Override
+        public int getColumnType(int column) {
+            return layout.type(column - 1);
+        }
+
+        @Override
+        public int getPrecision(int column) {
+            return layout.precision(column - 1);
+        }
+
+        @Override
+        public int getScale(int column) {
+            return layout.scale(column - 1);
+        }
+
+        @Override
+        public Object[] getRowData() {
+            // The bulk copy consumes each row before asking for the next, so one array is reused
+            for (int c = 0; c < row.length; c++) {
+                row[c] = toReportedType(batch.get(current, c), layout.type(c));
+            }
+            return row;
+        }
+
+        /**
+         * The bulk copy casts each value to the class of the type reported by getColumnType,
+         * while the batch keeps integral columns as Long and floating-point columns as Double
+         */
+        private Object toReportedType(Object value, int sqlType) {
+            if (value == null) {
+                return null;
+            }
+            switch (sqlType) {
+                case Types.INTEGER:
+                    return ((Number) value).intValue();
+                case Types.BIGINT:
+                    // Unsigned BIGINT sources are kept as BigDecimal
+                    return value instanceof BigDecimal ? ((BigDecimal) value).longValueExact() : value;
+                case Types.REAL:
+                case Types.FLOAT:
+                    return ((Number) value).floatValue();
+                case Types.DOUBLE:
+                    return ((Number) value).doubleValue();
+                case Types.NUMERIC:
+                case Types.DECIMAL:
+                    // Integral NUMBER(p) columns are kept as Long
+                    return value instanceof Long ? BigDecimal.valueOf((Long) value) : value;
+                default:
+                    return value;
+            }
+        }
+
+        @Override
+        public boolean next() {
+            return ++current < batch.size();
+        }
+    }
+}
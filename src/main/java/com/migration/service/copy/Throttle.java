@@ -0,0 +1,191 @@
+package main.java.com.migration.service.copy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Limits how fast rows are read from the source, in rows per second and in estimated bytes per
+ * second, so that a migration does not starve the production workload of a live source.
+ * <p>
+ * One throttle is shared by every partition of a job and chains to the global throttle shared
+ * by all jobs; a batch waits for both. Limits can be changed while the job runs. With auto
+ * throttling the row rate is halved whenever the source takes longer than the threshold per
+ * fetched row, measured once per second across all partitions, and raised again by a tenth per
+ * second while it recovers, until the limit is lifted again.
+ */
+@Slf4j
+public class Throttle {
+
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final double BACK_OFF_FACTOR = 0.5;
+    private static final double RECOVERY_FACTOR = 1.1;
+    private static final double MIN_AUTO_ROWS_PER_SECOND = 10;
+
+    private final String name;
+    private final Throttle parent;
+    private final TokenBucket rowBucket = new TokenBucket(0);
+    private final TokenBucket byteBucket = new TokenBucket(0);
+    private final AtomicLong waitNanos = new AtomicLong();
+    private volatile long rowWidth = 1;
+
+    private long rowsPerSecond;
+    private long bytesPerSecond;
+    private boolean autoThrottle;
+    private long maxFetchMicrosPerRow;
+
+    // Auto throttling state: the backed-off rate (0 when not backing off), the rate it started
+    // from, and the current measuring window
+    private double autoRowsPerSecond;
+    private double rateBeforeBackOff;
+    private long windowStart = System.nanoTime();
+    private long windowRows;
+    private long windowFetchNanos;
+
+    /**
+     * @param parent throttle every batch also has to pass, or null
+     */
+    public Throttle(String name, Throttle parent, long rowsPerSecond, long bytesPerSecond) {
+        this.name = name;
+        this.parent = parent;
+        setLimits(rowsPerSecond, bytesPerSecond);
+    }
+
+    /**
+     * Throttle that never waits
+     */
+    public static Throttle unlimited() {
+        return new Throttle("unlimited", null, 0, 0);
+    }
+
+    /**
+     * Sets the configured limits; zero or less removes a limit
+     */
+    public synchronized void setLimits(long rowsPerSecond, long bytesPerSecond) {
+        this.rowsPerSecond = Math.max(0, rowsPerSecond);
+        this.bytesPerSecond = Math.max(0, bytesPerSecond);
+        byteBucket.setRate(this.bytesPerSecond);
+        applyRowRate();
+        log.info("Throttle {}: {} rows/s, {} bytes/s", name, describe(this.rowsPerSecond), describe(this.bytesPerSecond));
+    }
+
+    /**
+     * Turns backing off on source fetch latency on or off
+     */
+    public synchronized void setAutoThrottle(boolean autoThrottle, long maxFetchMicrosPerRow) {
+        this.autoThrottle = autoThrottle;
+        this.maxFetchMicrosPerRow = Math.max(1, maxFetchMicrosPerRow);
+        if (!autoThrottle) {
+            autoRowsPerSecond = 0;
+            applyRowRate();
+        }
+    }
+
+    /**
+     * Estimated bytes per row, used to charge the byte limit
+     */
+    public void setRowWidth(long rowWidth) {
+        this.rowWidth = Math.max(1, rowWidth);
+    }
+
+    /**
+     * Charges a batch that was just read and waits until the limits allow the next one
+     */
+    public void acquire(int rows, BooleanSupplier cancelled) throws InterruptedException {
+        acquire(rows, rows * rowWidth, cancelled);
+    }
+
+    private long acquire(long rows, long bytes, BooleanSupplier cancelled) throws InterruptedException {
+        long waited = rowBucket.acquire(rows, cancelled) + byteBucket.acquire(bytes, cancelled);
+        if (parent != null) {
+            waited += parent.acquire(rows, bytes, cancelled);
+        }
+        waitNanos.addAndGet(waited);
+        return waited;
+    }
+
+    /**
+     * Feeds the time the source took to return a batch into auto throttling
+     */
+    public synchronized void onFetch(int rows, long nanos) {
+        if (!autoThrottle || rows == 0) {
+            return;
+        }
+        windowRows += rows;
+        windowFetchNanos += nanos;
+        long now = System.nanoTime();
+        long elapsed = now - windowStart;
+        if (elapsed < WINDOW_NANOS) {
+            return;
+        }
+        double microsPerRow = windowFetchNanos / 1000.0 / windowRows;
+        double deliveredRate = windowRows * 1e9 / elapsed;
+        windowStart = now;
+        windowRows = 0;
+        windowFetchNanos = 0;
+
+        if (microsPerRow > maxFetchMicrosPerRow) {
+            if (autoRowsPerSecond == 0) {
+                rateBeforeBackOff = deliveredRate;
+            }
+            double base = autoRowsPerSecond > 0 ? Math.min(autoRowsPerSecond, deliveredRate) : deliveredRate;
+            autoRowsPerSecond = Math.max(MIN_AUTO_ROWS_PER_SECOND, base * BACK_OFF_FACTOR);
+            log.info("Throttle {}: source fetch takes {} us/row, backing off to {} rows/s", name,
+                    Math.round(microsPerRow), Math.round(autoRowsPerSecond));
+        } else if (autoRowsPerSecond > 0) {
+            autoRowsPerSecond *= RECOVERY_FACTOR;
+            double ceiling = rowsPerSecond > 0 ? rowsPerSecond : rateBeforeBackOff;
+            if (autoRowsPerSecond >= ceiling) {
+                autoRowsPerSecond = 0;
+                log.info("Throttle {}: source fetch latency recovered, back to {} rows/s", name, describe(rowsPerSecond));
+            }
+        } else {
+            return;
+        }
+        applyRowRate();
+    }
+
+    public synchronized long getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public synchronized long getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    public synchronized boolean isAutoThrottle() {
+        return autoThrottle;
+    }
+
+    public synchronized long getMaxFetchMicrosPerRow() {
+        return maxFetchMicrosPerRow;
+    }
+
+    /**
+     * Row rate currently enforced, including any auto throttling back-off; 0 when unlimited
+     */
+    public double getEffectiveRowsPerSecond() {
+        return rowBucket.getRate();
+    }
+
+    /**
+     * Total time batches spent waiting on this throttle and its parent
+     */
+    public long getWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(waitNanos.get());
+    }
+
+    private void applyRowRate() {
+        double rate = rowsPerSecond;
+        if (autoRowsPerSecond > 0) {
+            rate = rate > 0 ? Math.min(rate, autoRowsPerSecond) : autoRowsPerSecond;
+        }
+        rowBucket.setRate(rate);
+    }
+
+    private static String describe(long limit) {
+        return limit > 0 ? String.valueOf(limit) : "unlimited";
+    }
+}
@@ -0,0 +1,80 @@
+package main.java.com.migration.service.copy;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Limits a rate of units per second, allowing bursts of up to one second's worth.
+ * <p>
+ * A caller takes its units at once, possibly running the bucket into debt, and then waits until
+ * the debt has been refilled. Batches larger than the burst are therefore allowed but paid for
+ * afterwards. The rate can be changed at any time; waiting callers see the new rate within
+ * {@link #MAX_SLEEP_MILLIS}. A rate of zero or less means unlimited.
+ */
+public class TokenBucket {
+
+    private static final long MAX_SLEEP_MILLIS = 100;
+
+    private double ratePerSecond;
+    private double tokens;
+    private long lastRefill = System.nanoTime();
+
+    public TokenBucket(double ratePerSecond) {
+        setRate(ratePerSecond);
+    }
+
+    public synchronized double getRate() {
+        return ratePerSecond;
+    }
+
+    public synchronized void setRate(double ratePerSecond) {
+        refill();
+        this.ratePerSecond = Math.max(0, ratePerSecond);
+        // Debt run up under the old rate is kept, so callers already waiting cannot slip through a
+        // rate change; it is only forgiven when the limit is lifted
+        tokens = this.ratePerSecond > 0 ? Math.min(tokens, this.ratePerSecond) : 0;
+    }
+
+    public synchronized boolean isLimited() {
+        return ratePerSecond > 0;
+    }
+
+    /**
+     * Takes the units and blocks until the bucket is out of debt or {@code cancelled} reports true
+     *
+     * @return nanoseconds spent waiting
+     */
+    public long acquire(long units, BooleanSupplier cancelled) throws InterruptedException {
+        synchronized (this) {
+            if (ratePerSecond <= 0 || units <= 0) {
+                return 0;
+            }
+            refill();
+            tokens -= units;
+        }
+        long start = System.nanoTime();
+        while (!cancelled.getAsBoolean()) {
+            long waitNanos;
+            synchronized (this) {
+                if (ratePerSecond <= 0) {
+                    break;
+                }
+                refill();
+                if (tokens >= 0) {
+                    break;
+                }
+                waitNanos = (long) (-tokens / ratePerSecond * 1e9);
+            }
+            TimeUnit.NANOSECONDS.sleep(Math.min(waitNanos, TimeUnit.MILLISECONDS.toNanos(MAX_SLEEP_MILLIS)));
+        }
+        return System.nanoTime() - start;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        if (ratePerSecond > 0) {
+            tokens = Math.min(ratePerSecond, tokens + (now - lastRefill) / 1e9 * ratePerSecond);
+        }
+        lastRefill = now;
+    }
+}
@@ -0,0 +1,136 @@
+package main.java.com.migration.service.jfr;
+
+import com.migration.service.copy.CopyMonitor;
+import com.migration.service.copy.ForwardingCopyMonitor;
+
+/**
+ * Emits a {@link MigrationEvents} event for every metadata lookup, DDL statement, fetch,
+ * bind, execute and commit of one job. Events cost nothing unless a recording is running.
+ * <p>
+ * An event begins in {@link #onOperationStart} and ends in the callback that reports the
+ * operation, so its start time and duration in the recording cover the operation itself. Each
+ * thread runs one operation at a time, which is why the open event is kept per thread.
+ */
+public class JfrCopyMonitor extends ForwardingCopyMonitor {
+
+    private final String jobId;
+    private final String sourceTable;
+    private final String targetTable;
+    private final ThreadLocal<MigrationEvents.MigrationEvent> started = new ThreadLocal<>();
+
+    public JfrCopyMonitor(CopyMonitor delegate, String jobId, String sourceTable, String targetTable) {
+        super(delegate);
+        this.jobId = jobId;
+        this.sourceTable = sourceTable;
+        this.targetTable = targetTable;
+    }
+
+    @Override
+    public void onOperationStart(Operation operation) {
+        MigrationEvents.MigrationEvent event = newEvent(operation);
+        if (event.isEnabled()) {
+            event.begin();
+            started.set(event);
+        } else {
+            started.remove();
+        }
+        super.onOperationStart(operation);
+    }
+
+    @Override
+    public void onMetadataLookup(String table, long nanos) {
+        MigrationEvents.MetadataLookupEvent event = finish(MigrationEvents.MetadataLookupEvent.class);
+        if (event != null && event.shouldCommit()) {
+            commit(event, table, nanos);
+        }
+        super.onMetadataLookup(table, nanos);
+    }
+
+    @Override
+    public void onDdl(String table, String operation, long nanos) {
+        MigrationEvents.DdlEvent event = finish(MigrationEvents.DdlEvent.class);
+        if (event != null && event.shouldCommit()) {
+            event.operation = operation;
+            commit(event, table, nanos);
+        }
+        super.onDdl(table, operation, nanos);
+    }
+
+    @Override
+    public void onFetch(int rows, long nanos) {
+        MigrationEvents.FetchEvent event = finish(MigrationEvents.FetchEvent.class);
+        if (event != null && event.shouldCommit()) {
+            event.rows = rows;
+            commit(event, sourceTable, nanos);
+        }
+        super.onFetch(rows, nanos);
+    }
+
+    @Override
+    public void onBatchBound(int rows, long nanos) {
+        MigrationEvents.BatchBindEvent event = finish(MigrationEvents.BatchBindEvent.class);
+        if (event != null && event.shouldCommit()) {
+            event.rows = rows;
+            commit(event, targetTable, nanos);
+        }
+        super.onBatchBound(rows, nanos);
+    }
+
+    @Override
+    public void onBatchExecuted(int rows, long nanos) {
+        MigrationEvents.BatchExecuteEvent event = finish(MigrationEvents.BatchExecuteEvent.class);
+        if (event != null && event.shouldCommit()) {
+            event.rows = rows;
+            commit(event, targetTable, nanos);
+        }
+        super.onBatchExecuted(rows, nanos);
+    }
+
+    @Override
+    public void onCommit(long nanos) {
+        MigrationEvents.CommitEvent event = finish(MigrationEvents.CommitEvent.class);
+        if (event != null && event.shouldCommit()) {
+            commit(event, targetTable, nanos);
+        }
+        super.onCommit(nanos);
+    }
+
+    private static MigrationEvents.MigrationEvent newEvent(Operation operation) {
+        switch (operation) {
+            case METADATA_LOOKUP:
+                return new MigrationEvents.MetadataLookupEvent();
+            case DDL:
+                return new MigrationEvents.DdlEvent();
+            case FETCH:
+                return new MigrationEvents.FetchEvent();
+            case BIND:
+                return new MigrationEvents.BatchBindEvent();
+            case EXECUTE:
+                return new MigrationEvents.BatchExecuteEvent();
+            default:
+                return new MigrationEvents.CommitEvent();
+        }
+    }
+
+    /**
+     * Ends the event this thread began for the operation being reported
+     *
+     * @return the event, or null when none of that type was begun, e.g. while no recording runs
+     */
+    private <T extends MigrationEvents.MigrationEvent> T finish(Class<T> type) {
+        MigrationEvents.MigrationEvent event = started.get();
+        if (!type.isInstance(event)) {
+            return null;
+        }
+        started.remove();
+        event.end();
+        return type.cast(event);
+    }
+
+    private void commit(MigrationEvents.MigrationEvent event, String table, long nanos) {
+        event.jobId = jobId;
+        event.table = table;
+        event.elapsed = nanos;
+        event.commit();
+    }
+}
@@ -0,0 +1,76 @@
+package main.java.com.migration.service.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder events for the phases of a migration. Each event begins when the operation
+ * starts and is committed on the thread that did the work right after it finished, so the
+ * event's duration spans the operation; {@code elapsed} carries the time the caller measured.
+ */
+public final class MigrationEvents {
+
+    private MigrationEvents() {
+    }
+
+    @Category({"Data Migration"})
+    public abstract static class MigrationEvent extends Event {
+        @Label("Job ID")
+        public String jobId;
+
+        @Label("Table")
+        public String table;
+
+        @Label("Elapsed")
+        @Timespan(Timespan.NANOSECONDS)
+        public long elapsed;
+    }
+
+    @Name("com.migration.MetadataLookup")
+    @Label("Metadata Lookup")
+    @Description("Reading the structure of a source table")
+    public static class MetadataLookupEvent extends MigrationEvent {
+    }
+
+    @Name("com.migration.Ddl")
+    @Label("DDL")
+    @Description("Creating or truncating a target table")
+    public static class DdlEvent extends MigrationEvent {
+        @Label("Operation")
+        public String operation;
+    }
+
+    @Name("com.migration.Fetch")
+    @Label("Source Fetch")
+    @Description("Fetching one batch of rows from the source result set")
+    public static class FetchEvent extends MigrationEvent {
+        @Label("Rows")
+        public int rows;
+    }
+
+    @Name("com.migration.BatchBind")
+    @Label("Batch Bind")
+    @Description("Binding the parameters of one batch")
+    public static class BatchBindEvent extends MigrationEvent {
+        @Label("Rows")
+        public int rows;
+    }
+
+    @Name("com.migration.BatchExecute")
+    @Label("Batch Execute")
+    @Description("Sending one batch to the target, commit excluded")
+    public static class BatchExecuteEvent extends MigrationEvent {
+        @Label("Rows")
+        public int rows;
+    }
+
+    @Name("com.migration.Commit")
+    @Label("Commit")
+    @Description("Committing one batch on the target")
+    public static class CommitEvent extends MigrationEvent {
+    }
+}
@@ -1,8 +1,11 @@
 package main.java.com.migration.util;
 
+import com.migration.model.TableInfo;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -256,4 +259,83 @@ public class DatabaseDialectConverter {
             return "VARCHAR(255)";
         }
     }
+
+    // Identifier limit of the strictest target (Oracle before 12.2)
+    private static final int MAX_IDENTIFIER_LENGTH = 30;
+
+    /**
+     * Builds the statement that adds a primary key to an existing table. SQL Server gets a
+     * clustered key, which has to be built before any nonclustered index.
+     */
+    public static String buildAddPrimaryKey(String targetDbType, String table, List<String> columns) {
+        String columnList = String.join(", ", columns);
+        switch (normalize(targetDbType)) {
+            case "sqlserver":
+                return "ALTER TABLE " + table + " ADD CONSTRAINT " + buildIndexName(table, "pk", 0)
+                        + " PRIMARY KEY CLUSTERED (" + columnList + ")";
+            case "oracle":
+                return "ALTER TABLE " + table + " ADD CONSTRAINT " + buildIndexName(table, "pk", 0)
+                        + " PRIMARY KEY (" + columnList + ")";
+            default:
+                return "ALTER TABLE " + table + " ADD PRIMARY KEY (" + columnList + ")";
+        }
+    }
+
+    /**
+     * Builds the statement that creates a secondary index on an existing table
+     */
+    public static String buildCreateIndex(String targetDbType, String table, TableInfo.IndexInfo index) {
+        String unique = index.isUnique() ? "UNIQUE " : "";
+        String columnList = String.join(", ", index.getColumns());
+        switch (normalize(targetDbType)) {
+            case "sqlserver":
+                // Sorting in tempdb keeps the sort runs out of the user database
+                return "CREATE " + unique + "NONCLUSTERED INDEX " + index.getName() + " ON " + table
+                        + " (" + columnList + ") WITH (SORT_IN_TEMPDB = ON)";
+            case "mysql":
+                return "ALTER TABLE " + table + " ADD " + unique + "INDEX " + index.getName() + " (" + columnList + ")";
+            default:
+                return "CREATE " + unique + "INDEX " + index.getName() + " ON " + table + " (" + columnList + ")";
+        }
+    }
+
+    /**
+     * Builds one ALTER TABLE adding the primary key and every index, for MySQL where each
+     * ALTER TABLE rebuilds the table and separate statements would only queue on its lock
+     */
+    public static String buildMySqlAddKeys(String table, List<String> primaryKey, List<TableInfo.IndexInfo> indexes) {
+        List<String> clauses = new ArrayList<>();
+        if (primaryKey != null && !primaryKey.isEmpty()) {
+            clauses.add("ADD PRIMARY KEY (" + String.join(", ", primaryKey) + ")");
+        }
+        for (TableInfo.IndexInfo index : indexes) {
+            clauses.add("ADD " + (index.isUnique() ? "UNIQUE " : "") + "INDEX " + index.getName()
+                    + " (" + String.join(", ", index.getColumns()) + ")");
+        }
+        return "ALTER TABLE " + table + " " + String.join(", ", clauses);
+    }
+
+    /**
+     * Whether separate index builds on one table can run at the same time on the target
+     */
+    public static boolean supportsParallelIndexBuilds(String targetDbType) {
+        return !"mysql".equals(normalize(targetDbType));
+    }
+
+    /**
+     * Derives an index or constraint name for the target table that stays within identifier limits
+     */
+    public static String buildIndexName(String table, String suffix, int ordinal) {
+        String tableName = table.substring(table.lastIndexOf('.') + 1).replaceAll("[^A-Za-z0-9_]", "");
+        String name = tableName + "_" + suffix.replaceAll("[^A-Za-z0-9_]", "");
+        if (name.length() <= MAX_IDENTIFIER_LENGTH) {
+            return name;
+        }
+        String shortSuffix = "_ix" + ordinal;
+        return tableName.substring(0, Math.min(tableName.length(), MAX_IDENTIFIER_LENGTH - shortSuffix.length())) + shortSuffix;
+    }
+
+    private static String normalize(String dbType) {
+        return dbType == null ? "" : dbType.toLowerCase();
+    }
 }
@@ -0,0 +1,101 @@
+package main.java.com.migration.util;
+
+import com.migration.model.TableInfo;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Sizes and configures source statements so that rows are streamed from a server-side cursor
+ * instead of the whole result set being loaded onto the heap
+ */
+@Slf4j
+public class FetchSizeCalculator {
+
+    private static final int MIN_FETCH_SIZE = 100;
+    private static final int MAX_FETCH_SIZE = 50_000;
+
+    // Rough per-value overhead of a boxed value plus its slot in the row
+    private static final int VALUE_OVERHEAD_BYTES = 16;
+    private static final int DEFAULT_VARCHAR_LENGTH = 255;
+    private static final int MAX_INLINE_VARCHAR_LENGTH = 4000;
+    private static final int LOB_ESTIMATE_BYTES = 4096;
+
+    private FetchSizeCalculator() {
+    }
+
+    /**
+     * Estimates the in-memory width of one row of the given columns in bytes
+     */
+    public static long estimateRowWidth(List<TableInfo.ColumnInfo> columns) {
+        long width = 0;
+        for (TableInfo.ColumnInfo column : columns) {
+            width += VALUE_OVERHEAD_BYTES + estimateValueWidth(column);
+        }
+        return Math.max(1, width);
+    }
+
+    /**
+     * Derives a fetch size from a memory budget and the estimated row width
+     */
+    public static int fetchSize(long memoryBudgetBytes, long rowWidth) {
+        long rows = memoryBudgetBytes / Math.max(1, rowWidth);
+        return (int) Math.max(MIN_FETCH_SIZE, Math.min(MAX_FETCH_SIZE, rows));
+    }
+
+    /**
+     * Prepares a forward-only, read-only source query that streams with the given fetch size.
+     * PostgreSQL only uses a cursor inside a transaction, so auto-commit is switched off on the
+     * source connection; MySQL streams through the useCursorFetch connection property set by
+     * the connection pool; Oracle and HANA use the fetch size as their row prefetch.
+     */
+    public static PreparedStatement prepareStreaming(Connection connection, String dbType, String sql,
+                                                     int fetchSize) throws SQLException {
+        if ("postgresql".equalsIgnoreCase(dbType)) {
+            connection.setAutoCommit(false);
+        }
+        PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(fetchSize);
+        log.debug("Streaming source query for {} with fetch size {}", dbType, fetchSize);
+        return statement;
+    }
+
+    /**
+     * Whether the type holds large objects that drivers may return as locators or streams
+     */
+    public static boolean isLob(String dataType) {
+        String type = dataType == null ? "" : dataType.toLowerCase();
+        return type.contains("lob") || type.contains("text") || type.equals("bytea") || type.equals("image")
+                || type.contains("long");
+    }
+
+    private static long estimateValueWidth(TableInfo.ColumnInfo column) {
+        String type = column.getDataType() == null ? "" : column.getDataType().toLowerCase();
+        if (isLob(type)) {
+            return LOB_ESTIMATE_BYTES;
+        }
+        if (type.contains("char") || type.contains("binary") || type.equals("raw")) {
+            int length = column.getColumnSize() > 0 ? column.getColumnSize() : DEFAULT_VARCHAR_LENGTH;
+            // Java strings hold two bytes per character
+            return 40L + 2L * Math.min(length, MAX_INLINE_VARCHAR_LENGTH);
+        }
+        if (type.contains("bigint") || type.contains("int8") || type.contains("double") || type.contains("float8")) {
+            return 8;
+        }
+        if (type.contains("int") || type.contains("real") || type.contains("float") || type.contains("bool")
+                || type.equals("bit")) {
+            return 4;
+        }
+        if (type.contains("date") || type.contains("time")) {
+            return 32;
+        }
+        if (type.contains("decimal") || type.contains("numeric") || type.contains("number")) {
+            return 40;
+        }
+        return 64;
+    }
+}
@@ -0,0 +1,91 @@
+package main.java.com.migration.util;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Builds single-row upsert statements in each target's native syntax. Parameters are bound in
+ * the order of the given columns, the same order as a plain INSERT.
+ */
+public class UpsertQueryBuilder {
+
+    private UpsertQueryBuilder() {
+    }
+
+    /**
+     * Builds the upsert for the target, matching existing rows on the key columns
+     *
+     * @throws IllegalArgumentException if there are no key columns or the target has no upsert syntax here
+     */
+    public static String build(String targetDbType, String table, List<String> columns, List<String> keyColumns) {
+        if (keyColumns == null || keyColumns.isEmpty()) {
+            throw new IllegalArgumentException("Upsert into " + table + " needs at least one key column");
+        }
+        List<String> updateColumns = columns.stream()
+                .filter(column -> keyColumns.stream().noneMatch(key -> key.equalsIgnoreCase(column)))
+                .collect(Collectors.toList());
+        String dbType = targetDbType == null ? "" : targetDbType.toLowerCase();
+
+        switch (dbType) {
+            case "postgresql":
+                return insert(table, columns) + " ON CONFLICT (" + String.join(", ", keyColumns) + ")"
+                        + (updateColumns.isEmpty()
+                            ? " DO NOTHING"
+                            : " DO UPDATE SET " + assignments(updateColumns, "", "EXCLUDED."));
+            case "mysql":
+                // A no-op assignment keeps key-only tables from failing on duplicates
+                return insert(table, columns) + " ON DUPLICATE KEY UPDATE "
+                        + (updateColumns.isEmpty()
+                            ? keyColumns.get(0) + " = " + keyColumns.get(0)
+                            : updateColumns.stream().map(c -> c + " = VALUES(" + c + ")").collect(Collectors.joining(", ")));
+            case "sqlserver":
+                return merge(table, columns, keyColumns, updateColumns,
+                        "(VALUES (" + placeholders(columns.size()) + ")) AS src (" + String.join(", ", columns) + ")",
+                        true) + ";";
+            case "oracle":
+                return merge(table, columns, keyColumns, updateColumns, selectParameters(columns, "DUAL"), false);
+            case "hana":
+                return merge(table, columns, keyColumns, updateColumns, selectParameters(columns, "DUMMY"), false);
+            default:
+                throw new IllegalArgumentException("Upsert is not supported for database type: " + targetDbType);
+        }
+    }
+
+    private static String insert(String table, List<String> columns) {
+        return "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES (" + placeholders(columns.size()) + ")";
+    }
+
+    private static String merge(String table, List<String> columns, List<String> keyColumns, List<String> updateColumns,
+                                String source, boolean aliasWithAs) {
+        String condition = keyColumns.stream().map(k -> "tgt." + k + " = src." + k).collect(Collectors.joining(" AND "));
+        StringBuilder sql = new StringBuilder();
+        sql.append("MERGE INTO ").append(table).append(aliasWithAs ? " AS tgt" : " tgt")
+                .append(" USING ").append(source)
+                .append(" ON (").append(condition).append(")");
+        if (!updateColumns.isEmpty()) {
+            sql.append(" WHEN MATCHED THEN UPDATE SET ").append(assignments(updateColumns, "tgt.", "src."));
+        }
+        sql.append(" WHEN NOT MATCHED THEN INSERT (").append(String.join(", ", columns)).append(") VALUES (")
+                .append(columns.stream().map(c -> "src." + c).collect(Collectors.joining(", "))).append(")");
+        return sql.toString();
+    }
+
+    private static String selectParameters(List<String> columns, String dualTable) {
+        return "(SELECT " + columns.stream().map(c -> "? AS " + c).collect(Collectors.joining(", "))
+                + " FROM " + dualTable + ") src";
+    }
+
+    private static String assignments(List<String> columns, String targetPrefix, String sourcePrefix) {
+        return columns.stream()
+                .map(c -> targetPrefix + c + " = " + sourcePrefix + c)
+                .collect(Collectors.joining(", "));
+    }
+
+    private static String placeholders(int count) {
+        StringBuilder sql = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        return sql.toString();
+    }
+}
@@ -8,6 +8,7 @@ $(document).ready(function() {
     let targetConnectionValid = false;
     let sourceColumns = [];
     let sourceTableInfo = null;
+    let currentJobId = null;
     
     // Event handlers for database type selection
     $('#source-db-type').on('change', function() {
@@ -68,6 +69,11 @@ $(document).ready(function() {
         startMigration();
     });
     
+    // Cancel migration button
+    $('#cancel-migration').on('click', function() {
+        cancelMigration();
+    });
+    
     /**
      * Updates port and shows/hides specific fields based on selected database type
      */
@@ -265,11 +271,13 @@ $(document).ready(function() {
             data: JSON.stringify({
                 ...connectionData,
                 tableName: tableName,
-                whereClause: whereClause
+                whereClause: whereClause,
+                exact: $('#exact-count').is(':checked')
             }),
             success: function(response) {
                 if (response.success) {
-                    $display.html(`<strong>${response.count.toLocaleString()}</strong> records found`);
+                    const prefix = response.exact ? '' : '~';
+                    $display.html(`<strong>${prefix}${response.count.toLocaleString()}</strong> records ${response.exact ? 'found' : 'estimated'}`);
                 } else {
                     showMessage($('#source-connection-message'), response.message, 'danger');
                 }
@@ -300,7 +308,7 @@ $(document).ready(function() {
         // Show progress section
         $('#migration-progress').show();
         $('#migration-status').html('Preparing migration...');
-        $('.progress-bar').css('width', '10%').attr('aria-valuenow', 10);
+        $('.progress-bar').removeClass('bg-danger').css('width', '10%').attr('aria-valuenow', 10);
         
         const migrationRequest = {
             sourceConnection: getConnectionData('source'),
@@ -311,7 +319,8 @@ $(document).ready(function() {
             whereClause: $('#where-clause').val(),
             createTargetTable: $('#create-target-table').is(':checked'),
             truncateTargetTable: $('#truncate-target-table').is(':checked'),
-            batchSize: parseInt($('#batch-size').val())
+            batchSize: parseInt($('#batch-size').val()),
+            writeMode: $('#write-mode').val()
         };
         
         $.ajax({
@@ -320,44 +329,119 @@ $(document).ready(function() {
             contentType: 'application/json',
             data: JSON.stringify(migrationRequest),
             success: function(response) {
-                // Update progress
-                $('.progress-bar').css('width', '100%').attr('aria-valuenow', 100);
-                $('#migration-status').html('Migration complete!');
-                
-                // Show results
-                showMigrationResults(response);
+                if (response.success) {
+                    currentJobId = response.jobId;
+                    $('#cancel-migration').prop('disabled', false).show();
+                    pollMigrationJob(response.jobId);
+                } else {
+                    migrationFailed(response.message || 'Migration failed!');
+                }
             },
             error: function(xhr) {
-                $('.progress-bar').css('width', '100%').addClass('bg-danger');
-                $('#migration-status').html('Migration failed!');
-                
                 try {
                     const response = JSON.parse(xhr.responseText);
-                    showMigrationResults({
-                        success: false,
-                        totalRecords: 0,
-                        migratedRecords: 0,
-                        failedRecords: 0,
-                        executionTime: 0,
-                        message: response.message || 'Migration failed!'
-                    });
+                    migrationFailed(response.message || 'Migration failed!');
                 } catch (e) {
-                    showMigrationResults({
-                        success: false,
-                        totalRecords: 0,
-                        migratedRecords: 0,
-                        failedRecords: 0,
-                        executionTime: 0,
-                        message: 'Migration failed: ' + xhr.responseText
-                    });
+                    migrationFailed('Migration failed: ' + xhr.responseText);
+                }
+            }
+        });
+    }
+    
+    /**
+     * Polls the status of a migration job until it finishes
+     */
+    function pollMigrationJob(jobId) {
+        $.ajax({
+            url: '/jobs/' + jobId,
+            type: 'GET',
+            success: function(response) {
+                if (!response.success) {
+                    migrationFailed(response.message);
+                    return;
+                }
+                
+                const job = response.job;
+                updateMigrationProgress(job);
+                
+                if (job.result) {
+                    $('.progress-bar').css('width', '100%').attr('aria-valuenow', 100);
+                    if (!job.result.success) {
+                        $('.progress-bar').addClass('bg-danger');
+                    }
+                    $('#migration-status').html(job.result.success ? 'Migration complete!' : 'Migration ' + job.phase.toLowerCase() + '!');
+                    showMigrationResults(job.result);
+                    resetMigrationButtons();
+                } else {
+                    setTimeout(function() { pollMigrationJob(jobId); }, 1000);
                 }
             },
-            complete: function() {
-                $button.prop('disabled', false).html('<i class="fas fa-exchange-alt"></i> Start Migration');
+            error: function(xhr) {
+                migrationFailed('Failed to get migration status: ' + xhr.responseText);
             }
         });
     }
     
+    /**
+     * Updates the progress bar and status line from a job status
+     */
+    function updateMigrationProgress(job) {
+        let status = `Phase: ${job.phase}`;
+        if (job.phase === 'COPYING' || job.result) {
+            status += ` &mdash; ${job.rowsWritten.toLocaleString()}`;
+            if (job.estimatedTotal > 0) {
+                status += ` of ~${job.estimatedTotal.toLocaleString()}`;
+            }
+            status += ` rows (${Math.round(job.rowsPerSecond).toLocaleString()} rows/sec)`;
+            if (job.etaSeconds !== null && job.etaSeconds !== undefined) {
+                status += `, ETA ${job.etaSeconds}s`;
+            }
+        }
+        $('#migration-status').html(status);
+        
+        if (job.percentComplete !== null && job.percentComplete !== undefined) {
+            const percent = Math.max(10, Math.round(job.percentComplete));
+            $('.progress-bar').css('width', percent + '%').attr('aria-valuenow', percent);
+        }
+    }
+    
+    /**
+     * Cancels the running migration job
+     */
+    function cancelMigration() {
+        if (!currentJobId) {
+            return;
+        }
+        $('#cancel-migration').prop('disabled', true);
+        $.ajax({
+            url: '/jobs/' + currentJobId + '/cancel',
+            type: 'POST'
+        });
+    }
+    
+    /**
+     * Shows a migration that failed before or while being submitted
+     */
+    function migrationFailed(message) {
+        $('.progress-bar').css('width', '100%').addClass('bg-danger');
+        $('#migration-status').html('Migration failed!');
+        showMigrationResults({
+            success: false,
+            totalRecords: 0,
+            migratedRecords: 0,
+            failedRecords: 0,
+            executionTime: 0,
+            message: message
+        });
+        resetMigrationButtons();
+    }
+    
+    function resetMigrationButtons() {
+        currentJobId = null;
+        $('#cancel-migration').hide();
+        $('#start-migration').prop('disabled', false).html('<i class="fas fa-exchange-alt"></i> Start Migration');
+    }
+    
     /**
      * Displays migration results in the UI
      */